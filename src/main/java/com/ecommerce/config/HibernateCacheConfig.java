@@ -0,0 +1,142 @@
+package com.ecommerce.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Second-level cache regions for catalog reference data (see the @Cache
+ * annotations on Category and Product and the cacheable ProductRepository queries).
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String CATEGORY_REGION = "catalog.category";
+    public static final String PRODUCT_REGION = "catalog.product";
+    public static final String PRODUCT_IMAGES_REGION = "catalog.product.images";
+    public static final String PRODUCT_LISTINGS_REGION = "catalog.product.listings";
+
+    private static final List<String> REGIONS = List.of(
+            CATEGORY_REGION, PRODUCT_REGION, PRODUCT_IMAGES_REGION, PRODUCT_LISTINGS_REGION);
+
+    @Value("${hibernate.l2-cache.category.max-entries:1000}")
+    private long categoryMaxEntries;
+
+    @Value("${hibernate.l2-cache.category.ttl-seconds:3600}")
+    private long categoryTtlSeconds;
+
+    @Value("${hibernate.l2-cache.product.max-entries:10000}")
+    private long productMaxEntries;
+
+    @Value("${hibernate.l2-cache.product.ttl-seconds:600}")
+    private long productTtlSeconds;
+
+    @Value("${hibernate.l2-cache.product-images.max-entries:10000}")
+    private long productImagesMaxEntries;
+
+    @Value("${hibernate.l2-cache.product-images.ttl-seconds:600}")
+    private long productImagesTtlSeconds;
+
+    @Value("${hibernate.l2-cache.product-listings.max-entries:500}")
+    private long productListingsMaxEntries;
+
+    @Value("${hibernate.l2-cache.product-listings.ttl-seconds:60}")
+    private long productListingsTtlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-l2"), getClass().getClassLoader());
+
+        createRegion(cacheManager, CATEGORY_REGION, categoryMaxEntries, categoryTtlSeconds);
+        createRegion(cacheManager, PRODUCT_REGION, productMaxEntries, productTtlSeconds);
+        createRegion(cacheManager, PRODUCT_IMAGES_REGION, productImagesMaxEntries, productImagesTtlSeconds);
+        createRegion(cacheManager, PRODUCT_LISTINGS_REGION, productListingsMaxEntries, productListingsTtlSeconds);
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                productListingsMaxEntries, productListingsTtlSeconds);
+        // Update timestamps must outlive every cached query result: one entry per table, never expired
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 0, 0);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    // Per-region hits, misses and hit ratio from Hibernate statistics (hibernate.generate_statistics)
+    @Bean
+    public MeterBinder hibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        return registry -> {
+            for (String region : REGIONS) {
+                Tags tags = Tags.of("region", region);
+
+                FunctionCounter.builder("hibernate.l2-cache.requests", statistics, s -> hitCount(s, region))
+                        .tags(tags.and("result", "hit"))
+                        .register(registry);
+                FunctionCounter.builder("hibernate.l2-cache.requests", statistics, s -> missCount(s, region))
+                        .tags(tags.and("result", "miss"))
+                        .register(registry);
+                Gauge.builder("hibernate.l2-cache.hit-ratio", statistics, s -> hitRatio(s, region))
+                        .tags(tags)
+                        .register(registry);
+            }
+        };
+    }
+
+    private void createRegion(CacheManager cacheManager, String name, long maxEntries, long ttlSeconds) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate stores immutable disassembled state; no need for JCache's copy-on-read
+        configuration.setStoreByValue(false);
+        if (maxEntries > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+
+    private static double hitCount(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics == null ? 0 : regionStatistics.getHitCount();
+    }
+
+    private static double missCount(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics == null ? 0 : regionStatistics.getMissCount();
+    }
+
+    private static double hitRatio(Statistics statistics, String region) {
+        double hits = hitCount(statistics, region);
+        double requests = hits + missCount(statistics, region);
+        return requests == 0 ? 0 : hits / requests;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.handler.AbstractHandlerExceptionResolver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the Cache-Control policies declared with {@link HttpCachePolicy}. The header is
+ * set before the handler runs, so it is also sent with 304 and 404 answers; responses for
+ * exceptions are switched to no-store so a shared cache never keeps a failure.
+ */
+@Configuration
+public class HttpCacheConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private Environment environment;
+
+    private final Map<String, String> policies = new ConcurrentHashMap<>();
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod handlerMethod
+                        && ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+                    HttpCachePolicy policy = handlerMethod.getMethodAnnotation(HttpCachePolicy.class);
+                    if (policy == null) {
+                        policy = handlerMethod.getBeanType().getAnnotation(HttpCachePolicy.class);
+                    }
+                    if (policy != null) {
+                        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl(policy.value()));
+                    }
+                }
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
+        for (HandlerExceptionResolver resolver : resolvers) {
+            if (resolver instanceof AbstractHandlerExceptionResolver handlerExceptionResolver) {
+                handlerExceptionResolver.setPreventResponseCaching(true);
+            }
+        }
+    }
+
+    private String cacheControl(String policy) {
+        return policies.computeIfAbsent(policy,
+                name -> environment.getRequiredProperty("http.cache.policy." + name));
+    }
+}
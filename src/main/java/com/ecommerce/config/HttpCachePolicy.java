@@ -0,0 +1,17 @@
+package com.ecommerce.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Names the Cache-Control policy of a GET endpoint. The header value is configured as
+ * http.cache.policy.&lt;name&gt; in application.properties and applied by HttpCacheConfig.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HttpCachePolicy {
+
+    String value();
+}
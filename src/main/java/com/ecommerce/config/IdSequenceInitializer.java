@@ -0,0 +1,41 @@
+package com.ecommerce.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences of tables that switched from IDENTITY to pooled sequences past
+ * the ids already in the table. ddl-auto creates a missing sequence at 1, which would
+ * collide with rows inserted under IDENTITY; once aligned this is a no-op.
+ */
+@Component
+public class IdSequenceInitializer {
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "orders", "orders_seq",
+            "order_items", "order_items_seq",
+            "outbox_messages", "outbox_messages_seq");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Only injected so the schema update has run before the sequences are checked
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Long next = jdbcTemplate.queryForObject("SELECT nextval('" + sequence + "')", Long.class);
+            if (next != null && maxId != null && next <= maxId) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + 1));
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.ecommerce.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Creates order_events on PostgreSQL as a table range-partitioned by month, before the
+ * schema update would create it as a plain table, and keeps partitions created ahead of
+ * time. The default partition only catches rows if the schedule has fallen behind.
+ * Other databases get the plain table from the schema update.
+ */
+@Component("orderEventPartitions")
+public class OrderEventPartitions {
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS order_events ("
+            + "id bigint NOT NULL, "
+            + "order_id bigint NOT NULL, "
+            + "user_id bigint, "
+            + "event_type varchar(30) NOT NULL, "
+            + "from_status varchar(20), "
+            + "to_status varchar(20), "
+            + "tracking_number varchar(255), "
+            + "amount numeric(10,2), "
+            + "actor varchar(255), "
+            + "occurred_at timestamp(6) NOT NULL, "
+            + "PRIMARY KEY (id, occurred_at)"
+            + ") PARTITION BY RANGE (occurred_at)";
+
+    @Value("${order-events.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void createTable() {
+        if (!isPostgres()) {
+            return;
+        }
+        jdbcTemplate.execute(CREATE_TABLE);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_events_default PARTITION OF order_events DEFAULT");
+        createPartitions();
+    }
+
+    @Scheduled(cron = "${order-events.partitions.cron:0 30 3 * * *}")
+    public void createPartitions() {
+        if (!isPostgres()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.plusMonths(1).atDay(1);
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS order_events_%d_%02d PARTITION OF order_events "
+                                + "FOR VALUES FROM ('%s') TO ('%s')",
+                        month.getYear(), month.getMonthValue(), from, to));
+            } catch (DataAccessException e) {
+                // Rows for the month already landed in the default partition
+                System.err.println("Failed to create order_events partition for " + month + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean isPostgres() {
+        return "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    // Runs createTable before Hibernate's schema update
+    @Component
+    static class EntityManagerFactoryDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependency() {
+            super("orderEventPartitions");
+        }
+    }
+}
@@ -10,6 +10,7 @@ import com.ecommerce.service.impl.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -79,6 +80,10 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**", "/oauth2/**", "/h2-console/**").permitAll()
                         // Admin only endpoints
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Payment provider webhooks authenticate with their signature header
+                        .requestMatchers(HttpMethod.POST, "/api/payments/webhook/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Moderator and Admin endpoints
                         .requestMatchers("/api/moderator/**").hasAnyRole("SELLER", "ADMIN")
                         // User endpoints (authenticated users)
@@ -0,0 +1,83 @@
+package com.ecommerce.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the pg_trgm indexes behind the admin order search, which @Index cannot express.
+ * Built concurrently on a background thread once the application is up, so neither startup
+ * nor writes to the tables wait for the build. A failed concurrent build leaves an INVALID
+ * index behind that IF NOT EXISTS would skip forever, so such an index is dropped and built
+ * again on the next start. Skipped on databases other than PostgreSQL, where the search
+ * falls back to scans.
+ */
+@Component
+public class TrigramIndexInitializer {
+
+    private static final List<TrigramIndex> INDEXES = List.of(
+            new TrigramIndex("idx_order_tracking_trgm", "orders USING gin (lower(tracking_number) gin_trgm_ops)"),
+            new TrigramIndex("idx_user_email_trgm", "users USING gin (lower(email) gin_trgm_ops)"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "trigram-index-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexesInBackground() {
+        builder.execute(this::createIndexes);
+    }
+
+    @PreDestroy
+    public void shutdownBuilder() {
+        builder.shutdownNow();
+    }
+
+    private void createIndexes() {
+        try {
+            String database = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equals(database)) {
+                return;
+            }
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            INDEXES.forEach(this::createIndex);
+        } catch (DataAccessException e) {
+            // Search still works without them, only slower
+            System.err.println("Failed to create trigram search indexes: " + e.getMessage());
+        }
+    }
+
+    private void createIndex(TrigramIndex index) {
+        List<Boolean> valid = jdbcTemplate.queryForList("SELECT i.indisvalid FROM pg_index i "
+                + "JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?", Boolean.class, index.name());
+        if (valid.contains(Boolean.TRUE)) {
+            return;
+        }
+        if (!valid.isEmpty()) {
+            System.err.println("Rebuilding invalid trigram search index " + index.name());
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + index.name());
+        }
+        long started = System.nanoTime();
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + index.name() + " ON " + index.definition());
+        System.out.println("Built trigram search index " + index.name() + " in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms");
+    }
+
+    private record TrigramIndex(String name, String definition) {
+    }
+}
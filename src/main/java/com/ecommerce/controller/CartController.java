@@ -71,8 +71,10 @@ public class CartController {
     }
 
     @GetMapping("/summary")
-    public ResponseEntity<CartSummary> getCartSummary(@AuthenticationPrincipal User user) {
-        CartSummary summary = cartService.getCartSummary(user.getId());
+    public ResponseEntity<CartSummary> getCartSummary(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String couponCode) {
+        CartSummary summary = cartService.getCartSummary(user.getId(), couponCode);
         return ResponseEntity.ok(summary);
     }
 
@@ -98,6 +100,8 @@ public class CartController {
         private List<CartItem> items;
         private int totalItems;
         private BigDecimal subtotal;
+        private BigDecimal discount = BigDecimal.ZERO;
+        private String couponCode;
         private BigDecimal tax;
         private BigDecimal shipping;
         private BigDecimal total;
@@ -119,6 +123,10 @@ public class CartController {
         public void setTotalItems(int totalItems) { this.totalItems = totalItems; }
         public BigDecimal getSubtotal() { return subtotal; }
         public void setSubtotal(BigDecimal subtotal) { this.subtotal = subtotal; }
+        public BigDecimal getDiscount() { return discount; }
+        public void setDiscount(BigDecimal discount) { this.discount = discount; }
+        public String getCouponCode() { return couponCode; }
+        public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
         public BigDecimal getTax() { return tax; }
         public void setTax(BigDecimal tax) { this.tax = tax; }
         public BigDecimal getShipping() { return shipping; }
@@ -1,12 +1,16 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.config.HttpCachePolicy;
 import com.ecommerce.entity.Category;
 import com.ecommerce.service.CategoryService;
+import com.ecommerce.util.ETags;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -18,55 +22,107 @@ public class CategoryController {
     private CategoryService categoryService;
 
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        if (request.checkNotModified(ETags.weak(categoryService.getCategoriesVersion()))) {
+            return null;
+        }
+
         List<Category> categories = categoryService.getAllCategories();
         return ResponseEntity.ok(categories);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
         Optional<Category> category = categoryService.getCategoryById(id);
-        return category.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        if (category.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(ETags.weak("category", category.get().getId(), category.get().getUpdatedAt()))) {
+            return null;
+        }
+        return ResponseEntity.ok(category.get());
     }
 
     @GetMapping("/slug/{slug}")
-    public ResponseEntity<Category> getCategoryBySlug(@PathVariable String slug) {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<Category> getCategoryBySlug(@PathVariable String slug, WebRequest request) {
         Optional<Category> category = categoryService.getCategoryBySlug(slug);
-        return category.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        if (category.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(ETags.weak("category", category.get().getId(), category.get().getUpdatedAt()))) {
+            return null;
+        }
+        return ResponseEntity.ok(category.get());
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<Category>> getActiveCategories() {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<List<Category>> getActiveCategories(WebRequest request) {
+        if (request.checkNotModified(ETags.weak(categoryService.getCategoriesVersion()))) {
+            return null;
+        }
+
         List<Category> categories = categoryService.getActiveCategories();
         return ResponseEntity.ok(categories);
     }
 
     @GetMapping("/root")
-    public ResponseEntity<List<Category>> getRootCategories() {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<List<Category>> getRootCategories(WebRequest request) {
+        if (request.checkNotModified(ETags.weak(categoryService.getCategoriesVersion()))) {
+            return null;
+        }
+
         List<Category> categories = categoryService.getRootCategories();
         return ResponseEntity.ok(categories);
     }
 
     @GetMapping("/{id}/subcategories")
-    public ResponseEntity<List<Category>> getSubcategories(@PathVariable Long id) {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<List<Category>> getSubcategories(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(ETags.weak(categoryService.getCategoriesVersion()))) {
+            return null;
+        }
+
         List<Category> subcategories = categoryService.getSubcategories(id);
         return ResponseEntity.ok(subcategories);
     }
 
     @GetMapping("/hierarchy")
-    public ResponseEntity<List<CategoryHierarchy>> getCategoryHierarchy() {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<List<CategoryHierarchy>> getCategoryHierarchy(WebRequest request) {
+        if (request.checkNotModified(ETags.weak(categoryService.getCategoriesVersion()))) {
+            return null;
+        }
+
         List<CategoryHierarchy> hierarchy = categoryService.getCategoryHierarchy();
         return ResponseEntity.ok(hierarchy);
     }
 
     @GetMapping("/{id}/breadcrumb")
-    public ResponseEntity<List<Category>> getCategoryBreadcrumb(@PathVariable Long id) {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<List<Category>> getCategoryBreadcrumb(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(ETags.weak(categoryService.getCategoriesVersion()))) {
+            return null;
+        }
+
         List<Category> breadcrumb = categoryService.getCategoryBreadcrumb(id);
         return ResponseEntity.ok(breadcrumb);
     }
 
+    @GetMapping("/{id}/product-count")
+    public ResponseEntity<Long> getCategoryProductCount(@PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.getCategoryProductCount(id));
+    }
+
+    @GetMapping("/product-counts")
+    public ResponseEntity<Map<Long, Long>> getProductCountsByCategory() {
+        return ResponseEntity.ok(categoryService.getProductCountsByCategory());
+    }
+
     @GetMapping("/popular")
     public ResponseEntity<List<Category>> getPopularCategories(
             @RequestParam(defaultValue = "10") int limit) {
@@ -75,7 +131,12 @@ public class CategoryController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Category>> searchCategories(@RequestParam String query) {
+    @HttpCachePolicy("categories")
+    public ResponseEntity<List<Category>> searchCategories(@RequestParam String query, WebRequest request) {
+        if (request.checkNotModified(ETags.weak(categoryService.getCategoriesVersion()))) {
+            return null;
+        }
+
         List<Category> categories = categoryService.searchCategories(query);
         return ResponseEntity.ok(categories);
     }
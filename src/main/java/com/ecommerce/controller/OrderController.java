@@ -1,8 +1,13 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.mapper.OrderMapper;
+import com.ecommerce.dto.response.OrderHistoryResponse;
+import com.ecommerce.dto.response.OrderResponse;
 import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderSummaryView;
 import com.ecommerce.entity.User;
 import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,66 +31,74 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping
-    public ResponseEntity<Order> createOrder(
+    public ResponseEntity<OrderResponse> createOrder(
             @AuthenticationPrincipal User user,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody @Valid CreateOrderRequest request) {
-        Order order = orderService.createOrder(user.getId(), request);
-        return ResponseEntity.ok(order);
+        return idempotencyService.execute(user.getId(), "orders.create", idempotencyKey, request, OrderResponse.class,
+                () -> ResponseEntity.ok(orderMapper.toResponse(orderService.createOrder(user.getId(), request))));
     }
 
     @GetMapping
-    public ResponseEntity<Page<Order>> getUserOrders(
+    public ResponseEntity<Page<OrderHistoryResponse>> getUserOrders(
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orders = orderService.getUserOrders(user.getId(), pageable);
-        return ResponseEntity.ok(orders);
+        Page<OrderSummaryView> orders = orderService.getUserOrders(user.getId(), pageable);
+        return ResponseEntity.ok(orders.map(orderMapper::toHistory));
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(
+    public ResponseEntity<OrderResponse> getOrderById(
             @AuthenticationPrincipal User user,
             @PathVariable Long orderId) {
         Optional<Order> order = orderService.getOrderByIdAndUser(orderId, user.getId());
-        return order.map(ResponseEntity::ok)
+        return order.map(o -> ResponseEntity.ok(orderMapper.toResponse(o)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{orderId}/cancel")
-    public ResponseEntity<Order> cancelOrder(
+    public ResponseEntity<OrderResponse> cancelOrder(
             @AuthenticationPrincipal User user,
             @PathVariable Long orderId) {
         Order order = orderService.cancelOrder(orderId, user.getId());
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok(orderMapper.toResponse(order));
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<Page<Order>> getOrdersByStatus(
+    public ResponseEntity<Page<OrderHistoryResponse>> getOrdersByStatus(
             @AuthenticationPrincipal User user,
             @PathVariable OrderStatus status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orders = orderService.getOrdersByStatus(user.getId(), status, pageable);
-        return ResponseEntity.ok(orders);
+        Page<OrderSummaryView> orders = orderService.getOrdersByStatus(user.getId(), status, pageable);
+        return ResponseEntity.ok(orders.map(orderMapper::toHistory));
     }
 
     @GetMapping("/recent")
-    public ResponseEntity<List<Order>> getRecentOrders(
+    public ResponseEntity<List<OrderHistoryResponse>> getRecentOrders(
             @AuthenticationPrincipal User user,
             @RequestParam(defaultValue = "5") int limit) {
-        List<Order> orders = orderService.getRecentOrders(user.getId(), limit);
-        return ResponseEntity.ok(orders);
+        List<OrderSummaryView> orders = orderService.getRecentOrders(user.getId(), limit);
+        return ResponseEntity.ok(orderMapper.toHistories(orders));
     }
 
     @PostMapping("/{orderId}/reorder")
-    public ResponseEntity<Order> reorder(
+    public ResponseEntity<OrderResponse> reorder(
             @AuthenticationPrincipal User user,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @PathVariable Long orderId) {
-        Order newOrder = orderService.reorder(orderId, user.getId());
-        return ResponseEntity.ok(newOrder);
+        return idempotencyService.execute(user.getId(), "orders.reorder", idempotencyKey, orderId, OrderResponse.class,
+                () -> ResponseEntity.ok(orderMapper.toResponse(orderService.reorder(orderId, user.getId()))));
     }
 
     @GetMapping("/summary")
@@ -3,6 +3,7 @@ package com.ecommerce.controller;
 import com.ecommerce.entity.User;
 import com.ecommerce.entity.enums.PaymentMethod;
 import com.ecommerce.entity.enums.PaymentStatus;
+import com.ecommerce.service.IdempotencyService;
 import com.ecommerce.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,12 +22,16 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping("/initiate")
     public ResponseEntity<PaymentResponse> initiatePayment(
             @AuthenticationPrincipal User user,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @RequestBody @Valid PaymentRequest request) {
-        PaymentResponse response = paymentService.initiatePayment(user.getId(), request);
-        return ResponseEntity.ok(response);
+        return idempotencyService.execute(user.getId(), "payments.initiate", idempotencyKey, request, PaymentResponse.class,
+                () -> ResponseEntity.ok(paymentService.initiatePayment(user.getId(), request)));
     }
 
     @PostMapping("/stripe/create-intent")
@@ -99,26 +104,28 @@ public class PaymentController {
     @GetMapping("/user/history")
     public ResponseEntity<Map<String, Object>> getPaymentHistory(
             @AuthenticationPrincipal User user,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
-        Map<String, Object> history = paymentService.getPaymentHistory(user.getId(), page, size);
+        Map<String, Object> history = paymentService.getPaymentHistory(user.getId(), cursor, size);
         return ResponseEntity.ok(history);
     }
 
+    // Webhooks are verified and stored, then acknowledged; processing happens asynchronously
     @PostMapping("/webhook/stripe")
     public ResponseEntity<String> handleStripeWebhook(
             @RequestBody String payload,
             @RequestHeader("Stripe-Signature") String signature) {
         paymentService.handleStripeWebhook(payload, signature);
-        return ResponseEntity.ok("Webhook handled successfully");
+        return ResponseEntity.ok("Webhook received");
     }
 
     @PostMapping("/webhook/razorpay")
     public ResponseEntity<String> handleRazorpayWebhook(
             @RequestBody String payload,
-            @RequestHeader("X-Razorpay-Signature") String signature) {
-        paymentService.handleRazorpayWebhook(payload, signature);
-        return ResponseEntity.ok("Webhook handled successfully");
+            @RequestHeader("X-Razorpay-Signature") String signature,
+            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
+        paymentService.handleRazorpayWebhook(payload, signature, eventId);
+        return ResponseEntity.ok("Webhook received");
     }
 
     // DTOs for payment operations
@@ -227,6 +234,9 @@ public class PaymentController {
         private String transactionId;
         private Map<String, Object> additionalData;
 
+        public PaymentResponse() {
+        }
+
         public PaymentResponse(Long paymentId, PaymentStatus status, String message, String transactionId) {
             this.paymentId = paymentId;
             this.status = status;
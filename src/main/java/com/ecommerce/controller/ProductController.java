@@ -1,15 +1,25 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.config.HttpCachePolicy;
+import com.ecommerce.controller.ReviewController.ReviewStats;
+import com.ecommerce.controller.ReviewController.ReviewSummary;
+import com.ecommerce.dto.mapper.ProductMapper;
+import com.ecommerce.dto.response.ProductResponse;
+import com.ecommerce.dto.response.ProductCardResponse;
+import com.ecommerce.dto.response.ProductSummaryResponse;
 import com.ecommerce.entity.Product;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.util.ETags;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -23,8 +33,12 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductMapper productMapper;
+
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(
+    @HttpCachePolicy("catalog")
+    public ResponseEntity<Page<ProductCardResponse>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -33,72 +47,116 @@ public class ProductController {
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
-            @RequestParam(required = false) Boolean featured) {
+            @RequestParam(required = false) Boolean featured,
+            WebRequest request) {
+
+        if (request.checkNotModified(ETags.weak(productService.getCatalogVersion()))) {
+            return null;
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
         Page<Product> products = productService.getAllProducts(pageable, name, categoryId, minPrice, maxPrice, featured);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(products.map(productMapper::toCard));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    @HttpCachePolicy("catalog")
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest request) {
         Optional<Product> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        if (product.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(ETags.weak("product", id, product.get().getUpdatedAt()))) {
+            return null;
+        }
+        return ResponseEntity.ok(productMapper.toResponse(product.get()));
+    }
+
+    // Everything the product detail page needs in one round trip; also records the view
+    @GetMapping("/{id}/page")
+    public ResponseEntity<ProductPage> getProductPage(@PathVariable Long id) {
+        ProductPage page = productService.getProductPage(id);
+        productService.incrementViewCount(id);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<Product>> searchProducts(
+    @HttpCachePolicy("catalog")
+    public ResponseEntity<Page<ProductCardResponse>> searchProducts(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+
+        if (request.checkNotModified(ETags.weak(productService.getCatalogVersion()))) {
+            return null;
+        }
 
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> products = productService.searchProducts(query, pageable);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(products.map(productMapper::toCard));
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<Product>> getProductsByCategory(
+    @HttpCachePolicy("catalog")
+    public ResponseEntity<Page<ProductCardResponse>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+
+        if (request.checkNotModified(ETags.weak(productService.getCatalogVersion()))) {
+            return null;
+        }
 
         Pageable pageable = PageRequest.of(page, size);
         Page<Product> products = productService.getProductsByCategory(categoryId, pageable);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(products.map(productMapper::toCard));
     }
 
-    @GetMapping("/featured")
-    public ResponseEntity<List<Product>> getFeaturedProducts(
-            @RequestParam(defaultValue = "10") int limit) {
-        List<Product> products = productService.getFeaturedProducts(limit);
-        return ResponseEntity.ok(products);
+    @GetMapping(value = "/featured", produces = MediaType.APPLICATION_JSON_VALUE)
+    @HttpCachePolicy("storefront")
+    public ResponseEntity<byte[]> getFeaturedProducts(
+            @RequestParam(defaultValue = "10") int limit, WebRequest request) {
+        return storefrontList(StorefrontList.FEATURED, limit, request);
     }
 
-    @GetMapping("/latest")
-    public ResponseEntity<List<Product>> getLatestProducts(
-            @RequestParam(defaultValue = "10") int limit) {
-        List<Product> products = productService.getLatestProducts(limit);
-        return ResponseEntity.ok(products);
+    @GetMapping(value = "/latest", produces = MediaType.APPLICATION_JSON_VALUE)
+    @HttpCachePolicy("storefront")
+    public ResponseEntity<byte[]> getLatestProducts(
+            @RequestParam(defaultValue = "10") int limit, WebRequest request) {
+        return storefrontList(StorefrontList.LATEST, limit, request);
     }
 
-    @GetMapping("/best-selling")
-    public ResponseEntity<List<Product>> getBestSellingProducts(
-            @RequestParam(defaultValue = "10") int limit) {
-        List<Product> products = productService.getBestSellingProducts(limit);
-        return ResponseEntity.ok(products);
+    @GetMapping(value = "/best-selling", produces = MediaType.APPLICATION_JSON_VALUE)
+    @HttpCachePolicy("storefront")
+    public ResponseEntity<byte[]> getBestSellingProducts(
+            @RequestParam(defaultValue = "10") int limit, WebRequest request) {
+        return storefrontList(StorefrontList.BEST_SELLING, limit, request);
+    }
+
+    @GetMapping(value = "/trending", produces = MediaType.APPLICATION_JSON_VALUE)
+    @HttpCachePolicy("storefront")
+    public ResponseEntity<byte[]> getTrendingProducts(
+            @RequestParam(defaultValue = "10") int limit, WebRequest request) {
+        return storefrontList(StorefrontList.TRENDING, limit, request);
     }
 
     @GetMapping("/{id}/related")
-    public ResponseEntity<List<Product>> getRelatedProducts(
+    @HttpCachePolicy("catalog")
+    public ResponseEntity<List<ProductCardResponse>> getRelatedProducts(
             @PathVariable Long id,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            WebRequest request) {
+        if (request.checkNotModified(ETags.weak(productService.getCatalogVersion()))) {
+            return null;
+        }
+
         List<Product> products = productService.getRelatedProducts(id, limit);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(productMapper.toCards(products));
     }
 
     @PostMapping("/{id}/view")
@@ -108,14 +166,49 @@ public class ProductController {
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Product>> getLowStockProducts() {
+    public ResponseEntity<List<ProductSummaryResponse>> getLowStockProducts() {
         List<Product> products = productService.getLowStockProducts();
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(productMapper.toSummaries(products));
     }
 
     @GetMapping("/out-of-stock")
-    public ResponseEntity<List<Product>> getOutOfStockProducts() {
+    public ResponseEntity<List<ProductSummaryResponse>> getOutOfStockProducts() {
         List<Product> products = productService.getOutOfStockProducts();
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(productMapper.toSummaries(products));
+    }
+
+    // Storefront lists are identical for every visitor and served as cached JSON bytes;
+    // their order also depends on sales and views, so the validator is the content itself
+    private ResponseEntity<byte[]> storefrontList(StorefrontList list, int limit, WebRequest request) {
+        byte[] json = productService.getStorefrontList(list, limit);
+        if (request.checkNotModified(ETags.weak(json))) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(json);
+    }
+
+    public enum StorefrontList {
+        FEATURED, LATEST, BEST_SELLING, TRENDING
+    }
+
+    public static class ProductPage {
+        private ProductResponse product;
+        private List<ProductCardResponse> relatedProducts;
+        private ReviewSummary reviewSummary;
+        private ReviewStats reviewStats;
+
+        public ProductPage(ProductResponse product, List<ProductCardResponse> relatedProducts, ReviewSummary reviewSummary, ReviewStats reviewStats) {
+            this.product = product;
+            this.relatedProducts = relatedProducts;
+            this.reviewSummary = reviewSummary;
+            this.reviewStats = reviewStats;
+        }
+
+        public ProductResponse getProduct() { return product; }
+        public List<ProductCardResponse> getRelatedProducts() { return relatedProducts; }
+        public ReviewSummary getReviewSummary() { return reviewSummary; }
+        public ReviewStats getReviewStats() { return reviewStats; }
     }
 }
\ No newline at end of file
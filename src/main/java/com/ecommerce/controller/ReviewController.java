@@ -1,8 +1,10 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.config.HttpCachePolicy;
 import com.ecommerce.entity.Review;
 import com.ecommerce.entity.User;
 import com.ecommerce.service.ReviewService;
+import com.ecommerce.util.ETags;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -11,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -34,22 +37,34 @@ public class ReviewController {
     }
 
     @GetMapping("/product/{productId}")
+    @HttpCachePolicy("reviews")
     public ResponseEntity<Page<Review>> getProductReviews(
             @PathVariable Long productId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            WebRequest request) {
+        if (request.checkNotModified(ETags.weak(reviewService.getProductReviewsVersion(productId)))) {
+            return null;
+        }
+
         Pageable pageable = PageRequest.of(page, size);
         Page<Review> reviews = reviewService.getProductReviews(productId, pageable, sortBy, sortDir);
         return ResponseEntity.ok(reviews);
     }
 
     @GetMapping("/{reviewId}")
-    public ResponseEntity<Review> getReviewById(@PathVariable Long reviewId) {
+    @HttpCachePolicy("reviews")
+    public ResponseEntity<Review> getReviewById(@PathVariable Long reviewId, WebRequest request) {
         Optional<Review> review = reviewService.getReviewById(reviewId);
-        return review.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        if (review.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(ETags.weak("review", reviewId, review.get().getUpdatedAt()))) {
+            return null;
+        }
+        return ResponseEntity.ok(review.get());
     }
 
     @PutMapping("/{reviewId}")
@@ -81,23 +96,39 @@ public class ReviewController {
     }
 
     @GetMapping("/product/{productId}/stats")
-    public ResponseEntity<ReviewStats> getReviewStats(@PathVariable Long productId) {
+    @HttpCachePolicy("reviews")
+    public ResponseEntity<ReviewStats> getReviewStats(@PathVariable Long productId, WebRequest request) {
+        if (request.checkNotModified(ETags.weak(reviewService.getProductReviewsVersion(productId)))) {
+            return null;
+        }
+
         ReviewStats stats = reviewService.getReviewStats(productId);
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/product/{productId}/summary")
-    public ResponseEntity<ReviewSummary> getReviewSummary(@PathVariable Long productId) {
+    @HttpCachePolicy("reviews")
+    public ResponseEntity<ReviewSummary> getReviewSummary(@PathVariable Long productId, WebRequest request) {
+        if (request.checkNotModified(ETags.weak(reviewService.getProductReviewsVersion(productId)))) {
+            return null;
+        }
+
         ReviewSummary summary = reviewService.getReviewSummary(productId);
         return ResponseEntity.ok(summary);
     }
 
     @GetMapping("/product/{productId}/rating/{rating}")
+    @HttpCachePolicy("reviews")
     public ResponseEntity<Page<Review>> getReviewsByRating(
             @PathVariable Long productId,
             @PathVariable int rating,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            WebRequest request) {
+        if (request.checkNotModified(ETags.weak(reviewService.getProductReviewsVersion(productId)))) {
+            return null;
+        }
+
         Pageable pageable = PageRequest.of(page, size);
         Page<Review> reviews = reviewService.getReviewsByRating(productId, rating, pageable);
         return ResponseEntity.ok(reviews);
@@ -1,17 +1,28 @@
 package com.ecommerce.controller.admin;
 
+import com.ecommerce.dto.mapper.OrderMapper;
+import com.ecommerce.dto.response.OrderResponse;
 import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderEvent;
+import com.ecommerce.entity.enums.OrderEventType;
 import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.service.ExportService;
 import com.ecommerce.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -24,28 +35,41 @@ public class AdminOrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderMapper orderMapper;
+
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders(
+    public ResponseEntity<Page<OrderResponse>> getAllOrders(
             @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "orderDate") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
-        List<Order> orders = orderService.getOrdersForAdmin(status, sortBy, sortDir);
-        return ResponseEntity.ok(orders);
+        Page<Order> orders = orderService.searchOrdersForAdmin(null, status, from, to, minAmount, maxAmount,
+                PageRequest.of(page, size, sort(sortBy, sortDir)));
+        return ResponseEntity.ok(orders.map(orderMapper::toResponse));
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long orderId) {
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long orderId) {
         return orderService.getOrderById(orderId)
-                .map(ResponseEntity::ok)
+                .map(order -> ResponseEntity.ok(orderMapper.toResponse(order)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{orderId}/status")
-    public ResponseEntity<Order> updateOrderStatus(
+    public ResponseEntity<OrderResponse> updateOrderStatus(
             @PathVariable Long orderId,
             @RequestBody @Valid UpdateOrderStatusRequest request) {
         Order order = orderService.updateOrderStatus(orderId, request.getStatus());
-        return ResponseEntity.ok(order);
+        return ResponseEntity.ok(orderMapper.toResponse(order));
     }
 
     @PostMapping("/{orderId}/process")
@@ -75,15 +99,21 @@ public class AdminOrderController {
     }
 
     @GetMapping("/pending")
-    public ResponseEntity<List<Order>> getPendingOrders() {
-        List<Order> orders = orderService.getOrdersForAdmin(OrderStatus.PENDING, "orderDate", "asc");
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<Page<OrderResponse>> getPendingOrders(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<Order> orders = orderService.searchOrdersForAdmin(null, OrderStatus.PENDING, null, null, null, null,
+                PageRequest.of(page, size, Sort.by("orderDate").ascending()));
+        return ResponseEntity.ok(orders.map(orderMapper::toResponse));
     }
 
     @GetMapping("/processing")
-    public ResponseEntity<List<Order>> getProcessingOrders() {
-        List<Order> orders = orderService.getOrdersForAdmin(OrderStatus.PROCESSING, "orderDate", "asc");
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<Page<OrderResponse>> getProcessingOrders(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<Order> orders = orderService.searchOrdersForAdmin(null, OrderStatus.PROCESSING, null, null, null, null,
+                PageRequest.of(page, size, Sort.by("orderDate").ascending()));
+        return ResponseEntity.ok(orders.map(orderMapper::toResponse));
     }
 
     @GetMapping("/analytics")
@@ -100,26 +130,33 @@ public class AdminOrderController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Order>> searchOrders(
+    public ResponseEntity<Page<OrderResponse>> searchOrders(
             @RequestParam String query,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        // Implementation needed for order search
-        return ResponseEntity.ok(List.of());
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "orderDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        Page<Order> orders = orderService.searchOrdersForAdmin(query, status, from, to, minAmount, maxAmount,
+                PageRequest.of(page, size, sort(sortBy, sortDir)));
+        return ResponseEntity.ok(orders.map(orderMapper::toResponse));
     }
 
     @PostMapping("/bulk-update")
-    public ResponseEntity<String> bulkUpdateOrders(@RequestBody BulkUpdateOrdersRequest request) {
-        // Implementation needed for bulk order updates
-        return ResponseEntity.ok("Bulk update completed");
+    public ResponseEntity<BulkUpdateOrdersResponse> bulkUpdateOrders(@RequestBody BulkUpdateOrdersRequest request) {
+        return ResponseEntity.ok(orderService.bulkUpdateOrderStatus(request.getOrderIds(), request.getStatus()));
     }
 
     @GetMapping("/export")
-    public ResponseEntity<String> exportOrders(
+    public ResponseEntity<StreamingResponseBody> exportOrders(
             @RequestParam(required = false) OrderStatus status,
-            @RequestParam(defaultValue = "csv") String format) {
-        // Implementation needed for order export
-        return ResponseEntity.ok("Export completed");
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return exportService.exportOrders(status, format, gzip);
     }
 
     @PostMapping("/{orderId}/send-notification")
@@ -130,8 +167,25 @@ public class AdminOrderController {
 
     @GetMapping("/{orderId}/timeline")
     public ResponseEntity<List<OrderTimelineEvent>> getOrderTimeline(@PathVariable Long orderId) {
-        // Implementation needed for order timeline
-        return ResponseEntity.ok(List.of());
+        List<OrderTimelineEvent> timeline = orderService.getOrderTimeline(orderId).stream()
+                .map(this::toTimelineEvent)
+                .toList();
+        return ResponseEntity.ok(timeline);
+    }
+
+    private Sort sort(String sortBy, String sortDir) {
+        return sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+    }
+
+    private OrderTimelineEvent toTimelineEvent(OrderEvent event) {
+        String description = switch (event.getEventType()) {
+            case PLACED -> "Order placed, total " + event.getAmount();
+            case STATUS_CHANGED -> "Status changed from " + event.getFromStatus() + " to " + event.getToStatus()
+                    + (event.getTrackingNumber() == null ? "" : ", tracking number " + event.getTrackingNumber());
+        };
+        String name = event.getEventType() == OrderEventType.PLACED ? "ORDER_PLACED" : event.getToStatus().name();
+        return new OrderTimelineEvent(name, event.getOccurredAt().toString(), description, event.getActor());
     }
 
     // DTOs for admin order operations
@@ -171,6 +225,35 @@ public class AdminOrderController {
         public void setAction(String action) { this.action = action; }
     }
 
+    public static class BulkUpdateOrdersResponse {
+        private List<Long> updatedOrderIds = new ArrayList<>();
+        private List<RejectedOrder> rejectedOrders = new ArrayList<>();
+
+        public void reject(Long orderId, String reason) {
+            rejectedOrders.add(new RejectedOrder(orderId, reason));
+        }
+
+        public List<Long> getUpdatedOrderIds() { return updatedOrderIds; }
+        public void setUpdatedOrderIds(List<Long> updatedOrderIds) { this.updatedOrderIds = updatedOrderIds; }
+        public List<RejectedOrder> getRejectedOrders() { return rejectedOrders; }
+        public void setRejectedOrders(List<RejectedOrder> rejectedOrders) { this.rejectedOrders = rejectedOrders; }
+    }
+
+    public static class RejectedOrder {
+        private Long orderId;
+        private String reason;
+
+        public RejectedOrder(Long orderId, String reason) {
+            this.orderId = orderId;
+            this.reason = reason;
+        }
+
+        public Long getOrderId() { return orderId; }
+        public void setOrderId(Long orderId) { this.orderId = orderId; }
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+
     public static class OrderTimelineEvent {
         private String event;
         private String timestamp;
@@ -1,6 +1,11 @@
 package com.ecommerce.controller.admin;
 
+import com.ecommerce.dto.mapper.ProductMapper;
+import com.ecommerce.dto.response.ProductResponse;
+import com.ecommerce.dto.response.ProductSummaryResponse;
 import com.ecommerce.entity.Product;
+import com.ecommerce.service.CatalogImportService;
+import com.ecommerce.service.ExportService;
 import com.ecommerce.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,7 +15,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -23,18 +31,27 @@ public class AdminProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
     @PostMapping
-    public ResponseEntity<Product> createProduct(@RequestBody @Valid Product product) {
+    public ResponseEntity<ProductResponse> createProduct(@RequestBody @Valid Product product) {
         Product createdProduct = productService.createProduct(product);
-        return ResponseEntity.ok(createdProduct);
+        return ResponseEntity.ok(productMapper.toResponse(createdProduct));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(
+    public ResponseEntity<ProductResponse> updateProduct(
             @PathVariable Long id,
             @RequestBody @Valid Product product) {
         Product updatedProduct = productService.updateProduct(id, product);
-        return ResponseEntity.ok(updatedProduct);
+        return ResponseEntity.ok(productMapper.toResponse(updatedProduct));
     }
 
     @DeleteMapping("/{id}")
@@ -44,7 +61,7 @@ public class AdminProductController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<Product>> getAllProducts(
+    public ResponseEntity<Page<ProductSummaryResponse>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sortBy,
@@ -54,26 +71,26 @@ public class AdminProductController {
         Pageable pageable = PageRequest.of(page, size);
         // Custom implementation needed for admin filtering
         Page<Product> products = productService.getAllProducts(pageable, null, null, null, null, null);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(products.map(productMapper::toSummary));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
         return productService.getProductById(id)
-                .map(ResponseEntity::ok)
+                .map(product -> ResponseEntity.ok(productMapper.toResponse(product)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{id}/toggle-status")
-    public ResponseEntity<Product> toggleProductStatus(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> toggleProductStatus(@PathVariable Long id) {
         Product product = productService.toggleProductStatus(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(productMapper.toResponse(product));
     }
 
     @PostMapping("/{id}/toggle-featured")
-    public ResponseEntity<Product> toggleFeaturedStatus(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> toggleFeaturedStatus(@PathVariable Long id) {
         Product product = productService.toggleFeaturedStatus(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(productMapper.toResponse(product));
     }
 
     @PutMapping("/{id}/stock")
@@ -85,39 +102,62 @@ public class AdminProductController {
     }
 
     @PostMapping("/{id}/images")
-    public ResponseEntity<Product> addProductImage(
+    public ResponseEntity<ProductResponse> addProductImage(
             @PathVariable Long id,
             @RequestBody AddImageRequest request) {
         Product product = productService.addProductImage(id, request.getImageUrl());
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(productMapper.toResponse(product));
     }
 
     @DeleteMapping("/{id}/images")
-    public ResponseEntity<Product> removeProductImage(
+    public ResponseEntity<ProductResponse> removeProductImage(
             @PathVariable Long id,
             @RequestParam String imageUrl) {
         Product product = productService.removeProductImage(id, imageUrl);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(productMapper.toResponse(product));
     }
 
     @PostMapping("/{id}/main-image")
-    public ResponseEntity<Product> setMainImage(
+    public ResponseEntity<ProductResponse> setMainImage(
             @PathVariable Long id,
             @RequestBody SetMainImageRequest request) {
         Product product = productService.setMainImage(id, request.getImageUrl());
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok(productMapper.toResponse(product));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return exportService.exportProducts(active, format, gzip);
+    }
+
+    // Warehouse sync: thousands of delta or absolute adjustments keyed by sku, with per-SKU results
+    @PostMapping("/stock-adjustments")
+    public ResponseEntity<StockAdjustmentsResponse> adjustStock(@RequestBody StockAdjustmentsRequest request) {
+        return ResponseEntity.ok(productService.adjustStock(request.getAdjustments()));
+    }
+
+    // The request body is the feed itself, read as a stream (no multipart size limit)
+    @PostMapping("/import")
+    public ResponseEntity<ImportProductsResponse> importProducts(
+            InputStream feed,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return ResponseEntity.ok(catalogImportService.importProducts(feed, format, gzip));
     }
 
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Product>> getLowStockProducts() {
+    public ResponseEntity<List<ProductSummaryResponse>> getLowStockProducts() {
         List<Product> products = productService.getLowStockProducts();
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(productMapper.toSummaries(products));
     }
 
     @GetMapping("/out-of-stock")
-    public ResponseEntity<List<Product>> getOutOfStockProducts() {
+    public ResponseEntity<List<ProductSummaryResponse>> getOutOfStockProducts() {
         List<Product> products = productService.getOutOfStockProducts();
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok(productMapper.toSummaries(products));
     }
 
     @GetMapping("/analytics")
@@ -178,4 +218,147 @@ public class AdminProductController {
         public Object getValue() { return value; }
         public void setValue(Object value) { this.value = value; }
     }
+
+    public static class StockAdjustmentsRequest {
+        private List<StockAdjustment> adjustments;
+
+        public List<StockAdjustment> getAdjustments() { return adjustments; }
+        public void setAdjustments(List<StockAdjustment> adjustments) { this.adjustments = adjustments; }
+    }
+
+    // Exactly one of delta (added to the stock) and quantity (the new stock) is set
+    public static class StockAdjustment {
+        private String sku;
+        private Integer delta;
+        private Integer quantity;
+
+        public String getSku() { return sku; }
+        public void setSku(String sku) { this.sku = sku; }
+        public Integer getDelta() { return delta; }
+        public void setDelta(Integer delta) { this.delta = delta; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+
+    public static class StockAdjustmentsResponse {
+        private int applied;
+        private int rejected;
+        private List<StockAdjustmentResult> results = new ArrayList<>();
+
+        public void apply(String sku, int previousQuantity, int quantity, boolean lowStock, boolean outOfStock) {
+            applied++;
+            results.add(new StockAdjustmentResult(sku, true, previousQuantity, quantity, lowStock, outOfStock, null));
+        }
+
+        public void reject(String sku, String reason) {
+            rejected++;
+            results.add(new StockAdjustmentResult(sku, false, null, null, false, false, reason));
+        }
+
+        public void merge(StockAdjustmentsResponse batch) {
+            applied += batch.applied;
+            rejected += batch.rejected;
+            results.addAll(batch.results);
+        }
+
+        public int getApplied() { return applied; }
+        public void setApplied(int applied) { this.applied = applied; }
+        public int getRejected() { return rejected; }
+        public void setRejected(int rejected) { this.rejected = rejected; }
+        public List<StockAdjustmentResult> getResults() { return results; }
+        public void setResults(List<StockAdjustmentResult> results) { this.results = results; }
+    }
+
+    public static class StockAdjustmentResult {
+        private String sku;
+        private boolean applied;
+        private Integer previousQuantity;
+        private Integer quantity;
+        private boolean lowStock;
+        private boolean outOfStock;
+        private String reason;
+
+        public StockAdjustmentResult(String sku, boolean applied, Integer previousQuantity, Integer quantity,
+                                     boolean lowStock, boolean outOfStock, String reason) {
+            this.sku = sku;
+            this.applied = applied;
+            this.previousQuantity = previousQuantity;
+            this.quantity = quantity;
+            this.lowStock = lowStock;
+            this.outOfStock = outOfStock;
+            this.reason = reason;
+        }
+
+        public String getSku() { return sku; }
+        public void setSku(String sku) { this.sku = sku; }
+        public boolean isApplied() { return applied; }
+        public void setApplied(boolean applied) { this.applied = applied; }
+        public Integer getPreviousQuantity() { return previousQuantity; }
+        public void setPreviousQuantity(Integer previousQuantity) { this.previousQuantity = previousQuantity; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+        public boolean isLowStock() { return lowStock; }
+        public void setLowStock(boolean lowStock) { this.lowStock = lowStock; }
+        public boolean isOutOfStock() { return outOfStock; }
+        public void setOutOfStock(boolean outOfStock) { this.outOfStock = outOfStock; }
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+
+    public static class ImportProductsResponse {
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long unchanged;
+        private long duplicates;
+        private long failed;
+        private long chunks;
+        private long elapsedMs;
+        private long rowsPerSecond;
+        private List<ImportError> errors = new ArrayList<>();
+
+        public void error(long row, String sku, String message) {
+            errors.add(new ImportError(row, sku, message));
+        }
+
+        public long getRowsRead() { return rowsRead; }
+        public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+        public long getInserted() { return inserted; }
+        public void setInserted(long inserted) { this.inserted = inserted; }
+        public long getUpdated() { return updated; }
+        public void setUpdated(long updated) { this.updated = updated; }
+        public long getUnchanged() { return unchanged; }
+        public void setUnchanged(long unchanged) { this.unchanged = unchanged; }
+        public long getDuplicates() { return duplicates; }
+        public void setDuplicates(long duplicates) { this.duplicates = duplicates; }
+        public long getFailed() { return failed; }
+        public void setFailed(long failed) { this.failed = failed; }
+        public long getChunks() { return chunks; }
+        public void setChunks(long chunks) { this.chunks = chunks; }
+        public long getElapsedMs() { return elapsedMs; }
+        public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+        public long getRowsPerSecond() { return rowsPerSecond; }
+        public void setRowsPerSecond(long rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+        public List<ImportError> getErrors() { return errors; }
+        public void setErrors(List<ImportError> errors) { this.errors = errors; }
+    }
+
+    public static class ImportError {
+        private long row;
+        private String sku;
+        private String message;
+
+        public ImportError(long row, String sku, String message) {
+            this.row = row;
+            this.sku = sku;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+        public void setRow(long row) { this.row = row; }
+        public String getSku() { return sku; }
+        public void setSku(String sku) { this.sku = sku; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
 }
\ No newline at end of file
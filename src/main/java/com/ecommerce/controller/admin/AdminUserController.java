@@ -1,6 +1,7 @@
 package com.ecommerce.controller.admin;
 
 import com.ecommerce.entity.User;
+import com.ecommerce.service.ExportService;
 import com.ecommerce.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -23,6 +25,9 @@ public class AdminUserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
@@ -124,11 +129,11 @@ public class AdminUserController {
     }
 
     @GetMapping("/export")
-    public ResponseEntity<String> exportUsers(
+    public ResponseEntity<StreamingResponseBody> exportUsers(
             @RequestParam(defaultValue = "csv") String format,
-            @RequestParam(required = false) String role) {
-        // Implementation needed for user data export
-        return ResponseEntity.ok("Export completed");
+            @RequestParam(required = false) String role,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return exportService.exportUsers(role, format, gzip);
     }
 
     @GetMapping("/registration-stats")
@@ -0,0 +1,37 @@
+package com.ecommerce.dto.mapper;
+
+import com.ecommerce.dto.response.OrderHistoryResponse;
+import com.ecommerce.dto.response.OrderResponse;
+import com.ecommerce.dto.response.OrderResponse.OrderItemResponse;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.OrderSummaryView;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+/**
+ * Maps orders to response DTOs. Expects items, their products, the shipping address
+ * and the user to be part of the fetch plan of the query that loaded the order.
+ */
+@Mapper
+public interface OrderMapper {
+
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "customerEmail", source = "user.email")
+    @Mapping(target = "items", source = "orderItems")
+    OrderResponse toResponse(Order order);
+
+    List<OrderResponse> toResponses(List<Order> orders);
+
+    @Mapping(target = "productId", source = "product.id")
+    @Mapping(target = "productName", source = "product.name")
+    @Mapping(target = "productImageUrl", source = "product.imageUrl")
+    OrderItemResponse toItemResponse(OrderItem item);
+
+    @Mapping(target = "id", source = "orderId")
+    OrderHistoryResponse toHistory(OrderSummaryView view);
+
+    List<OrderHistoryResponse> toHistories(List<OrderSummaryView> views);
+}
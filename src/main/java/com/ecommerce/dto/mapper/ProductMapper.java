@@ -0,0 +1,27 @@
+package com.ecommerce.dto.mapper;
+
+import com.ecommerce.dto.response.ProductCardResponse;
+import com.ecommerce.dto.response.ProductResponse;
+import com.ecommerce.dto.response.ProductSummaryResponse;
+import com.ecommerce.entity.Product;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+/**
+ * Maps products to response DTOs. The mapper only reads what the repository fetch plan
+ * loaded: listings need the category, the detail view also needs the image collection.
+ */
+@Mapper
+public interface ProductMapper {
+
+    ProductResponse toResponse(Product product);
+
+    ProductSummaryResponse toSummary(Product product);
+
+    List<ProductSummaryResponse> toSummaries(List<Product> products);
+
+    ProductCardResponse toCard(Product product);
+
+    List<ProductCardResponse> toCards(List<Product> products);
+}
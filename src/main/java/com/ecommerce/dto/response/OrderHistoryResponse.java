@@ -0,0 +1,37 @@
+package com.ecommerce.dto.response;
+
+import com.ecommerce.entity.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OrderHistoryResponse {
+    private Long id;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private int itemCount;
+    private int lineCount;
+    private String firstItemName;
+    private String firstItemImageUrl;
+    private String trackingNumber;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+    public int getLineCount() { return lineCount; }
+    public void setLineCount(int lineCount) { this.lineCount = lineCount; }
+    public String getFirstItemName() { return firstItemName; }
+    public void setFirstItemName(String firstItemName) { this.firstItemName = firstItemName; }
+    public String getFirstItemImageUrl() { return firstItemImageUrl; }
+    public void setFirstItemImageUrl(String firstItemImageUrl) { this.firstItemImageUrl = firstItemImageUrl; }
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+}
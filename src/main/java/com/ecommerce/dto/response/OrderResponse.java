@@ -0,0 +1,88 @@
+package com.ecommerce.dto.response;
+
+import com.ecommerce.entity.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OrderResponse {
+    private Long id;
+    private LocalDateTime orderDate;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private String trackingNumber;
+    private String notes;
+    private Long userId;
+    private String customerEmail;
+    private AddressResponse shippingAddress;
+    private List<OrderItemResponse> items;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    public String getTrackingNumber() { return trackingNumber; }
+    public void setTrackingNumber(String trackingNumber) { this.trackingNumber = trackingNumber; }
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public String getCustomerEmail() { return customerEmail; }
+    public void setCustomerEmail(String customerEmail) { this.customerEmail = customerEmail; }
+    public AddressResponse getShippingAddress() { return shippingAddress; }
+    public void setShippingAddress(AddressResponse shippingAddress) { this.shippingAddress = shippingAddress; }
+    public List<OrderItemResponse> getItems() { return items; }
+    public void setItems(List<OrderItemResponse> items) { this.items = items; }
+
+    public static class OrderItemResponse {
+        private Long id;
+        private Long productId;
+        private String productName;
+        private String productImageUrl;
+        private int quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal totalPrice;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+        public String getProductName() { return productName; }
+        public void setProductName(String productName) { this.productName = productName; }
+        public String getProductImageUrl() { return productImageUrl; }
+        public void setProductImageUrl(String productImageUrl) { this.productImageUrl = productImageUrl; }
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+        public BigDecimal getUnitPrice() { return unitPrice; }
+        public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+        public BigDecimal getTotalPrice() { return totalPrice; }
+        public void setTotalPrice(BigDecimal totalPrice) { this.totalPrice = totalPrice; }
+    }
+
+    public static class AddressResponse {
+        private Long id;
+        private String street;
+        private String city;
+        private String state;
+        private String country;
+        private String zipCode;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getStreet() { return street; }
+        public void setStreet(String street) { this.street = street; }
+        public String getCity() { return city; }
+        public void setCity(String city) { this.city = city; }
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+        public String getCountry() { return country; }
+        public void setCountry(String country) { this.country = country; }
+        public String getZipCode() { return zipCode; }
+        public void setZipCode(String zipCode) { this.zipCode = zipCode; }
+    }
+}
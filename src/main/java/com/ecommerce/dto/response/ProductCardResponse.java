@@ -0,0 +1,45 @@
+package com.ecommerce.dto.response;
+
+import com.ecommerce.dto.response.ProductResponse.CategoryRef;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * Storefront card of a product: just what a product tile renders. Public listings return
+ * this instead of ProductSummaryResponse, which keeps stock levels and SKUs for admin views.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductCardResponse {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private BigDecimal comparePrice;
+    private String imageUrl;
+    private Boolean featured;
+    private Double avgRating;
+    private Integer reviewCount;
+    private boolean inStock;
+    private CategoryRef category;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public BigDecimal getComparePrice() { return comparePrice; }
+    public void setComparePrice(BigDecimal comparePrice) { this.comparePrice = comparePrice; }
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public Boolean getFeatured() { return featured; }
+    public void setFeatured(Boolean featured) { this.featured = featured; }
+    public Double getAvgRating() { return avgRating; }
+    public void setAvgRating(Double avgRating) { this.avgRating = avgRating; }
+    public Integer getReviewCount() { return reviewCount; }
+    public void setReviewCount(Integer reviewCount) { this.reviewCount = reviewCount; }
+    public boolean isInStock() { return inStock; }
+    public void setInStock(boolean inStock) { this.inStock = inStock; }
+    public CategoryRef getCategory() { return category; }
+    public void setCategory(CategoryRef category) { this.category = category; }
+}
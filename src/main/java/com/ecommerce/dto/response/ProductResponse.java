@@ -0,0 +1,112 @@
+package com.ecommerce.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ProductResponse {
+    private Long id;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private BigDecimal comparePrice;
+    private BigDecimal costPrice;
+    private Integer stockQuantity;
+    private Integer lowStockThreshold;
+    private Boolean trackQuantity;
+    private Boolean allowBackorder;
+    private String imageUrl;
+    private List<String> images;
+    private Boolean active;
+    private Boolean featured;
+    private BigDecimal weight;
+    private String dimensions;
+    private String sku;
+    private String barcode;
+    private String metaTitle;
+    private String metaDescription;
+    private String searchKeywords;
+    private Double avgRating;
+    private Integer reviewCount;
+    private Long viewCount;
+    private Long orderCount;
+    private boolean inStock;
+    private boolean lowStock;
+    private CategoryRef category;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public BigDecimal getComparePrice() { return comparePrice; }
+    public void setComparePrice(BigDecimal comparePrice) { this.comparePrice = comparePrice; }
+    public BigDecimal getCostPrice() { return costPrice; }
+    public void setCostPrice(BigDecimal costPrice) { this.costPrice = costPrice; }
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+    public Integer getLowStockThreshold() { return lowStockThreshold; }
+    public void setLowStockThreshold(Integer lowStockThreshold) { this.lowStockThreshold = lowStockThreshold; }
+    public Boolean getTrackQuantity() { return trackQuantity; }
+    public void setTrackQuantity(Boolean trackQuantity) { this.trackQuantity = trackQuantity; }
+    public Boolean getAllowBackorder() { return allowBackorder; }
+    public void setAllowBackorder(Boolean allowBackorder) { this.allowBackorder = allowBackorder; }
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public List<String> getImages() { return images; }
+    public void setImages(List<String> images) { this.images = images; }
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+    public Boolean getFeatured() { return featured; }
+    public void setFeatured(Boolean featured) { this.featured = featured; }
+    public BigDecimal getWeight() { return weight; }
+    public void setWeight(BigDecimal weight) { this.weight = weight; }
+    public String getDimensions() { return dimensions; }
+    public void setDimensions(String dimensions) { this.dimensions = dimensions; }
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+    public String getBarcode() { return barcode; }
+    public void setBarcode(String barcode) { this.barcode = barcode; }
+    public String getMetaTitle() { return metaTitle; }
+    public void setMetaTitle(String metaTitle) { this.metaTitle = metaTitle; }
+    public String getMetaDescription() { return metaDescription; }
+    public void setMetaDescription(String metaDescription) { this.metaDescription = metaDescription; }
+    public String getSearchKeywords() { return searchKeywords; }
+    public void setSearchKeywords(String searchKeywords) { this.searchKeywords = searchKeywords; }
+    public Double getAvgRating() { return avgRating; }
+    public void setAvgRating(Double avgRating) { this.avgRating = avgRating; }
+    public Integer getReviewCount() { return reviewCount; }
+    public void setReviewCount(Integer reviewCount) { this.reviewCount = reviewCount; }
+    public Long getViewCount() { return viewCount; }
+    public void setViewCount(Long viewCount) { this.viewCount = viewCount; }
+    public Long getOrderCount() { return orderCount; }
+    public void setOrderCount(Long orderCount) { this.orderCount = orderCount; }
+    public boolean isInStock() { return inStock; }
+    public void setInStock(boolean inStock) { this.inStock = inStock; }
+    public boolean isLowStock() { return lowStock; }
+    public void setLowStock(boolean lowStock) { this.lowStock = lowStock; }
+    public CategoryRef getCategory() { return category; }
+    public void setCategory(CategoryRef category) { this.category = category; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public static class CategoryRef {
+        private Long id;
+        private String name;
+        private String slug;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getSlug() { return slug; }
+        public void setSlug(String slug) { this.slug = slug; }
+    }
+}
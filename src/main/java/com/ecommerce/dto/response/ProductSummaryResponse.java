@@ -0,0 +1,55 @@
+package com.ecommerce.dto.response;
+
+import com.ecommerce.dto.response.ProductResponse.CategoryRef;
+
+import java.math.BigDecimal;
+
+/**
+ * Listing view of a product: only columns of the product row plus its category reference,
+ * so a page of results never touches the image collection or other associations.
+ */
+public class ProductSummaryResponse {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private BigDecimal comparePrice;
+    private String imageUrl;
+    private String sku;
+    private Integer stockQuantity;
+    private Boolean active;
+    private Boolean featured;
+    private Double avgRating;
+    private Integer reviewCount;
+    private boolean inStock;
+    private boolean lowStock;
+    private CategoryRef category;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+    public BigDecimal getComparePrice() { return comparePrice; }
+    public void setComparePrice(BigDecimal comparePrice) { this.comparePrice = comparePrice; }
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+    public String getSku() { return sku; }
+    public void setSku(String sku) { this.sku = sku; }
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+    public Boolean getActive() { return active; }
+    public void setActive(Boolean active) { this.active = active; }
+    public Boolean getFeatured() { return featured; }
+    public void setFeatured(Boolean featured) { this.featured = featured; }
+    public Double getAvgRating() { return avgRating; }
+    public void setAvgRating(Double avgRating) { this.avgRating = avgRating; }
+    public Integer getReviewCount() { return reviewCount; }
+    public void setReviewCount(Integer reviewCount) { this.reviewCount = reviewCount; }
+    public boolean isInStock() { return inStock; }
+    public void setInStock(boolean inStock) { this.inStock = inStock; }
+    public boolean isLowStock() { return lowStock; }
+    public void setLowStock(boolean lowStock) { this.lowStock = lowStock; }
+    public CategoryRef getCategory() { return category; }
+    public void setCategory(CategoryRef category) { this.category = category; }
+}
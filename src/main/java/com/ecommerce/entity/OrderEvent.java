@@ -0,0 +1,114 @@
+package com.ecommerce.entity;
+
+import com.ecommerce.entity.enums.OrderEventType;
+import com.ecommerce.entity.enums.OrderStatus;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of an order's history. Rows are only ever inserted; on PostgreSQL the table is
+ * range-partitioned by month on occurred_at (see OrderEventPartitions).
+ */
+@Entity
+@Immutable
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_order", columnList = "order_id, occurred_at")
+})
+public class OrderEvent {
+
+    @Id
+    // Sequence-allocated so events are inserted in batches
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_events_seq")
+    @SequenceGenerator(name = "order_events_seq", sequenceName = "order_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 30)
+    private OrderEventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 20)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", length = 20)
+    private OrderStatus toStatus;
+
+    @Column(name = "tracking_number")
+    private String trackingNumber;
+
+    // Order total at the time of the event
+    @Column(precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    private String actor;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    protected OrderEvent() {}
+
+    public OrderEvent(Long orderId, Long userId, OrderEventType eventType, OrderStatus fromStatus,
+                      OrderStatus toStatus, String trackingNumber, BigDecimal amount, String actor) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.eventType = eventType;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.trackingNumber = trackingNumber;
+        this.amount = amount;
+        this.actor = actor;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public OrderEventType getEventType() {
+        return eventType;
+    }
+
+    public OrderStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public OrderStatus getToStatus() {
+        return toStatus;
+    }
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
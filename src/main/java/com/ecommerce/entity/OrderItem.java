@@ -8,7 +8,9 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (see hibernate.id.optimizer.pooled.preferred) so inserts can be JDBC-batched
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -24,6 +26,11 @@ public class OrderItem {
     @Column(name = "unit_price", precision = 10, scale = 2)
     private BigDecimal unitPrice;
 
+    // Stock taken from the product at checkout and not yet put back; backordered units and
+    // untracked products reserve nothing. Zeroed when the reservation is released.
+    @Column(name = "reserved_quantity")
+    private Integer reservedQuantity;
+
     // Constructors
     public OrderItem() {}
 
@@ -75,6 +82,14 @@ public class OrderItem {
         this.unitPrice = unitPrice;
     }
 
+    public Integer getReservedQuantity() {
+        return reservedQuantity;
+    }
+
+    public void setReservedQuantity(Integer reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+
     // Helper methods
     public BigDecimal getTotalPrice() {
         return unitPrice.multiply(BigDecimal.valueOf(quantity));
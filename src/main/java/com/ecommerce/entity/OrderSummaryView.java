@@ -0,0 +1,133 @@
+package com.ecommerce.entity;
+
+import com.ecommerce.entity.enums.OrderStatus;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row per order with what the order history list shows, written alongside the order
+ * by OrderReadModel so history pages never touch orders, order_items or products.
+ */
+@Entity
+@Table(name = "order_summary_view", indexes = {
+        @Index(name = "idx_order_summary_user_date", columnList = "user_id, order_date, order_id"),
+        @Index(name = "idx_order_summary_user_status_date", columnList = "user_id, status, order_date, order_id")
+})
+public class OrderSummaryView {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Column(name = "total_amount", precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    // Units across all lines
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
+    @Column(name = "line_count", nullable = false)
+    private int lineCount;
+
+    @Column(name = "first_item_name")
+    private String firstItemName;
+
+    @Column(name = "first_item_image_url")
+    private String firstItemImageUrl;
+
+    @Column(name = "tracking_number")
+    private String trackingNumber;
+
+    // Getters and setters
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(LocalDateTime orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(int lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public String getFirstItemName() {
+        return firstItemName;
+    }
+
+    public void setFirstItemName(String firstItemName) {
+        this.firstItemName = firstItemName;
+    }
+
+    public String getFirstItemImageUrl() {
+        return firstItemImageUrl;
+    }
+
+    public void setFirstItemImageUrl(String firstItemImageUrl) {
+        this.firstItemImageUrl = firstItemImageUrl;
+    }
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public void setTrackingNumber(String trackingNumber) {
+        this.trackingNumber = trackingNumber;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.entity;
 
+import com.ecommerce.config.HibernateCacheConfig;
 import com.ecommerce.entity.audit.BaseEntity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
@@ -9,8 +10,15 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCT_REGION)
+// Only changed columns are written, so counters in a cached copy never overwrite newer values
+@DynamicUpdate
 @Getter
 @Setter
 @Table(name = "products", indexes = {
@@ -226,6 +234,14 @@ public class Product extends BaseEntity {
         this.searchKeywords = searchKeywords;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Double getAvgRating() {
         return avgRating;
     }
@@ -295,6 +311,7 @@ public class Product extends BaseEntity {
 
     @ElementCollection
     @CollectionTable(name = "product_images", joinColumns = @JoinColumn(name = "product_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCT_IMAGES_REGION)
     @Column(name = "image_url")
     private List<String> images = new ArrayList<>();
 
@@ -325,6 +342,11 @@ public class Product extends BaseEntity {
     @Column(name = "search_keywords")
     private String searchKeywords;
 
+    // SHA-256 of the feed row last imported for this SKU; cleared by manual edits
+    @JsonIgnore
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "avg_rating")
     private Double avgRating = 0.0;
 
@@ -0,0 +1,121 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-product review counters, kept up to date with atomic delta updates
+ * whenever a review is created, changed or deleted.
+ */
+@Entity
+@Table(name = "product_review_stats")
+public class ProductReviewStats {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "rating_1_count", nullable = false)
+    private long rating1Count;
+
+    @Column(name = "rating_2_count", nullable = false)
+    private long rating2Count;
+
+    @Column(name = "rating_3_count", nullable = false)
+    private long rating3Count;
+
+    @Column(name = "rating_4_count", nullable = false)
+    private long rating4Count;
+
+    @Column(name = "rating_5_count", nullable = false)
+    private long rating5Count;
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum;
+
+    // Constructors
+    public ProductReviewStats() {}
+
+    public ProductReviewStats(Long productId) {
+        this.productId = productId;
+    }
+
+    // Getters and setters
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public long getRating1Count() {
+        return rating1Count;
+    }
+
+    public void setRating1Count(long rating1Count) {
+        this.rating1Count = rating1Count;
+    }
+
+    public long getRating2Count() {
+        return rating2Count;
+    }
+
+    public void setRating2Count(long rating2Count) {
+        this.rating2Count = rating2Count;
+    }
+
+    public long getRating3Count() {
+        return rating3Count;
+    }
+
+    public void setRating3Count(long rating3Count) {
+        this.rating3Count = rating3Count;
+    }
+
+    public long getRating4Count() {
+        return rating4Count;
+    }
+
+    public void setRating4Count(long rating4Count) {
+        this.rating4Count = rating4Count;
+    }
+
+    public long getRating5Count() {
+        return rating5Count;
+    }
+
+    public void setRating5Count(long rating5Count) {
+        this.rating5Count = rating5Count;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    // Helper methods
+    public long getTotalReviews() {
+        return rating1Count + rating2Count + rating3Count + rating4Count + rating5Count;
+    }
+
+    public double getAverageRating() {
+        long total = getTotalReviews();
+        return total > 0 ? (double) ratingSum / total : 0.0;
+    }
+
+    public Map<Integer, Integer> getRatingDistribution() {
+        Map<Integer, Integer> distribution = new HashMap<>();
+        distribution.put(1, (int) rating1Count);
+        distribution.put(2, (int) rating2Count);
+        distribution.put(3, (int) rating3Count);
+        distribution.put(4, (int) rating4Count);
+        distribution.put(5, (int) rating5Count);
+        return distribution;
+    }
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import java.time.LocalDateTime;
 
 @Entity
@@ -23,6 +25,11 @@ public class Review {
     private String comment;
     private LocalDateTime createdAt;
 
+    // Last insert or update; the HTTP validator for review endpoints
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     // Additional fields for review moderation
     @Column(name = "approved")
     private Boolean approved = true; // Default to approved
@@ -95,6 +102,14 @@ public class Review {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public Boolean getApproved() {
         return approved;
     }
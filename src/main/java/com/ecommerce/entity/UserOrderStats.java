@@ -0,0 +1,95 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Per-user order counts and delivered total, kept current with delta updates on every
+ * order write so the order summary is a single primary-key read.
+ */
+@Entity
+@Table(name = "user_order_stats")
+public class UserOrderStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_orders", nullable = false)
+    private long totalOrders;
+
+    @Column(name = "pending_orders", nullable = false)
+    private long pendingOrders;
+
+    @Column(name = "delivered_orders", nullable = false)
+    private long deliveredOrders;
+
+    @Column(name = "cancelled_orders", nullable = false)
+    private long cancelledOrders;
+
+    @Column(name = "delivered_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal deliveredAmount = BigDecimal.ZERO;
+
+    // Constructors
+    public UserOrderStats() {}
+
+    public UserOrderStats(Long userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getAverageDeliveredAmount() {
+        return deliveredOrders == 0 ? BigDecimal.ZERO
+                : deliveredAmount.divide(BigDecimal.valueOf(deliveredOrders), 2, RoundingMode.HALF_UP);
+    }
+
+    // Getters and setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getTotalOrders() {
+        return totalOrders;
+    }
+
+    public void setTotalOrders(long totalOrders) {
+        this.totalOrders = totalOrders;
+    }
+
+    public long getPendingOrders() {
+        return pendingOrders;
+    }
+
+    public void setPendingOrders(long pendingOrders) {
+        this.pendingOrders = pendingOrders;
+    }
+
+    public long getDeliveredOrders() {
+        return deliveredOrders;
+    }
+
+    public void setDeliveredOrders(long deliveredOrders) {
+        this.deliveredOrders = deliveredOrders;
+    }
+
+    public long getCancelledOrders() {
+        return cancelledOrders;
+    }
+
+    public void setCancelledOrders(long cancelledOrders) {
+        this.cancelledOrders = cancelledOrders;
+    }
+
+    public BigDecimal getDeliveredAmount() {
+        return deliveredAmount;
+    }
+
+    public void setDeliveredAmount(BigDecimal deliveredAmount) {
+        this.deliveredAmount = deliveredAmount;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-user payment totals, kept up to date with atomic delta updates on every payment
+ * status change so payment stats never scan the payments table.
+ */
+@Entity
+@Table(name = "user_payment_stats")
+public class UserPaymentStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+
+    // Payments that completed, including ones refunded afterwards
+    @Column(name = "successful_count", nullable = false)
+    private long successfulCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private long failedCount;
+
+    @Column(name = "captured_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal capturedAmount = BigDecimal.ZERO;
+
+    @Column(name = "refunded_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal refundedAmount = BigDecimal.ZERO;
+
+    // Constructors
+    public UserPaymentStats() {}
+
+    public UserPaymentStats(Long userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getNetAmount() {
+        return capturedAmount.subtract(refundedAmount);
+    }
+
+    // Getters and setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getPaymentCount() {
+        return paymentCount;
+    }
+
+    public void setPaymentCount(long paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+
+    public long getSuccessfulCount() {
+        return successfulCount;
+    }
+
+    public void setSuccessfulCount(long successfulCount) {
+        this.successfulCount = successfulCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public BigDecimal getCapturedAmount() {
+        return capturedAmount;
+    }
+
+    public void setCapturedAmount(BigDecimal capturedAmount) {
+        this.capturedAmount = capturedAmount;
+    }
+
+    public BigDecimal getRefundedAmount() {
+        return refundedAmount;
+    }
+
+    public void setRefundedAmount(BigDecimal refundedAmount) {
+        this.refundedAmount = refundedAmount;
+    }
+}
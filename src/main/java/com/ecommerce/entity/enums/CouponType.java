@@ -0,0 +1,7 @@
+package com.ecommerce.entity.enums;
+
+public enum CouponType {
+    PERCENTAGE,
+    FIXED_AMOUNT,
+    FREE_SHIPPING
+}
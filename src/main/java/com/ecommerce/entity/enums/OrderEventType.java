@@ -0,0 +1,6 @@
+package com.ecommerce.entity.enums;
+
+public enum OrderEventType {
+    PLACED,
+    STATUS_CHANGED
+}
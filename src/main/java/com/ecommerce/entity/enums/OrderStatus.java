@@ -1,5 +1,11 @@
 package com.ecommerce.entity.enums;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     CONFIRMED,
@@ -7,5 +13,28 @@ public enum OrderStatus {
     SHIPPED,
     DELIVERED,
     CANCELLED,
-    REFUNDED
+    REFUNDED;
+
+    // Allowed transitions, following processOrder, fulfillOrder, shipOrder, deliverOrder and cancellation
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        allow(PENDING, PROCESSING, CANCELLED);
+        allow(PROCESSING, CONFIRMED, CANCELLED);
+        allow(CONFIRMED, SHIPPED, CANCELLED);
+        allow(SHIPPED, DELIVERED);
+        allow(DELIVERED, REFUNDED);
+        allow(CANCELLED, REFUNDED);
+        allow(REFUNDED);
+    }
+
+    private static void allow(OrderStatus from, OrderStatus... to) {
+        EnumSet<OrderStatus> targets = EnumSet.noneOf(OrderStatus.class);
+        Collections.addAll(targets, to);
+        TRANSITIONS.put(from, Collections.unmodifiableSet(targets));
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
 }
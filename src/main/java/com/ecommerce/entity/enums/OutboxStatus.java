@@ -0,0 +1,7 @@
+package com.ecommerce.entity.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+// A payment provider could not be reached in time, is failing, or is shed by its circuit breaker or bulkhead
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PaymentGatewayException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,7 +1,10 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.CartItem;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,7 +18,16 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     // Find cart items by user
     List<CartItem> findByUserId(Long userId);
+    @EntityGraph(attributePaths = "product")
     List<CartItem> findByUserIdOrderByIdDesc(Long userId);
+    @EntityGraph(attributePaths = "product")
+    List<CartItem> findByUserIdOrderByIdAsc(Long userId);
+
+    // Checkout's single read: cart lines with their products, rows locked until the order commits.
+    // Ordered by product id so concurrent checkouts of overlapping carts lock in the same order.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CartItem c JOIN FETCH c.product p WHERE c.user.id = :userId ORDER BY p.id")
+    List<CartItem> findCheckoutLinesForUpdate(@Param("userId") Long userId);
 
     // Find specific cart item
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
@@ -24,7 +36,9 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     int countByUserId(Long userId);
 
     // Delete operations
-    void deleteByUserId(Long userId);
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
     void deleteByUserIdAndProductId(Long userId, Long productId);
 
     // Check if item exists
@@ -0,0 +1,78 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.CategoryClosure;
+import com.ecommerce.entity.CategoryClosure.CategoryClosureId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosureId> {
+
+    // Subtree / ancestor lookups
+    @Query("SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId")
+    List<Long> findDescendantIds(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT cc.ancestorId FROM CategoryClosure cc WHERE cc.descendantId = :categoryId ORDER BY cc.depth DESC")
+    List<Long> findAncestorIds(@Param("categoryId") Long categoryId);
+
+    @Query("SELECT COUNT(cc) > 0 FROM CategoryClosure cc " +
+            "WHERE cc.ancestorId = :ancestorId AND cc.descendantId = :descendantId")
+    boolean existsPath(@Param("ancestorId") Long ancestorId, @Param("descendantId") Long descendantId);
+
+    @Query("SELECT COUNT(cc) FROM CategoryClosure cc WHERE cc.depth = 0")
+    long countSelfPaths();
+
+    // New category: self path plus one path from every ancestor of the parent
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT ancestor_id, CAST(:categoryId AS BIGINT), depth + 1 FROM category_closure WHERE descendant_id = :parentId " +
+            "UNION ALL SELECT CAST(:categoryId AS BIGINT), CAST(:categoryId AS BIGINT), 0", nativeQuery = true)
+    void insertPaths(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    // Move: detach the subtree from its old ancestors ...
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "DELETE FROM category_closure " +
+            "WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId) " +
+            "AND ancestor_id NOT IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId)",
+            nativeQuery = true)
+    void detachSubtree(@Param("categoryId") Long categoryId);
+
+    // ... and attach it below every ancestor of the new parent
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT sup.ancestor_id, sub.descendant_id, sup.depth + sub.depth + 1 " +
+            "FROM category_closure sup CROSS JOIN category_closure sub " +
+            "WHERE sup.descendant_id = :parentId AND sub.ancestor_id = :categoryId", nativeQuery = true)
+    void attachSubtree(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query("DELETE FROM CategoryClosure cc WHERE cc.descendantId = :categoryId")
+    void deleteByDescendantId(@Param("categoryId") Long categoryId);
+
+    // Full rebuild from categories.parent_id (used to backfill existing data)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "DELETE FROM category_closure", nativeQuery = true)
+    void deleteAllPaths();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "category_closure"))
+    @Query(value = "INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+            "WITH RECURSIVE tree (ancestor_id, descendant_id, depth) AS (" +
+            "   SELECT id, id, 0 FROM categories " +
+            "   UNION ALL " +
+            "   SELECT t.ancestor_id, c.id, t.depth + 1 FROM tree t JOIN categories c ON c.parent_id = t.descendant_id" +
+            ") SELECT ancestor_id, descendant_id, depth FROM tree", nativeQuery = true)
+    void insertAllPaths();
+}
@@ -1,13 +1,16 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.Category;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
@@ -55,12 +58,22 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
             "ORDER BY c.displayOrder ASC, c.name ASC")
     List<Category> findCategoriesWithProducts();
 
-    // Count products in category (including subcategories)
-    @Query("SELECT COUNT(DISTINCT p) FROM Category c " +
-            "JOIN c.products p " +
-            "WHERE c.id = :categoryId OR c.parent.id = :categoryId")
+    // Count products in category (including all descendant categories)
+    @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id IN " +
+            "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)")
     long countProductsInCategory(@Param("categoryId") Long categoryId);
 
+    // Active product count for every category's subtree in one pass: [categoryId, count]
+    @Query("SELECT cc.ancestorId, COUNT(p) FROM CategoryClosure cc " +
+            "JOIN Product p ON p.category.id = cc.descendantId " +
+            "WHERE p.active = true " +
+            "GROUP BY cc.ancestorId")
+    List<Object[]> countActiveProductsPerCategorySubtree();
+
+    // Category ids a catalog feed may reference
+    @Query("SELECT c.id FROM Category c")
+    Set<Long> findAllIds();
+
     // Find categories by level in hierarchy
     @Query("SELECT c FROM Category c WHERE " +
             "c.active = true AND " +
@@ -77,6 +90,9 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     @Query("SELECT c FROM Category c WHERE c.imageUrl IS NOT NULL AND c.active = true")
     List<Category> findCategoriesWithImage();
 
+    @Query("SELECT c.imageUrl FROM Category c WHERE c.imageUrl IS NOT NULL")
+    List<String> findAllImageUrls();
+
     // Top-level categories ordered by display order
     @Query("SELECT c FROM Category c WHERE " +
             "c.parent IS NULL AND c.active = true " +
@@ -96,4 +112,15 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
             "ORDER BY c.createdAt DESC " +
             "LIMIT :limit")
     List<Category> findRecentCategories(@Param("limit") int limit);
-}
\ No newline at end of file
+
+    // Version of the categories table for HTTP validators; not query-cached, see VersionStamp
+    @Query("SELECT COUNT(c) AS rowCount, MAX(c.updatedAt) AS lastUpdated FROM Category c")
+    VersionStamp findVersionStamp();
+
+    // Hierarchy moves: lock the moved category and every ancestor of its new parent, in id order.
+    // Two moves that could close a cycle between them both lock the two categories involved.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.id FROM Category c WHERE c.id = :categoryId OR c.id IN " +
+            "(SELECT cc.ancestorId FROM CategoryClosure cc WHERE cc.descendantId = :parentId) ORDER BY c.id")
+    List<Long> lockForMove(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+}
@@ -0,0 +1,25 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.Coupon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CouponRepository extends JpaRepository<Coupon, Long> {
+
+    List<Coupon> findByActiveTrue();
+
+    @Query("SELECT COUNT(c) AS rowCount, MAX(c.updatedAt) AS lastUpdated FROM Coupon c")
+    VersionStamp findVersionStamp();
+
+    // Returns 0 once the usage limit is reached; checkout redeems through this, not the cached plan
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount + 1 " +
+            "WHERE c.id = :id AND (c.usageLimit IS NULL OR c.usedCount < c.usageLimit)")
+    int redeem(@Param("id") Long id);
+}
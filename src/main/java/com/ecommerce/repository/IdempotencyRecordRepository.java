@@ -0,0 +1,56 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    // Returns 0 when the key is already taken; the unique (user_id, scope, idempotency_key) key decides
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys " +
+            "(user_id, scope, idempotency_key, request_hash, status, locked_at, created_at, expires_at) " +
+            "VALUES (:userId, :scope, :key, :requestHash, 'IN_PROGRESS', :now, :now, :expiresAt) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId,
+                       @Param("scope") String scope,
+                       @Param("key") String key,
+                       @Param("requestHash") String requestHash,
+                       @Param("now") LocalDateTime now,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT r FROM IdempotencyRecord r " +
+            "WHERE r.userId = :userId AND r.scope = :scope AND r.idempotencyKey = :key")
+    Optional<IdempotencyRecord> findByKey(@Param("userId") Long userId,
+                                          @Param("scope") String scope,
+                                          @Param("key") String key);
+
+    // Compare-and-set on locked_at so only one request takes over an abandoned key
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.lockedAt = :now " +
+            "WHERE r.id = :id AND r.status = 'IN_PROGRESS' AND r.lockedAt = :lockedAt")
+    int reclaim(@Param("id") Long id, @Param("lockedAt") LocalDateTime lockedAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = 'COMPLETED', r.responseStatus = :responseStatus, " +
+            "r.responseBody = :responseBody, r.completedAt = :completedAt WHERE r.id = :id")
+    void markCompleted(@Param("id") Long id,
+                       @Param("responseStatus") int responseStatus,
+                       @Param("responseBody") String responseBody,
+                       @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = 'IN_PROGRESS'")
+    void release(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
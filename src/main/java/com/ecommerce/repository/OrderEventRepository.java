@@ -0,0 +1,20 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    // No event precedes the order, so the lower bound (the order date) lets PostgreSQL
+    // skip the monthly partitions from before the order was placed
+    @Query("SELECT e FROM OrderEvent e WHERE e.orderId = :orderId AND e.occurredAt >= :since " +
+            "ORDER BY e.occurredAt, e.id")
+    List<OrderEvent> findTimeline(@Param("orderId") Long orderId, @Param("since") LocalDateTime since);
+}
@@ -2,26 +2,47 @@ package com.ecommerce.repository;
 
 import com.ecommerce.entity.Order;
 import com.ecommerce.entity.enums.OrderStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
 
     // Basic user order queries
-//    Page<Order> findByUserIdOrderByOrderDateDesc(Long userId, Pageable pageable);
-    List<Order> findByUserIdOrderByOrderDateDesc(Long userId, Pageable pageable);
+    Page<Order> findByUserIdOrderByOrderDateDesc(Long userId, Pageable pageable);
     Optional<Order> findByIdAndUserId(Long orderId, Long userId);
 
+    // Fetch plan for the order view: user, shipping address, items and their products.
+    // Lists are paged first and then loaded through findWithItemsByIdIn, so the
+    // collection fetch never forces in-memory pagination.
+    @EntityGraph(attributePaths = {"user", "shippingAddress", "orderItems", "orderItems.product"})
+    Optional<Order> findWithItemsById(Long orderId);
+
+    @EntityGraph(attributePaths = {"user", "shippingAddress", "orderItems", "orderItems.product"})
+    Optional<Order> findWithItemsByIdAndUserId(Long orderId, Long userId);
+
+    @EntityGraph(attributePaths = {"user", "shippingAddress", "orderItems", "orderItems.product"})
+    List<Order> findWithItemsByIdIn(Collection<Long> orderIds);
+
     // Order status queries
     Page<Order> findByUserIdAndStatusOrderByOrderDateDesc(Long userId, OrderStatus status, Pageable pageable);
     List<Order> findByStatus(OrderStatus status);
@@ -46,12 +67,33 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.user.id = :userId ORDER BY o.orderDate DESC LIMIT :limit")
     List<Order> findRecentOrdersByUser(@Param("userId") Long userId, @Param("limit") int limit);
 
-    // Admin queries
-    @Query("SELECT o FROM Order o ORDER BY o.orderDate DESC")
-    Page<Order> findAllOrdersForAdmin(Pageable pageable);
-
-    @Query("SELECT o FROM Order o WHERE o.status = :status ORDER BY o.orderDate DESC")
-    Page<Order> findOrdersByStatusForAdmin(@Param("status") OrderStatus status, Pageable pageable);
+    // Bulk status updates: lock the rows, then one update per source status
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS id, o.status AS status, o.user.id AS userId, o.totalAmount AS totalAmount " +
+            "FROM Order o WHERE o.id IN :orderIds ORDER BY o.id")
+    List<OrderStatusRow> findStatusRowsForUpdate(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :target WHERE o.id IN :orderIds AND o.status = :source")
+    int updateStatus(@Param("orderIds") Collection<Long> orderIds,
+                     @Param("source") OrderStatus source,
+                     @Param("target") OrderStatus target);
+
+    // Releasing stock: lock the order items that still hold a reservation. A concurrent release
+    // of the same order waits here and then finds them cleared.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT oi.id FROM OrderItem oi WHERE oi.order.id IN :orderIds AND oi.reservedQuantity > 0 " +
+            "ORDER BY oi.id")
+    List<Long> lockReservedItemIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Reserved quantities to put back per product: [productId, quantity]
+    @Query("SELECT oi.product.id, SUM(oi.reservedQuantity) FROM OrderItem oi WHERE oi.id IN :itemIds " +
+            "GROUP BY oi.product.id")
+    List<Object[]> sumReservedQuantitiesByProduct(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.reservedQuantity = 0 WHERE oi.id IN :itemIds")
+    int clearReservations(@Param("itemIds") Collection<Long> itemIds);
 
     // Revenue analytics
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status = 'DELIVERED' AND o.orderDate BETWEEN :startDate AND :endDate")
@@ -94,4 +136,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             "JOIN o.orderItems oi " +
             "WHERE oi.product.id = :productId")
     List<Order> findOrdersContainingProduct(@Param("productId") Long productId);
+
+    // Export rows, streamed with a fetch size; scalar columns so the persistence context stays empty.
+    // Column order is the one ExportServiceImpl writes.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.id, o.orderDate, o.status, o.totalAmount, o.discountAmount, o.couponCode, " +
+            "o.trackingNumber, u.id, u.email FROM Order o JOIN o.user u " +
+            "WHERE (:status IS NULL OR o.status = :status) ORDER BY o.id")
+    Stream<Object[]> streamForExport(@Param("status") OrderStatus status);
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.enums.OrderStatus;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Admin order search predicates. Only the filters that were supplied are added, so each
+ * search gets a plan for its own predicates (status/date on idx_order_status_date, text on
+ * the primary key, the trigram indexes and idx_order_user_date) instead of one generic plan
+ * full of "parameter IS NULL OR ..." terms.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> hasStatus(OrderStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Order> placedFrom(LocalDateTime from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("orderDate"), from);
+    }
+
+    public static Specification<Order> placedBefore(LocalDateTime to) {
+        return (root, query, cb) -> cb.lessThan(root.get("orderDate"), to);
+    }
+
+    public static Specification<Order> totalAtLeast(BigDecimal minAmount) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("totalAmount"), minAmount);
+    }
+
+    public static Specification<Order> totalAtMost(BigDecimal maxAmount) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("totalAmount"), maxAmount);
+    }
+
+    /**
+     * Text match as separate indexable branches: the order id exactly, the tracking number as a
+     * substring (pattern lower-cased, escaped with ! and wrapped in %), and the customers whose
+     * email matched, resolved beforehand to ids. With a null list (too many matching customers)
+     * the email branch falls back to a subquery.
+     */
+    public static Specification<Order> matchesText(Long orderId, String pattern, Collection<Long> emailUserIds) {
+        return (root, query, cb) -> {
+            List<Predicate> branches = new ArrayList<>();
+            if (orderId != null) {
+                branches.add(cb.equal(root.get("id"), orderId));
+            }
+            branches.add(cb.like(cb.lower(root.get("trackingNumber")), pattern, '!'));
+            if (emailUserIds == null) {
+                Subquery<Long> users = query.subquery(Long.class);
+                var user = users.from(User.class);
+                users.select(user.get("id")).where(cb.like(cb.lower(user.get("email")), pattern, '!'));
+                branches.add(root.get("user").get("id").in(users));
+            } else if (!emailUserIds.isEmpty()) {
+                branches.add(root.get("user").get("id").in(emailUserIds));
+            }
+            return cb.or(branches.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.enums.OrderStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns of an order that a status change needs, without loading the order.
+ */
+public interface OrderStatusRow {
+
+    Long getId();
+
+    OrderStatus getStatus();
+
+    Long getUserId();
+
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.OrderSummaryView;
+import com.ecommerce.entity.enums.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderSummaryViewRepository extends JpaRepository<OrderSummaryView, Long> {
+
+    Page<OrderSummaryView> findByUserIdOrderByOrderDateDescOrderIdDesc(Long userId, Pageable pageable);
+
+    Page<OrderSummaryView> findByUserIdAndStatusOrderByOrderDateDescOrderIdDesc(Long userId, OrderStatus status,
+                                                                              Pageable pageable);
+
+    List<OrderSummaryView> findByUserIdOrderByOrderDateDescOrderIdDesc(Long userId, Limit limit);
+
+    @Modifying
+    @Query("UPDATE OrderSummaryView v SET v.status = :status, v.trackingNumber = :trackingNumber " +
+            "WHERE v.orderId = :orderId")
+    int updateStatus(@Param("orderId") Long orderId,
+                     @Param("status") OrderStatus status,
+                     @Param("trackingNumber") String trackingNumber);
+
+    @Modifying
+    @Query("UPDATE OrderSummaryView v SET v.status = :status WHERE v.orderId IN :orderIds")
+    int updateStatuses(@Param("orderIds") Collection<Long> orderIds, @Param("status") OrderStatus status);
+
+    // Rows for orders placed before the read model existed; a no-op once every order has one
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "order_summary_view"))
+    @Query(value = "INSERT INTO order_summary_view " +
+            "(order_id, user_id, order_date, status, total_amount, item_count, line_count, " +
+            "first_item_name, first_item_image_url, tracking_number) " +
+            "SELECT o.id, o.user_id, o.order_date, o.status, o.total_amount, " +
+            "COALESCE((SELECT SUM(oi.quantity) FROM order_items oi WHERE oi.order_id = o.id), 0), " +
+            "(SELECT COUNT(*) FROM order_items oi WHERE oi.order_id = o.id), " +
+            "(SELECT p.name FROM order_items oi JOIN products p ON p.id = oi.product_id " +
+            "  WHERE oi.order_id = o.id ORDER BY oi.id LIMIT 1), " +
+            "(SELECT p.image_url FROM order_items oi JOIN products p ON p.id = oi.product_id " +
+            "  WHERE oi.order_id = o.id ORDER BY oi.id LIMIT 1), " +
+            "o.tracking_number " +
+            "FROM orders o WHERE NOT EXISTS (SELECT 1 FROM order_summary_view v WHERE v.order_id = o.id) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int backfill();
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.OutboxMessage;
+import com.ecommerce.entity.enums.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    // Rows locked by another poller are skipped, so concurrent pollers claim disjoint batches
+    @Query(value = "SELECT * FROM outbox_messages WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxMessage> findDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = 'SENT', m.sentAt = :sentAt, m.lastError = null WHERE m.id = :id")
+    void markSent(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = :status, m.nextAttemptAt = :nextAttemptAt, m.lastError = :lastError " +
+            "WHERE m.id = :id")
+    void markAttemptFailed(@Param("id") Long id,
+                           @Param("status") OutboxStatus status,
+                           @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                           @Param("lastError") String lastError);
+
+    // Undoes claim() for rows that were never handed to a sender
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.attempts = m.attempts - 1, m.nextAttemptAt = :nextAttemptAt " +
+            "WHERE m.id IN :ids")
+    void releaseClaim(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.status = 'SENT' AND m.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.Payment;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    // History is paged by keyset on (created_at, id) and served by idx_payment_user_created
+    @Query("SELECT p FROM Payment p WHERE p.user.id = :userId ORDER BY p.createdAt DESC, p.id DESC LIMIT :limit")
+    List<Payment> findLatestByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query("SELECT p FROM Payment p WHERE p.user.id = :userId " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC LIMIT :limit")
+    List<Payment> findByUserIdBefore(@Param("userId") Long userId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     @Param("limit") int limit);
+
+    Optional<Payment> findFirstByOrderIdOrderByCreatedAtDescIdDesc(Long orderId);
+
+    // Status changes lock the payment row so concurrent confirmations and webhooks apply once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.transactionId = :transactionId")
+    Optional<Payment> findByTransactionIdForUpdate(@Param("transactionId") String transactionId);
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.PaymentWebhookEvent;
+import com.ecommerce.entity.enums.WebhookEventStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+
+    // Returns 0 for a redelivered event; the unique (provider, event_id) key does the dedup
+    @Modifying
+    @Query(value = "INSERT INTO payment_webhook_events " +
+            "(provider, event_id, event_type, order_id, payment_reference, payload, status, attempts, next_attempt_at, received_at) " +
+            "VALUES (:provider, :eventId, :eventType, :orderId, :paymentReference, :payload, 'RECEIVED', 0, :nextAttemptAt, :receivedAt) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("provider") String provider,
+                       @Param("eventId") String eventId,
+                       @Param("eventType") String eventType,
+                       @Param("orderId") Long orderId,
+                       @Param("paymentReference") String paymentReference,
+                       @Param("payload") String payload,
+                       @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                       @Param("receivedAt") LocalDateTime receivedAt);
+
+    @Query("SELECT e.id FROM PaymentWebhookEvent e WHERE e.provider = :provider AND e.eventId = :eventId")
+    Optional<Long> findIdByProviderAndEventId(@Param("provider") String provider, @Param("eventId") String eventId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM PaymentWebhookEvent e WHERE e.id = :id")
+    Optional<PaymentWebhookEvent> findByIdForUpdate(@Param("id") Long id);
+
+    // Events whose in-memory hand-off was lost (restart, full partition) or that are due for a retry
+    @Query(value = "SELECT * FROM payment_webhook_events WHERE status = 'RECEIVED' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PaymentWebhookEvent> findDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = :status, e.attempts = e.attempts + 1, " +
+            "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError WHERE e.id = :id")
+    void markAttemptFailed(@Param("id") Long id,
+                           @Param("status") WebhookEventStatus status,
+                           @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                           @Param("lastError") String lastError);
+
+    @Modifying
+    @Query("DELETE FROM PaymentWebhookEvent e WHERE e.status = 'PROCESSED' AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
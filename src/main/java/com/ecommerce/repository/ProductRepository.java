@@ -1,29 +1,72 @@
 package com.ecommerce.repository;
 
+import com.ecommerce.config.HibernateCacheConfig;
 import com.ecommerce.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    // Fetch plans: listings load the category with the product row, product writes
+    // also load the image collection. Nothing else is read when mapping to DTOs.
+    // (Detail reads go through findById so they can be served from the L2 cache.)
+    @EntityGraph(attributePaths = {"category", "images"})
+    Optional<Product> findDetailById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll(Sort sort);
+
     // Basic queries
     Page<Product> findByCategoryIdAndActiveTrue(Long categoryId, Pageable pageable);
+
+    // Active products in a category or any of its descendants (via category_closure)
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.category.id IN " +
+            "(SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)")
+    Page<Product> findActiveInCategoryTree(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    // Storefront listings: results are kept in the query cache until a products write
+    @EntityGraph(attributePaths = "category")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.PRODUCT_LISTINGS_REGION)
+    })
     List<Product> findByFeaturedTrueAndActiveTrue(Pageable pageable);
+    @EntityGraph(attributePaths = "category")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.PRODUCT_LISTINGS_REGION)
+    })
     List<Product> findByActiveTrue(Pageable pageable);
+    @EntityGraph(attributePaths = "category")
     List<Product> findByActiveTrue(Sort sort);
+    @EntityGraph(attributePaths = "category")
     List<Product> findByActiveFalse(Sort sort);
+    @EntityGraph(attributePaths = "category")
     List<Product> findByStockQuantityAndTrackQuantityTrue(int stockQuantity);
 
     // Search functionality
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE " +
             "p.active = true AND (" +
             "LOWER(p.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
@@ -32,10 +75,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> searchProducts(@Param("query") String query, Pageable pageable);
 
     // Complex filtering
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE " +
             "p.active = true AND " +
             "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
-            "(:categoryId IS NULL OR p.category.id = :categoryId) AND " +
+            "(:categoryId IS NULL OR p.category.id IN " +
+            "   (SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)) AND " +
             "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
             "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
             "(:featured IS NULL OR p.featured = :featured)")
@@ -64,14 +109,60 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                       @Param("productId") Long productId,
                                       Pageable pageable);
 
+    // Related products resolved from the product id alone (no prior product lookup needed)
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE " +
+            "p.category.id = (SELECT x.category.id FROM Product x WHERE x.id = :productId) AND " +
+            "p.id != :productId AND " +
+            "p.active = true " +
+            "ORDER BY p.avgRating DESC, p.viewCount DESC")
+    List<Product> findRelatedToProduct(@Param("productId") Long productId, Pageable pageable);
+
+    // Counter-only update under its own query space: it must not evict the product cache
+    // region or the listing query cache on every page view. Cached rows may show a view
+    // count up to the region TTL old (Product uses @DynamicUpdate, so it is never written back).
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_view_counts"))
+    @Query(value = "UPDATE products SET view_count = COALESCE(view_count, 0) + 1 WHERE id = :productId",
+            nativeQuery = true)
+    int incrementViewCount(@Param("productId") Long productId);
+
     // Low stock products
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE " +
             "p.trackQuantity = true AND " +
             "p.stockQuantity <= p.lowStockThreshold AND " +
             "p.active = true")
     List<Product> findLowStockProducts();
 
+    // Ids behind the low-stock and out-of-stock lists, for StockLevelIndex rebuilds
+    @Query("SELECT p.id FROM Product p WHERE " +
+            "p.trackQuantity = true AND " +
+            "p.stockQuantity <= p.lowStockThreshold AND " +
+            "p.active = true")
+    List<Long> findLowStockIds();
+
+    @Query("SELECT p.id FROM Product p WHERE p.trackQuantity = true AND p.stockQuantity = 0")
+    List<Long> findOutOfStockIds();
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Bulk stock adjustments: lock the rows, then one batched update
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id AS id, p.sku AS sku, p.stockQuantity AS stockQuantity, " +
+            "p.lowStockThreshold AS lowStockThreshold, p.trackQuantity AS trackQuantity, p.active AS active " +
+            "FROM Product p WHERE p.sku IN :skus ORDER BY p.id")
+    List<ProductStockRow> findStockRowsForUpdate(@Param("skus") Collection<String> skus);
+
+    @Query("SELECT p.id AS id, p.sku AS sku, p.stockQuantity AS stockQuantity, " +
+            "p.lowStockThreshold AS lowStockThreshold, p.trackQuantity AS trackQuantity, p.active AS active " +
+            "FROM Product p WHERE p.id IN :ids")
+    List<ProductStockRow> findStockRowsByIdIn(@Param("ids") Collection<Long> ids);
+
     // Trending products (based on recent views and orders)
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.active = true " +
             "ORDER BY (p.viewCount * 0.3 + p.orderCount * 0.7) DESC")
     List<Product> findTrendingProducts(Pageable pageable);
@@ -124,4 +215,38 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Product findByBarcodeAndActiveTrue(String barcode);
     boolean existsBySku(String sku);
     boolean existsByBarcode(String barcode);
+
+    // Copy denormalized rating summary from product_review_stats in one statement
+    @Modifying
+    @Query("UPDATE Product p SET " +
+            "p.reviewCount = COALESCE((SELECT CAST(s.rating1Count + s.rating2Count + s.rating3Count + s.rating4Count + s.rating5Count AS Integer) " +
+            "   FROM ProductReviewStats s WHERE s.productId = p.id), 0), " +
+            "p.avgRating = COALESCE((SELECT CASE WHEN s.rating1Count + s.rating2Count + s.rating3Count + s.rating4Count + s.rating5Count = 0 THEN 0.0 " +
+            "   ELSE CAST(s.ratingSum AS Double) / (s.rating1Count + s.rating2Count + s.rating3Count + s.rating4Count + s.rating5Count) END " +
+            "   FROM ProductReviewStats s WHERE s.productId = p.id), 0.0), " +
+            "p.updatedAt = LOCAL DATETIME " +
+            "WHERE p.id = :productId")
+    int refreshRatingFromStats(@Param("productId") Long productId);
+
+    // Version of the product table for HTTP validators. Not query-cached: a cached stamp only
+    // sees this node's writes, so other nodes would keep validating a stale catalog
+    @Query("SELECT COUNT(p) AS rowCount, MAX(p.updatedAt) AS lastUpdated FROM Product p")
+    VersionStamp findVersionStamp();
+
+    // Image references (for storage cleanup)
+    @Query("SELECT p.imageUrl FROM Product p WHERE p.imageUrl IS NOT NULL")
+    List<String> findAllMainImageUrls();
+
+    @Query("SELECT i FROM Product p JOIN p.images i")
+    List<String> findAllGalleryImageUrls();
+
+    // Export rows, streamed with a fetch size; column order is the one ExportServiceImpl writes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id, p.sku, p.name, c.name, p.price, p.stockQuantity, p.active, p.featured, " +
+            "p.createdAt, p.updatedAt FROM Product p LEFT JOIN p.category c " +
+            "WHERE (:active IS NULL OR p.active = :active) ORDER BY p.id")
+    Stream<Object[]> streamForExport(@Param("active") Boolean active);
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.ProductReviewStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProductReviewStatsRepository extends JpaRepository<ProductReviewStats, Long> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_review_stats"))
+    @Query(value = "INSERT INTO product_review_stats " +
+            "(product_id, rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count, rating_sum) " +
+            "VALUES (:productId, 0, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void ensureExists(@Param("productId") Long productId);
+
+    // Moves one review from oldRating to newRating (0 = none), e.g. (0, 4) on create, (4, 0) on delete
+    @Modifying
+    @Query("UPDATE ProductReviewStats s SET " +
+            "s.rating1Count = s.rating1Count + (CASE WHEN :newRating = 1 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 1 THEN 1 ELSE 0 END), " +
+            "s.rating2Count = s.rating2Count + (CASE WHEN :newRating = 2 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 2 THEN 1 ELSE 0 END), " +
+            "s.rating3Count = s.rating3Count + (CASE WHEN :newRating = 3 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 3 THEN 1 ELSE 0 END), " +
+            "s.rating4Count = s.rating4Count + (CASE WHEN :newRating = 4 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 4 THEN 1 ELSE 0 END), " +
+            "s.rating5Count = s.rating5Count + (CASE WHEN :newRating = 5 THEN 1 ELSE 0 END) - (CASE WHEN :oldRating = 5 THEN 1 ELSE 0 END), " +
+            "s.ratingSum = s.ratingSum + :newRating - :oldRating " +
+            "WHERE s.productId = :productId")
+    int applyRatingChange(@Param("productId") Long productId,
+                          @Param("oldRating") int oldRating,
+                          @Param("newRating") int newRating);
+
+    @Modifying
+    @Query("DELETE FROM ProductReviewStats s WHERE s.productId = :productId")
+    void deleteByProductId(@Param("productId") Long productId);
+
+    // Backfill from existing reviews
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_review_stats"))
+    @Query(value = "INSERT INTO product_review_stats " +
+            "(product_id, rating_1_count, rating_2_count, rating_3_count, rating_4_count, rating_5_count, rating_sum) " +
+            "SELECT product_id, " +
+            "SUM(CASE WHEN rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 2 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN rating = 4 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN rating = 5 THEN 1 ELSE 0 END), SUM(rating) " +
+            "FROM reviews GROUP BY product_id " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int backfillFromReviews();
+}
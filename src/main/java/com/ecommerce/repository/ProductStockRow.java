@@ -0,0 +1,19 @@
+package com.ecommerce.repository;
+
+/**
+ * The stock columns of a product, for stock adjustments without loading the product.
+ */
+public interface ProductStockRow {
+
+    Long getId();
+
+    String getSku();
+
+    Integer getStockQuantity();
+
+    Integer getLowStockThreshold();
+
+    Boolean getTrackQuantity();
+
+    Boolean getActive();
+}
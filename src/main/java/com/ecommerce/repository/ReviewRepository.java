@@ -3,6 +3,7 @@ package com.ecommerce.repository;
 import com.ecommerce.entity.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,7 +17,10 @@ import java.util.Optional;
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     // Basic review queries
+    // Product reviews are shown with their author, a user's reviews with the product
+    @EntityGraph(attributePaths = "user")
     Page<Review> findByProductIdOrderByCreatedAtDesc(Long productId, Pageable pageable);
+    @EntityGraph(attributePaths = "product")
     Page<Review> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
     Optional<Review> findByUserIdAndProductId(Long userId, Long productId);
 
@@ -39,6 +43,7 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Object[]> getRatingDistribution(@Param("productId") Long productId);
 
     // Featured reviews (high rating with comments)
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.rating >= 4 AND r.comment IS NOT NULL AND LENGTH(r.comment) > 20 ORDER BY r.rating DESC, r.createdAt DESC")
     List<Review> findFeaturedReviews(@Param("productId") Long productId, Pageable pageable);
 
@@ -80,6 +85,10 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.user.id = :userId AND r.createdAt >= :since")
     Long getRecentReviewCountByUser(@Param("userId") Long userId, @Param("since") LocalDateTime since);
 
+    // (productId, rating) pairs for a user's reviews, used to adjust review stats before bulk deletes
+    @Query("SELECT r.product.id, r.rating FROM Review r WHERE r.user.id = :userId")
+    List<Object[]> findProductRatingsByUserId(@Param("userId") Long userId);
+
     // Delete operations
     void deleteByProductId(Long productId);
     void deleteByUserId(Long userId);
@@ -93,4 +102,8 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     Page<Review> searchReviewsByComment(@Param("productId") Long productId, @Param("searchTerm") String searchTerm, Pageable pageable);
 
     List<Review> findByProductIdAndRatingOrderByCreatedAtDesc(Long productId, int i, Pageable pageable);
-}
\ No newline at end of file
+
+    // Version of one product's reviews for HTTP validators; not query-cached, see VersionStamp
+    @Query("SELECT COUNT(r) AS rowCount, MAX(r.updatedAt) AS lastUpdated FROM Review r WHERE r.product.id = :productId")
+    VersionStamp findVersionStampByProductId(@Param("productId") Long productId);
+}
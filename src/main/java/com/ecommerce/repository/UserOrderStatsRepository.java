@@ -0,0 +1,54 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.UserOrderStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface UserOrderStatsRepository extends JpaRepository<UserOrderStats, Long> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_order_stats"))
+    @Query(value = "INSERT INTO user_order_stats " +
+            "(user_id, total_orders, pending_orders, delivered_orders, cancelled_orders, delivered_amount) " +
+            "VALUES (:userId, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void ensureExists(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE UserOrderStats s SET " +
+            "s.totalOrders = s.totalOrders + :totalDelta, " +
+            "s.pendingOrders = s.pendingOrders + :pendingDelta, " +
+            "s.deliveredOrders = s.deliveredOrders + :deliveredDelta, " +
+            "s.cancelledOrders = s.cancelledOrders + :cancelledDelta, " +
+            "s.deliveredAmount = s.deliveredAmount + :deliveredAmountDelta " +
+            "WHERE s.userId = :userId")
+    int applyChange(@Param("userId") Long userId,
+                    @Param("totalDelta") long totalDelta,
+                    @Param("pendingDelta") long pendingDelta,
+                    @Param("deliveredDelta") long deliveredDelta,
+                    @Param("cancelledDelta") long cancelledDelta,
+                    @Param("deliveredAmountDelta") BigDecimal deliveredAmountDelta);
+
+    // Stats for users whose orders predate the read model. Runs at startup before any order is
+    // taken (see OrderReadModel.backfill), since a user who already has a row is skipped.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_order_stats"))
+    @Query(value = "INSERT INTO user_order_stats " +
+            "(user_id, total_orders, pending_orders, delivered_orders, cancelled_orders, delivered_amount) " +
+            "SELECT o.user_id, COUNT(*), " +
+            "SUM(CASE WHEN o.status = 'PENDING' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN o.status = 'DELIVERED' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN o.status = 'CANCELLED' THEN 1 ELSE 0 END), " +
+            "COALESCE(SUM(CASE WHEN o.status = 'DELIVERED' THEN o.total_amount END), 0) " +
+            "FROM orders o WHERE NOT EXISTS (SELECT 1 FROM user_order_stats s WHERE s.user_id = o.user_id) " +
+            "GROUP BY o.user_id ON CONFLICT DO NOTHING", nativeQuery = true)
+    int backfill();
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.UserPaymentStats;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface UserPaymentStatsRepository extends JpaRepository<UserPaymentStats, Long> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_payment_stats"))
+    @Query(value = "INSERT INTO user_payment_stats " +
+            "(user_id, payment_count, successful_count, failed_count, captured_amount, refunded_amount) " +
+            "VALUES (:userId, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    void ensureExists(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE UserPaymentStats s SET " +
+            "s.paymentCount = s.paymentCount + :paymentDelta, " +
+            "s.successfulCount = s.successfulCount + :successfulDelta, " +
+            "s.failedCount = s.failedCount + :failedDelta, " +
+            "s.capturedAmount = s.capturedAmount + :capturedDelta, " +
+            "s.refundedAmount = s.refundedAmount + :refundedDelta " +
+            "WHERE s.userId = :userId")
+    int applyChange(@Param("userId") Long userId,
+                    @Param("paymentDelta") long paymentDelta,
+                    @Param("successfulDelta") long successfulDelta,
+                    @Param("failedDelta") long failedDelta,
+                    @Param("capturedDelta") BigDecimal capturedDelta,
+                    @Param("refundedDelta") BigDecimal refundedDelta);
+}
@@ -1,14 +1,39 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.User;
+import com.ecommerce.entity.enums.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     public Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.avatarUrl FROM User u WHERE u.avatarUrl IS NOT NULL")
+    List<String> findAllAvatarUrls();
+
+    // Admin order search: customers whose email contains the pattern (trigram indexed)
+    @Query("SELECT u.id FROM User u WHERE LOWER(u.email) LIKE :pattern ESCAPE '!'")
+    List<Long> findIdsByEmailLike(@Param("pattern") String pattern, Pageable pageable);
+
+    // Export rows, streamed with a fetch size; column order is the one ExportServiceImpl writes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.id, u.email, u.firstName, u.lastName, u.phone, u.role, u.isActive, u.emailVerified, " +
+            "u.createdAt, u.lastLogin FROM User u WHERE (:role IS NULL OR u.role = :role) ORDER BY u.id")
+    Stream<Object[]> streamForExport(@Param("role") Role role);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.ecommerce.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and latest updated_at of a table (or part of one), a cheap version for HTTP
+ * caching. Read from the database it moves with almost every write: inserts and deletes
+ * change the count, inserts and updates stamp updated_at. It can still miss one, e.g. a
+ * delete paired with an update stamped by a node whose clock runs behind, so it is a
+ * validator, not a guarantee. Read it without the query cache, which only sees the local
+ * node's writes.
+ */
+public interface VersionStamp {
+
+    long getRowCount();
+
+    LocalDateTime getLastUpdated();
+
+    default String token() {
+        return getRowCount() + "@" + getLastUpdated();
+    }
+}
@@ -19,7 +19,7 @@ public interface CartService {
     List<CartItem> getCartItems(Long userId);
     int getCartItemCount(Long userId);
     BigDecimal getCartTotal(Long userId);
-    CartSummary getCartSummary(Long userId);
+    CartSummary getCartSummary(Long userId, String couponCode);
 
     // Cart validation
     boolean validateCartItem(Long userId, Long productId, int quantity);
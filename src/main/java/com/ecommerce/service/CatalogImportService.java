@@ -0,0 +1,19 @@
+package com.ecommerce.service;
+
+import com.ecommerce.controller.admin.AdminProductController;
+
+import java.io.InputStream;
+
+public interface CatalogImportService {
+
+    /**
+     * Upserts products keyed by sku from a catalog feed: CSV with a header row (format "csv")
+     * or a JSON array or newline-delimited JSON objects (format "json"), optionally gzipped.
+     * Each row carries the fields of a product update (sku, name, description, price,
+     * comparePrice, costPrice, stockQuantity, categoryId, imageUrl, active, featured, weight,
+     * dimensions, barcode, metaTitle, metaDescription, searchKeywords) and replaces them as a
+     * whole. The feed is applied in chunks that commit one by one, so a failed chunk or a
+     * malformed tail does not undo the chunks before it.
+     */
+    AdminProductController.ImportProductsResponse importProducts(InputStream feed, String format, boolean gzip);
+}
@@ -5,6 +5,7 @@ import com.ecommerce.entity.Category;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 @Service
 public interface CategoryService {
@@ -37,11 +38,14 @@ public interface CategoryService {
 
     // Category statistics
     long getCategoryProductCount(Long categoryId);
+    Map<Long, Long> getProductCountsByCategory();
     long getTotalCategoriesCount();
     long getActiveCategoriesCount();
+    String getCategoriesVersion();
 
     // Utility methods
     String generateSlug(String name);
     boolean isSlugUnique(String slug, Long categoryId);
     void validateCategoryHierarchy(Long categoryId, Long parentId);
+    void rebuildCategoryClosure();
 }
\ No newline at end of file
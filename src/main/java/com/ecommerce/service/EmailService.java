@@ -0,0 +1,7 @@
+package com.ecommerce.service;
+
+public interface EmailService {
+
+    // Sends immediately over SMTP; callers inside a transaction go through EmailOutbox instead
+    void send(String to, String subject, String body);
+}
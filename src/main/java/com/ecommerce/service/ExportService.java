@@ -0,0 +1,19 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.enums.OrderStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+public interface ExportService {
+
+    /**
+     * Streams the matching rows as a CSV or NDJSON (format "csv" or "ndjson") attachment,
+     * optionally gzipped. Rows are read through a cursor and written as they arrive, so
+     * memory use does not depend on the size of the table.
+     */
+    ResponseEntity<StreamingResponseBody> exportOrders(OrderStatus status, String format, boolean gzip);
+
+    ResponseEntity<StreamingResponseBody> exportUsers(String role, String format, boolean gzip);
+
+    ResponseEntity<StreamingResponseBody> exportProducts(Boolean active, String format, boolean gzip);
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Runs the action once per (user, scope, key). A retry gets the stored response back, and
+     * a retry arriving while the first request still runs waits for its result. Without a
+     * key the action simply runs.
+     */
+    <T> ResponseEntity<T> execute(Long userId, String scope, String key, Object request,
+                                  Class<T> responseType, Supplier<ResponseEntity<T>> action);
+}
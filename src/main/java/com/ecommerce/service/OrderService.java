@@ -2,12 +2,17 @@ package com.ecommerce.service;
 
 import com.ecommerce.controller.OrderController.CreateOrderRequest;
 import com.ecommerce.controller.OrderController.OrderSummary;
+import com.ecommerce.controller.admin.AdminOrderController.BulkUpdateOrdersResponse;
 import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderEvent;
+import com.ecommerce.entity.OrderSummaryView;
 import com.ecommerce.entity.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 @Service
@@ -16,14 +21,16 @@ public interface OrderService {
     // Order creation and management
     Order createOrder(Long userId, CreateOrderRequest request);
     Order updateOrderStatus(Long orderId, OrderStatus status);
+    BulkUpdateOrdersResponse bulkUpdateOrderStatus(List<Long> orderIds, OrderStatus status);
+    List<OrderEvent> getOrderTimeline(Long orderId);
     Order cancelOrder(Long orderId, Long userId);
 
     // Order retrieval
     Optional<Order> getOrderById(Long orderId);
     Optional<Order> getOrderByIdAndUser(Long orderId, Long userId);
-    Page<Order> getUserOrders(Long userId, Pageable pageable);
-    Page<Order> getOrdersByStatus(Long userId, OrderStatus status, Pageable pageable);
-    List<Order> getRecentOrders(Long userId, int limit);
+    Page<OrderSummaryView> getUserOrders(Long userId, Pageable pageable);
+    Page<OrderSummaryView> getOrdersByStatus(Long userId, OrderStatus status, Pageable pageable);
+    List<OrderSummaryView> getRecentOrders(Long userId, int limit);
 
     // Order operations
     Order reorder(Long orderId, Long userId);
@@ -34,7 +41,8 @@ public interface OrderService {
 
     // Order analytics
     OrderSummary getOrderSummary(Long userId);
-    List<Order> getOrdersForAdmin(OrderStatus status, String sortBy, String sortDir);
+    Page<Order> searchOrdersForAdmin(String query, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                     BigDecimal minAmount, BigDecimal maxAmount, Pageable pageable);
     long getTotalOrdersCount();
     long getOrdersCountByStatus(OrderStatus status);
 
@@ -21,7 +21,7 @@ public interface PaymentService {
     // Razorpay operations
     Map<String, Object> createRazorpayOrder(Long userId, Long orderId, BigDecimal amount);
     PaymentResponse verifyRazorpayPayment(Long orderId, String paymentId, String razorpayOrderId, String signature);
-    void handleRazorpayWebhook(String payload, String signature);
+    void handleRazorpayWebhook(String payload, String signature, String eventId);
 
     // PayPal operations
     Map<String, String> createPayPalOrder(Long userId, Long orderId, BigDecimal amount);
@@ -30,7 +30,7 @@ public interface PaymentService {
     // Payment management
     PaymentDetails getPaymentDetails(Long orderId);
     PaymentResponse refundPayment(Long paymentId, BigDecimal amount, String reason);
-    Map<String, Object> getPaymentHistory(Long userId, int page, int size);
+    Map<String, Object> getPaymentHistory(Long userId, String cursor, int size);
 
     // Payment validation
     boolean validatePayment(Long paymentId);
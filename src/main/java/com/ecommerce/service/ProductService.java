@@ -1,5 +1,9 @@
 package com.ecommerce.service;
 
+import com.ecommerce.controller.ProductController.ProductPage;
+import com.ecommerce.controller.ProductController.StorefrontList;
+import com.ecommerce.controller.admin.AdminProductController.StockAdjustment;
+import com.ecommerce.controller.admin.AdminProductController.StockAdjustmentsResponse;
 import com.ecommerce.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -29,6 +33,15 @@ public interface ProductService {
     List<Product> getBestSellingProducts(int limit);
     List<Product> getRelatedProducts(Long productId, int limit);
 
+    // Storefront lists as cached, pre-serialized JSON
+    byte[] getStorefrontList(StorefrontList list, int limit);
+
+    // Changes whenever a product or category is written (HTTP validators for listings)
+    String getCatalogVersion();
+
+    // Product detail page
+    ProductPage getProductPage(Long productId);
+
     // Product interactions
     void incrementViewCount(Long productId);
     void updateRating(Long productId, double newRating, int reviewCount);
@@ -37,6 +50,14 @@ public interface ProductService {
     List<Product> getLowStockProducts();
     List<Product> getOutOfStockProducts();
     void updateStock(Long productId, int quantity);
+
+    /**
+     * Applies delta or absolute stock adjustments keyed by sku. Adjustments for the same SKU
+     * apply in request order; each SKU gets one result, and one that would go below zero or
+     * is unknown is rejected without affecting the others. SKUs are applied in batches that
+     * commit one by one; the SKUs of a batch that fails are all rejected.
+     */
+    StockAdjustmentsResponse adjustStock(List<StockAdjustment> adjustments);
     boolean isInStock(Long productId, int quantity);
 
     // Product images
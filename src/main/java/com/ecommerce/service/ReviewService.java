@@ -26,6 +26,8 @@ public interface ReviewService {
     // Review statistics
     ReviewStats getReviewStats(Long productId);
     ReviewSummary getReviewSummary(Long productId);
+    ReviewSummary getReviewSummary(Long productId, ReviewStats stats);
+    String getProductReviewsVersion(Long productId);
     double getAverageRating(Long productId);
     int getTotalReviewCount(Long productId);
 
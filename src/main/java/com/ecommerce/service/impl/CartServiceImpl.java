@@ -15,7 +15,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -33,9 +32,8 @@ public class CartServiceImpl implements CartService {
     @Autowired
     private UserRepository userRepository;
 
-    private static final BigDecimal TAX_RATE = new BigDecimal("0.08"); // 8% tax
-    private static final BigDecimal SHIPPING_THRESHOLD = new BigDecimal("50.00");
-    private static final BigDecimal SHIPPING_COST = new BigDecimal("5.99");
+    @Autowired
+    private PricingEngine pricingEngine;
 
     @Override
     public CartItem addToCart(Long userId, Long productId, int quantity) {
@@ -134,26 +132,20 @@ public class CartServiceImpl implements CartService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getCartTotal(Long userId) {
-        List<CartItem> cartItems = getCartItems(userId);
-        BigDecimal subtotal = calculateSubtotal(cartItems);
-        BigDecimal tax = calculateTax(subtotal);
-        BigDecimal shipping = calculateShipping(subtotal);
-
-        return subtotal.add(tax).add(shipping);
+        return pricingEngine.priceCart(getCartItems(userId), null).total();
     }
 
     @Override
     @Transactional(readOnly = true)
-    public CartSummary getCartSummary(Long userId) {
+    public CartSummary getCartSummary(Long userId, String couponCode) {
         List<CartItem> cartItems = getCartItems(userId);
         int totalItems = cartItems.stream().mapToInt(CartItem::getQuantity).sum();
 
-        BigDecimal subtotal = calculateSubtotal(cartItems);
-        BigDecimal tax = calculateTax(subtotal);
-        BigDecimal shipping = calculateShipping(subtotal);
-        BigDecimal total = subtotal.add(tax).add(shipping);
-
-        return new CartSummary(cartItems, totalItems, subtotal, tax, shipping, total);
+        PricingEngine.CartPrice price = pricingEngine.priceCart(cartItems, couponCode);
+        CartSummary summary = new CartSummary(cartItems, totalItems, price.subtotal(), price.tax(), price.shipping(), price.total());
+        summary.setDiscount(price.discount());
+        summary.setCouponCode(price.couponCode());
+        return summary;
     }
 
     @Override
@@ -275,37 +267,18 @@ public class CartServiceImpl implements CartService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getCartSubtotal(Long userId) {
-        List<CartItem> cartItems = getCartItems(userId);
-        return calculateSubtotal(cartItems);
+        return pricingEngine.priceCart(getCartItems(userId), null).subtotal();
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getCartTax(Long userId) {
-        BigDecimal subtotal = getCartSubtotal(userId);
-        return calculateTax(subtotal);
+        return pricingEngine.priceCart(getCartItems(userId), null).tax();
     }
 
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getCartShipping(Long userId) {
-        BigDecimal subtotal = getCartSubtotal(userId);
-        return calculateShipping(subtotal);
-    }
-
-    // Helper methods
-    private BigDecimal calculateSubtotal(List<CartItem> cartItems) {
-        return cartItems.stream()
-                .map(item -> item.getProduct().getPrice().multiply(new BigDecimal(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal calculateTax(BigDecimal subtotal) {
-        return subtotal.multiply(TAX_RATE).setScale(2, RoundingMode.HALF_UP);
-    }
-
-    private BigDecimal calculateShipping(BigDecimal subtotal) {
-        return subtotal.compareTo(SHIPPING_THRESHOLD) >= 0 ?
-                BigDecimal.ZERO : SHIPPING_COST;
+        return pricingEngine.priceCart(getCartItems(userId), null).shipping();
     }
-}
\ No newline at end of file
+}
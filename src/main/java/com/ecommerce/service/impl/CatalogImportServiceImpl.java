@@ -0,0 +1,496 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.controller.admin.AdminProductController.ImportProductsResponse;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.service.CatalogImportService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Catalog feed ingest. The feed is parsed as it is read and upserted in chunks of
+ * catalog.import.chunk-size rows, each one INSERT ... ON CONFLICT (sku) statement over
+ * unnest()ed column arrays in a transaction of its own. The conflict clause only rewrites
+ * rows whose stored content hash differs from the feed row's, so an unchanged feed writes
+ * nothing, and RETURNING names the rows that did change so caches are refreshed once per
+ * chunk for just those. PostgreSQL only (unnest, xmax). Not @Transactional: chunks commit
+ * one by one.
+ */
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_TEXT_LENGTH = 255;
+    // numeric(10,2)
+    private static final BigDecimal MAX_DECIMAL = new BigDecimal("100000000");
+
+    // Feed fields in products column order; the row values, hash and unnest() arrays follow it
+    private static final List<String> FIELDS = List.of("sku", "name", "description", "price", "comparePrice",
+            "costPrice", "stockQuantity", "categoryId", "imageUrl", "active", "featured", "weight", "dimensions",
+            "barcode", "metaTitle", "metaDescription", "searchKeywords");
+    private static final List<String> ARRAY_TYPES = List.of("varchar", "varchar", "varchar", "numeric", "numeric",
+            "numeric", "int4", "int8", "varchar", "bool", "bool", "numeric", "varchar",
+            "varchar", "varchar", "varchar", "varchar", "varchar");
+
+    private static final String UPSERT_SQL = "INSERT INTO products (sku, name, description, price, compare_price, "
+            + "cost_price, stock_quantity, category_id, image_url, active, featured, weight, dimensions, barcode, "
+            + "meta_title, meta_description, search_keywords, content_hash, low_stock_threshold, track_quantity, "
+            + "allow_backorder, avg_rating, review_count, view_count, order_count, created_at, updated_at) "
+            + "SELECT f.*, 5, TRUE, FALSE, 0, 0, 0, 0, CAST(? AS timestamp), CAST(? AS timestamp) "
+            + "FROM unnest(CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS numeric[]), "
+            + "CAST(? AS numeric[]), CAST(? AS numeric[]), CAST(? AS int4[]), CAST(? AS int8[]), "
+            + "CAST(? AS varchar[]), CAST(? AS bool[]), CAST(? AS bool[]), CAST(? AS numeric[]), "
+            + "CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS varchar[]), CAST(? AS varchar[]), "
+            + "CAST(? AS varchar[]), CAST(? AS varchar[])) AS f "
+            + "ON CONFLICT (sku) DO UPDATE SET name = EXCLUDED.name, description = EXCLUDED.description, "
+            + "price = EXCLUDED.price, compare_price = EXCLUDED.compare_price, cost_price = EXCLUDED.cost_price, "
+            + "stock_quantity = EXCLUDED.stock_quantity, category_id = EXCLUDED.category_id, "
+            + "image_url = EXCLUDED.image_url, active = EXCLUDED.active, featured = EXCLUDED.featured, "
+            + "weight = EXCLUDED.weight, dimensions = EXCLUDED.dimensions, barcode = EXCLUDED.barcode, "
+            + "meta_title = EXCLUDED.meta_title, meta_description = EXCLUDED.meta_description, "
+            + "search_keywords = EXCLUDED.search_keywords, content_hash = EXCLUDED.content_hash, "
+            + "updated_at = EXCLUDED.updated_at "
+            + "WHERE products.content_hash IS DISTINCT FROM EXCLUDED.content_hash "
+            + "RETURNING id, xmax = 0 AS inserted, active, stock_quantity, low_stock_threshold, track_quantity";
+
+    @Value("${catalog.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${catalog.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductCacheEvictor productCacheEvictor;
+
+    @Autowired
+    private StockLevelIndex stockLevelIndex;
+
+    @Autowired
+    private StorefrontListCache storefrontListCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void initTransaction() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public ImportProductsResponse importProducts(InputStream feed, String format, boolean gzip) {
+        boolean csv = switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> true;
+            case "json", "ndjson" -> false;
+            default -> throw new BadRequestException("Unsupported import format: " + format);
+        };
+
+        long started = System.nanoTime();
+        ImportProductsResponse report = new ImportProductsResponse();
+        Set<Long> categoryIds = transaction.execute(status -> categoryRepository.findAllIds());
+        MessageDigest digest = sha256();
+        Map<String, FeedRow> chunk = new LinkedHashMap<>();
+
+        try (FeedReader reader = open(feed, csv, gzip)) {
+            Map<String, String> values;
+            while ((values = reader.next()) != null) {
+                long row = report.getRowsRead() + 1;
+                report.setRowsRead(row);
+                FeedRow parsed;
+                try {
+                    parsed = toRow(row, values, categoryIds, digest);
+                } catch (IllegalArgumentException e) {
+                    fail(report, 1, row, values.get("sku"), e.getMessage());
+                    continue;
+                }
+                // ON CONFLICT may touch a row once per statement, so the later row for a SKU wins
+                if (chunk.put(parsed.sku(), parsed) != null) {
+                    report.setDuplicates(report.getDuplicates() + 1);
+                }
+                if (chunk.size() >= chunkSize) {
+                    applyChunk(List.copyOf(chunk.values()), report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            // The rows parsed so far are still applied below
+            fail(report, 0, report.getRowsRead() + 1, null, "Feed could not be read, import stopped: " + e.getMessage());
+        }
+        applyChunk(List.copyOf(chunk.values()), report);
+
+        if (report.getInserted() + report.getUpdated() > 0) {
+            analyze();
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        report.setElapsedMs(elapsedMs);
+        report.setRowsPerSecond(report.getRowsRead() * 1000 / elapsedMs);
+        System.out.println("Catalog import: " + report.getRowsRead() + " rows in " + elapsedMs + " ms ("
+                + report.getRowsPerSecond() + " rows/s), " + report.getInserted() + " inserted, "
+                + report.getUpdated() + " updated, " + report.getUnchanged() + " unchanged, "
+                + report.getFailed() + " failed");
+        return report;
+    }
+
+    private FeedReader open(InputStream feed, boolean csv, boolean gzip) throws IOException {
+        InputStream in = gzip ? new GZIPInputStream(feed, BUFFER_SIZE) : feed;
+        return csv ? new CsvFeedReader(in) : new JsonFeedReader(in);
+    }
+
+    private void applyChunk(List<FeedRow> rows, ImportProductsResponse report) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            List<ChangedRow> changed = transaction.execute(status -> {
+                List<ChangedRow> result = upsert(rows);
+                refreshCaches(result);
+                return result;
+            });
+            long inserted = changed.stream().filter(ChangedRow::inserted).count();
+            report.setInserted(report.getInserted() + inserted);
+            report.setUpdated(report.getUpdated() + changed.size() - inserted);
+            report.setUnchanged(report.getUnchanged() + rows.size() - changed.size());
+            report.setChunks(report.getChunks() + 1);
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            System.err.println("Catalog import chunk failed: " + message);
+            fail(report, rows.size(), rows.get(0).row(), null, "Chunk of " + rows.size() + " rows from row "
+                    + rows.get(0).row() + " to " + rows.get(rows.size() - 1).row() + " was not imported: " + message);
+        }
+    }
+
+    private List<ChangedRow> upsert(List<FeedRow> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.query(UPSERT_SQL, statement -> {
+            statement.setObject(1, now);
+            statement.setObject(2, now);
+            for (int column = 0; column < ARRAY_TYPES.size(); column++) {
+                int index = column;
+                Object[] values = rows.stream()
+                        .map(row -> index < FIELDS.size() ? row.values()[index] : row.contentHash())
+                        .toArray();
+                statement.setArray(column + 3, statement.getConnection().createArrayOf(ARRAY_TYPES.get(column), values));
+            }
+        }, (resultSet, rowNum) -> new ChangedRow(resultSet.getLong("id"), resultSet.getBoolean("inserted"),
+                resultSet.getBoolean("active"), resultSet.getObject("stock_quantity", Integer.class),
+                resultSet.getObject("low_stock_threshold", Integer.class),
+                resultSet.getObject("track_quantity", Boolean.class)));
+    }
+
+    // Once per chunk, for the rows it inserted or changed. Inserted ids go to the evictor too:
+    // the upsert bypasses Hibernate, so new rows would otherwise leave the cached listing and
+    // catalog version queries stale
+    private void refreshCaches(List<ChangedRow> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        productCacheEvictor.evictAfterCommit(changed.stream().map(ChangedRow::id).toList());
+        List<Long> updatedIds = changed.stream().filter(row -> !row.inserted()).map(ChangedRow::id).toList();
+        changed.forEach(row -> stockLevelIndex.update(row.id(), row.stockQuantity(), row.lowStockThreshold(),
+                row.trackQuantity(), row.active()));
+        if (changed.stream().anyMatch(ChangedRow::active)) {
+            storefrontListCache.refreshAll();
+        } else {
+            updatedIds.forEach(storefrontListCache::refreshContaining);
+        }
+    }
+
+    // Fresh planner statistics for the products indexes once the rows are in
+    private void analyze() {
+        try {
+            jdbcTemplate.execute("ANALYZE products");
+        } catch (DataAccessException e) {
+            System.err.println("Failed to analyze products after catalog import: " + e.getMessage());
+        }
+    }
+
+    private void fail(ImportProductsResponse report, int rows, long row, String sku, String message) {
+        report.setFailed(report.getFailed() + rows);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.error(row, sku, message);
+        }
+    }
+
+    // Same rules as the Product constraints, so a bad row is rejected alone instead of failing its chunk
+    private FeedRow toRow(long row, Map<String, String> values, Set<Long> categoryIds, MessageDigest digest) {
+        String sku = text(values, "sku", MAX_TEXT_LENGTH);
+        String name = text(values, "name", 100);
+        BigDecimal price = decimal(values, "price");
+        Integer stockQuantity = integer(values, "stockQuantity");
+        String category = text(values, "categoryId", MAX_TEXT_LENGTH);
+        Long categoryId = category == null ? null : parse("categoryId", category, Long::valueOf);
+        if (sku == null) {
+            throw new IllegalArgumentException("sku is required");
+        }
+        if (name == null || name.length() < 2) {
+            throw new IllegalArgumentException("name must be between 2 and 100 characters");
+        }
+        if (price == null || price.signum() <= 0) {
+            throw new IllegalArgumentException("price must be greater than 0");
+        }
+        if (stockQuantity != null && stockQuantity < 0) {
+            throw new IllegalArgumentException("stockQuantity cannot be negative");
+        }
+        if (categoryId != null && !categoryIds.contains(categoryId)) {
+            throw new IllegalArgumentException("categoryId " + categoryId + " does not exist");
+        }
+
+        Object[] fields = {sku, name, text(values, "description", 2000), price, decimal(values, "comparePrice"),
+                decimal(values, "costPrice"), stockQuantity == null ? 0 : stockQuantity, categoryId,
+                text(values, "imageUrl", MAX_TEXT_LENGTH), bool(values, "active", true),
+                bool(values, "featured", false), decimal(values, "weight"),
+                text(values, "dimensions", MAX_TEXT_LENGTH), text(values, "barcode", MAX_TEXT_LENGTH),
+                text(values, "metaTitle", MAX_TEXT_LENGTH), text(values, "metaDescription", MAX_TEXT_LENGTH),
+                text(values, "searchKeywords", MAX_TEXT_LENGTH)};
+        return new FeedRow(row, sku, fields, hash(fields, digest));
+    }
+
+    private static String text(Map<String, String> values, String field, int maxLength) {
+        String value = values.get(field);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " cannot exceed " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(Map<String, String> values, String field) {
+        String value = text(values, field, MAX_TEXT_LENGTH);
+        if (value == null) {
+            return null;
+        }
+        BigDecimal decimal = parse(field, value, BigDecimal::new);
+        if (decimal.abs().compareTo(MAX_DECIMAL) >= 0) {
+            throw new IllegalArgumentException(field + " is out of range: " + value);
+        }
+        return decimal;
+    }
+
+    private static Integer integer(Map<String, String> values, String field) {
+        String value = text(values, field, MAX_TEXT_LENGTH);
+        return value == null ? null : parse(field, value, Integer::valueOf);
+    }
+
+    private static Boolean bool(Map<String, String> values, String field, boolean defaultValue) {
+        String value = text(values, field, MAX_TEXT_LENGTH);
+        if (value == null) {
+            return defaultValue;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException(field + " is not a boolean: " + value);
+        };
+    }
+
+    private static <T> T parse(String field, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    // Decimals are hashed without trailing zeros, so 9.90 and 9.9 count as the same value
+    private static String hash(Object[] fields, MessageDigest digest) {
+        StringBuilder content = new StringBuilder();
+        for (Object field : fields) {
+            if (field == null) {
+                content.append('\u0000');
+            } else if (field instanceof BigDecimal decimal) {
+                content.append(decimal.stripTrailingZeros().toPlainString());
+            } else {
+                content.append(field);
+            }
+            content.append('\u001f');
+        }
+        return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // values are in FIELDS order, typed for the unnest() arrays
+    private record FeedRow(long row, String sku, Object[] values, String contentHash) {
+    }
+
+    private record ChangedRow(long id, boolean inserted, boolean active, Integer stockQuantity,
+                              Integer lowStockThreshold, Boolean trackQuantity) {
+    }
+
+    private interface FeedReader extends Closeable {
+        // The next row as field name to raw value, or null at the end of the feed
+        Map<String, String> next() throws IOException;
+    }
+
+    // A JSON array of row objects or newline-delimited objects, read one object at a time
+    private final class JsonFeedReader implements FeedReader {
+        private final MappingIterator<Map<String, Object>> rows;
+
+        private JsonFeedReader(InputStream in) throws IOException {
+            this.rows = objectMapper.readerFor(new TypeReference<Map<String, Object>>() { })
+                    .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                    .readValues(in);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (!rows.hasNextValue()) {
+                return null;
+            }
+            Map<String, String> values = new HashMap<>();
+            rows.nextValue().forEach((field, value) -> {
+                if (value instanceof BigDecimal decimal) {
+                    values.put(field, decimal.toPlainString());
+                } else if (value != null) {
+                    values.put(field, value.toString());
+                }
+            });
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+
+    // RFC 4180 CSV with a header row naming the fields; quoted values may span lines
+    private static final class CsvFeedReader implements FeedReader {
+        private final Reader reader;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final List<String> header = new ArrayList<>();
+        private int position;
+        private int limit;
+
+        private CsvFeedReader(InputStream in) throws IOException {
+            this.reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+            List<String> names = readRecord();
+            if (names != null) {
+                for (String name : names) {
+                    header.add(name.replace("\uFEFF", "").trim());
+                }
+            }
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isEmpty());
+
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < Math.min(header.size(), record.size()); i++) {
+                values.put(header.get(i), record.get(i));
+            }
+            return values;
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted CSV value");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                int read = reader.read(buffer, 0, buffer.length);
+                if (read <= 0) {
+                    return -1;
+                }
+                position = 0;
+                limit = read;
+            }
+            return buffer[position++];
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -4,16 +4,19 @@ import com.ecommerce.controller.CategoryController.CategoryHierarchy;
 import com.ecommerce.entity.Category;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.repository.CategoryClosureRepository;
 import com.ecommerce.repository.CategoryRepository;
 import com.ecommerce.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -22,6 +25,12 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryClosureRepository categoryClosureRepository;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
     @Override
     public Category createCategory(Category category) {
         // Generate slug if not provided
@@ -39,7 +48,11 @@ public class CategoryServiceImpl implements CategoryService {
             validateCategoryHierarchy(null, category.getParent().getId());
         }
 
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.saveAndFlush(category);
+        categoryClosureRepository.insertPaths(savedCategory.getId(),
+                savedCategory.getParent() != null ? savedCategory.getParent().getId() : null);
+        categoryTreeCache.invalidate();
+        return savedCategory;
     }
 
     @Override
@@ -65,13 +78,21 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         // Validate parent category change
-        if (category.getParent() != null &&
-                !category.getParent().getId().equals(existingCategory.getParent().getId())) {
+        Long currentParentId = existingCategory.getParent() != null ? existingCategory.getParent().getId() : null;
+        boolean moved = category.getParent() != null &&
+                !category.getParent().getId().equals(currentParentId);
+        if (moved) {
             validateCategoryHierarchy(id, category.getParent().getId());
             existingCategory.setParent(category.getParent());
         }
 
-        return categoryRepository.save(existingCategory);
+        Category savedCategory = categoryRepository.save(existingCategory);
+        if (moved) {
+            categoryClosureRepository.detachSubtree(id);
+            categoryClosureRepository.attachSubtree(id, category.getParent().getId());
+        }
+        categoryTreeCache.invalidate();
+        return savedCategory;
     }
 
     @Override
@@ -95,7 +116,9 @@ public class CategoryServiceImpl implements CategoryService {
             throw new BadRequestException("Cannot delete category with products");
         }
 
+        categoryClosureRepository.deleteByDescendantId(id);
         categoryRepository.delete(category);
+        categoryTreeCache.invalidate();
     }
 
     @Override
@@ -113,42 +136,32 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional(readOnly = true)
     public List<Category> getRootCategories() {
-        return categoryRepository.findByParentIsNullAndActiveTrueOrderByDisplayOrderAscNameAsc();
+        return categoryTreeCache.get().getActiveRoots();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Category> getSubcategories(Long parentId) {
-        return categoryRepository.findByParentIdAndActiveTrueOrderByDisplayOrderAscNameAsc(parentId);
+        return categoryTreeCache.get().getActiveChildren(parentId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Category> getCategoryBySlug(String slug) {
-        return categoryRepository.findBySlugAndActiveTrue(slug);
+        return Optional.ofNullable(categoryTreeCache.get().getBySlug(slug))
+                .filter(Category::getActive);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CategoryHierarchy> getCategoryHierarchy() {
-        List<Category> rootCategories = getRootCategories();
-        return rootCategories.stream()
-                .map(this::buildCategoryHierarchy)
-                .collect(Collectors.toList());
+        return categoryTreeCache.get().getHierarchy();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Category> getCategoryBreadcrumb(Long categoryId) {
-        List<Category> breadcrumb = new ArrayList<>();
-        Category category = categoryRepository.findById(categoryId).orElse(null);
-
-        while (category != null) {
-            breadcrumb.add(0, category); // Add to beginning
-            category = category.getParent();
-        }
-
-        return breadcrumb;
+        return categoryTreeCache.get().getBreadcrumb(categoryId);
     }
 
     @Override
@@ -175,7 +188,9 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
 
         category.setActive(!category.getActive());
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        categoryTreeCache.invalidate();
+        return savedCategory;
     }
 
     @Override
@@ -185,6 +200,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         category.setDisplayOrder(displayOrder);
         categoryRepository.save(category);
+        categoryTreeCache.invalidate();
     }
 
     @Override
@@ -193,6 +209,22 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryRepository.countProductsInCategory(categoryId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Long> getProductCountsByCategory() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : categoryRepository.countActiveProductsPerCategorySubtree()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getCategoriesVersion() {
+        return categoryRepository.findVersionStamp().token();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public long getTotalCategoriesCount() {
@@ -224,29 +256,34 @@ public class CategoryServiceImpl implements CategoryService {
         }
     }
 
+    @Override
+    public void rebuildCategoryClosure() {
+        categoryClosureRepository.deleteAllPaths();
+        categoryClosureRepository.insertAllPaths();
+    }
+
+    // Backfill the closure table for categories created before it existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureCategoryClosure() {
+        if (categoryClosureRepository.countSelfPaths() != categoryRepository.count()) {
+            rebuildCategoryClosure();
+        }
+    }
+
     @Override
     public void validateCategoryHierarchy(Long categoryId, Long parentId) {
         if (categoryId != null && categoryId.equals(parentId)) {
             throw new BadRequestException("Category cannot be its own parent");
         }
 
-        // Check for circular dependency
-        Category parent = categoryRepository.findById(parentId).orElse(null);
-        while (parent != null) {
-            if (categoryId != null && categoryId.equals(parent.getId())) {
+        // Check for circular dependency: the new parent must not sit below the category itself.
+        // Checked against category_closure in the write transaction, after locking the path, so a
+        // concurrent move (on any node) is either visible here or waits for this one.
+        if (categoryId != null) {
+            categoryRepository.lockForMove(categoryId, parentId);
+            if (categoryClosureRepository.existsPath(categoryId, parentId)) {
                 throw new BadRequestException("Circular dependency detected in category hierarchy");
             }
-            parent = parent.getParent();
         }
     }
-
-    // Helper method to build category hierarchy
-    private CategoryHierarchy buildCategoryHierarchy(Category category) {
-        List<CategoryHierarchy> children = category.getSubcategories().stream()
-                .filter(Category::getActive)
-                .map(this::buildCategoryHierarchy)
-                .collect(Collectors.toList());
-
-        return new CategoryHierarchy(category, children);
-    }
 }
\ No newline at end of file
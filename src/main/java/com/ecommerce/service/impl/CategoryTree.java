@@ -0,0 +1,157 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.controller.CategoryController.CategoryHierarchy;
+import com.ecommerce.entity.Category;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, fully materialized snapshot of the category hierarchy.
+ * Built from a single query; every lookup is served from memory.
+ */
+public final class CategoryTree {
+
+    private static final Comparator<Category> DISPLAY_ORDER = Comparator
+            .comparing((Category c) -> c.getDisplayOrder() != null ? c.getDisplayOrder() : 0)
+            .thenComparing(Category::getName, Comparator.nullsLast(String::compareTo));
+
+    private final Map<Long, Category> byId;
+    private final Map<String, Category> bySlug;
+    private final Map<Long, List<Category>> activeChildren;
+    private final List<Category> activeRoots;
+    private final Map<Long, List<Long>> ancestorPaths;
+    private final Map<Long, Set<Long>> subtreeIds;
+    private final List<CategoryHierarchy> hierarchy;
+
+    private CategoryTree(List<Category> categories) {
+        Map<Long, Category> ids = new HashMap<>();
+        Map<String, Category> slugs = new HashMap<>();
+        Map<Long, List<Category>> allChildren = new HashMap<>();
+        Map<Long, List<Category>> children = new HashMap<>();
+        List<Category> roots = new ArrayList<>();
+
+        for (Category category : categories) {
+            ids.put(category.getId(), category);
+            if (category.getSlug() != null) {
+                slugs.put(category.getSlug(), category);
+            }
+        }
+
+        for (Category category : categories) {
+            Long parentId = parentId(category);
+            if (parentId == null || !ids.containsKey(parentId)) {
+                if (Boolean.TRUE.equals(category.getActive())) {
+                    roots.add(category);
+                }
+                continue;
+            }
+            allChildren.computeIfAbsent(parentId, k -> new ArrayList<>()).add(category);
+            if (Boolean.TRUE.equals(category.getActive())) {
+                children.computeIfAbsent(parentId, k -> new ArrayList<>()).add(category);
+            }
+        }
+
+        roots.sort(DISPLAY_ORDER);
+        children.replaceAll((k, v) -> {
+            v.sort(DISPLAY_ORDER);
+            return List.copyOf(v);
+        });
+
+        // Ancestor paths (root first, self last)
+        Map<Long, List<Long>> paths = new HashMap<>();
+        for (Category category : categories) {
+            List<Long> path = new ArrayList<>();
+            Category current = category;
+            Set<Long> seen = new HashSet<>();
+            while (current != null && seen.add(current.getId())) {
+                path.add(0, current.getId());
+                Long parentId = parentId(current);
+                current = parentId != null ? ids.get(parentId) : null;
+            }
+            paths.put(category.getId(), List.copyOf(path));
+        }
+
+        // Subtree id sets (self included), derived from the ancestor paths
+        Map<Long, Set<Long>> subtrees = new HashMap<>();
+        for (Map.Entry<Long, List<Long>> entry : paths.entrySet()) {
+            for (Long ancestorId : entry.getValue()) {
+                subtrees.computeIfAbsent(ancestorId, k -> new HashSet<>()).add(entry.getKey());
+            }
+        }
+        subtrees.replaceAll((k, v) -> Set.copyOf(v));
+
+        this.byId = Map.copyOf(ids);
+        this.bySlug = Map.copyOf(slugs);
+        this.activeChildren = Map.copyOf(children);
+        this.activeRoots = List.copyOf(roots);
+        this.ancestorPaths = Map.copyOf(paths);
+        this.subtreeIds = Map.copyOf(subtrees);
+        this.hierarchy = buildHierarchy(activeRoots, new HashSet<>());
+    }
+
+    public static CategoryTree of(List<Category> categories) {
+        return new CategoryTree(categories);
+    }
+
+    public Category getById(Long id) {
+        return byId.get(id);
+    }
+
+    public Category getBySlug(String slug) {
+        return bySlug.get(slug);
+    }
+
+    public List<Category> getActiveRoots() {
+        return activeRoots;
+    }
+
+    public List<Category> getActiveChildren(Long parentId) {
+        return activeChildren.getOrDefault(parentId, Collections.emptyList());
+    }
+
+    public List<CategoryHierarchy> getHierarchy() {
+        return hierarchy;
+    }
+
+    public List<Long> getAncestorPath(Long categoryId) {
+        return ancestorPaths.getOrDefault(categoryId, Collections.emptyList());
+    }
+
+    public List<Category> getBreadcrumb(Long categoryId) {
+        List<Category> breadcrumb = new ArrayList<>();
+        for (Long id : getAncestorPath(categoryId)) {
+            breadcrumb.add(byId.get(id));
+        }
+        return breadcrumb;
+    }
+
+    public Set<Long> getSubtreeIds(Long categoryId) {
+        return subtreeIds.getOrDefault(categoryId, Collections.emptySet());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    private List<CategoryHierarchy> buildHierarchy(List<Category> nodes, Set<Long> visited) {
+        List<CategoryHierarchy> result = new ArrayList<>();
+        for (Category node : nodes) {
+            if (!visited.add(node.getId())) {
+                continue;
+            }
+            result.add(new CategoryHierarchy(node, buildHierarchy(getActiveChildren(node.getId()), visited)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static Long parentId(Category category) {
+        return category.getParent() != null ? category.getParent().getId() : null;
+    }
+}
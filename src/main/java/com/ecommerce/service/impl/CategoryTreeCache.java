@@ -0,0 +1,101 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link CategoryTree} snapshot. The snapshot is loaded lazily with a
+ * single query and dropped after any category write on this node commits. Writes made on
+ * other nodes are picked up by revalidating: once the snapshot is older than
+ * category.tree-cache.check-ms, the next read compares the categories table's row count and
+ * latest updated_at with those the snapshot was built from and reloads it if they moved.
+ */
+@Component
+public class CategoryTreeCache {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${category.tree-cache.check-ms:5000}")
+    private long checkMs;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public CategoryTree get() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.checkedAt() < checkMs) {
+            return current.tree();
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && System.currentTimeMillis() - current.checkedAt() < checkMs) {
+                return current.tree();
+            }
+            long loadedGeneration = generation.get();
+            Snapshot loaded = load(current);
+            // Only publish if no write was committed while we were loading
+            if (generation.get() == loadedGeneration) {
+                snapshot = loaded;
+            }
+            return loaded.tree();
+        }
+    }
+
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        } else {
+            evict();
+        }
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    // Loaded through a short-lived EntityManager so the snapshot holds detached,
+    // fully initialized entities that are safe to share between requests. The version is
+    // read first: a write landing between the two reads leaves the snapshot with an older
+    // version than its content, so it is only reloaded once more, never kept stale.
+    // The version query bypasses the query cache, which only sees this node's writes.
+    private Snapshot load(Snapshot current) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Object[] stamp = entityManager.createQuery(
+                            "SELECT COUNT(c), MAX(c.updatedAt) FROM Category c", Object[].class)
+                    .getSingleResult();
+            String version = stamp[0] + "@" + stamp[1];
+            long now = System.currentTimeMillis();
+            if (current != null && current.version().equals(version)) {
+                return new Snapshot(current.tree(), version, now);
+            }
+
+            List<Category> categories = entityManager.createQuery(
+                            "SELECT c FROM Category c LEFT JOIN FETCH c.parent", Category.class)
+                    .getResultList();
+            return new Snapshot(CategoryTree.of(categories), version, now);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private record Snapshot(CategoryTree tree, String version, long checkedAt) {
+    }
+}
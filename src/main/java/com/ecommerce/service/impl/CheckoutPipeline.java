@@ -0,0 +1,224 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.CartItem;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.CouponRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductStockRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Cart-to-order conversion in fixed stages, each timed as checkout.stage: load (one locking
+ * read of the cart lines and their products), validate, price (redeeming the coupon, if any),
+ * reserve stock and persist. Runs in the caller's transaction, so the product rows stay
+ * locked until the order commits.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class CheckoutPipeline {
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private ProductCacheEvictor productCacheEvictor;
+
+    @Autowired
+    private StockLevelIndex stockLevelIndex;
+
+    @Autowired
+    private OrderEventLog orderEventLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+    public Order checkout(User user, String couponCode) {
+        List<CartItem> lines = stage("load", () -> cartItemRepository.findCheckoutLinesForUpdate(user.getId()));
+        if (lines.isEmpty()) {
+            throw new BadRequestException("Cart is empty");
+        }
+
+        stage("validate", () -> {
+            List<String> errors = validate(lines);
+            if (!errors.isEmpty()) {
+                throw new BadRequestException(String.join("; ", errors));
+            }
+            return null;
+        });
+        PricingEngine.CartPrice price = stage("price", () -> {
+            PricingEngine.CartPrice cartPrice = pricingEngine.priceCart(lines, couponCode);
+            if (cartPrice.couponId() != null && couponRepository.redeem(cartPrice.couponId()) == 0) {
+                throw new BadRequestException("Coupon " + cartPrice.couponCode() + " has reached its usage limit");
+            }
+            return cartPrice;
+        });
+        int[] reserved = stage("reserve", () -> reserve(lines));
+        return stage("persist", () -> persist(user, lines, price, reserved));
+    }
+
+    // Also backs OrderService.validateOrderItems, on lines read without locks
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<String> validate(List<CartItem> lines) {
+        List<String> errors = new ArrayList<>();
+        for (CartItem line : lines) {
+            Product product = line.getProduct();
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                errors.add("Product " + product.getName() + " is no longer available");
+            } else if (tracksStock(product) && !Boolean.TRUE.equals(product.getAllowBackorder())
+                    && product.getStockQuantity() < line.getQuantity()) {
+                errors.add("Insufficient stock for " + product.getName());
+            }
+        }
+        return errors;
+    }
+
+    // Decrements the locked products as one JDBC batch: Product is @DynamicUpdate, and Hibernate
+    // never batches dynamic updates, so dirty entities would cost a round trip per line. The
+    // managed products keep the stock they were read with. Returns the quantity actually taken
+    // per line, which is what a cancellation puts back.
+    private int[] reserve(List<CartItem> lines) {
+        int[] reserved = new int[lines.size()];
+        Map<Long, Integer> remaining = new TreeMap<>();
+        Map<Long, Product> products = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            Product product = lines.get(i).getProduct();
+            if (tracksStock(product)) {
+                int stock = remaining.getOrDefault(product.getId(), product.getStockQuantity());
+                // Backordered quantities don't take stock below zero
+                reserved[i] = Math.min(lines.get(i).getQuantity(), Math.max(0, stock));
+                remaining.put(product.getId(), stock - reserved[i]);
+                products.put(product.getId(), product);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return reserved;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> updates = new ArrayList<>();
+        remaining.forEach((productId, stock) -> updates.add(new Object[]{stock, now, productId}));
+        jdbcTemplate.batchUpdate("UPDATE products SET stock_quantity = ?, updated_at = ? WHERE id = ?", updates);
+
+        productCacheEvictor.evictAfterCommit(remaining.keySet());
+        remaining.forEach((productId, stock) -> {
+            Product product = products.get(productId);
+            stockLevelIndex.update(productId, stock, product.getLowStockThreshold(), product.getTrackQuantity(),
+                    product.getActive());
+        });
+        return reserved;
+    }
+
+    // Puts the stock reserved by a cancelled order back
+    public void release(Order order) {
+        release(List.of(order.getId()));
+    }
+
+    // Puts the stock reserved by cancelled orders back. The reservations are claimed under row
+    // locks and cleared, so releasing an order twice puts nothing back the second time; the
+    // per-product sums then go out as one batched increment. Locks are taken orders first, then
+    // their items, then products, as bulk status updates do.
+    public void release(Collection<Long> orderIds) {
+        orderRepository.findStatusRowsForUpdate(orderIds);
+        List<Long> itemIds = orderRepository.lockReservedItemIds(orderIds);
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (Object[] row : orderRepository.sumReservedQuantitiesByProduct(itemIds)) {
+            quantities.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        orderRepository.clearReservations(itemIds);
+        returnStock(quantities);
+    }
+
+    private Order persist(User user, List<CartItem> lines, PricingEngine.CartPrice price, int[] reserved) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderDate(LocalDateTime.now());
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(price.total());
+        order.setDiscountAmount(price.discount());
+        order.setCouponCode(price.couponCode());
+        for (int i = 0; i < lines.size(); i++) {
+            CartItem line = lines.get(i);
+            OrderItem item = new OrderItem(order, line.getProduct(), line.getQuantity(), line.getProduct().getPrice());
+            item.setReservedQuantity(reserved[i]);
+            order.getOrderItems().add(item);
+        }
+
+        Order savedOrder = orderRepository.save(order);
+        orderEventLog.orderPlaced(savedOrder);
+        cartItemRepository.deleteByUserId(user.getId());
+        return savedOrder;
+    }
+
+    // Adds the quantities to the stored stock in one batch, in product id order like checkout's
+    // locks, so the write is atomic against concurrent checkouts and adjustments. The products
+    // were written past Hibernate, so their cached copies are evicted and their stock levels re-read.
+    private void returnStock(Map<Long, Integer> quantities) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> updates = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> updates.add(new Object[]{quantity, now, productId}));
+        jdbcTemplate.batchUpdate("UPDATE products SET stock_quantity = COALESCE(stock_quantity, 0) + ?, "
+                + "updated_at = ? WHERE id = ?", updates);
+
+        productCacheEvictor.evictAfterCommit(quantities.keySet());
+        for (ProductStockRow row : productRepository.findStockRowsByIdIn(quantities.keySet())) {
+            stockLevelIndex.update(row.getId(), row.getStockQuantity(), row.getLowStockThreshold(),
+                    row.getTrackQuantity(), row.getActive());
+        }
+    }
+
+    private boolean tracksStock(Product product) {
+        return Boolean.TRUE.equals(product.getTrackQuantity());
+    }
+
+    private <T> T stage(String name, Supplier<T> work) {
+        return stageTimers.computeIfAbsent(name, stage -> Timer.builder("checkout.stage")
+                        .tag("stage", stage)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(work);
+    }
+}
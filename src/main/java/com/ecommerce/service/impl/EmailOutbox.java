@@ -0,0 +1,37 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.OutboxMessage;
+import com.ecommerce.repository.OutboxMessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Queues an email as part of the caller's transaction: it is sent only if that
+ * transaction commits, and never holds the transaction open for an SMTP round trip.
+ */
+@Component
+public class EmailOutbox {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String eventType, Long aggregateId, String recipient, String subject, String body) {
+        enqueue(new OutboxMessage(eventType, aggregateId, recipient, subject, body));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OutboxMessage message) {
+        outboxMessageRepository.save(message);
+    }
+
+    // Inserted as one JDBC batch
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<OutboxMessage> messages) {
+        outboxMessageRepository.saveAll(messages);
+    }
+}
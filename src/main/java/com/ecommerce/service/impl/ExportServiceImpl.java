@@ -0,0 +1,255 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.entity.enums.Role;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.ExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports run after the controller has returned, on the async request thread: each one opens
+ * a read-only transaction there, streams scalar rows from the repository (fetch size 1000)
+ * and writes them straight to the response. Nothing is collected, and no entities are
+ * loaded, so the heap stays flat however many rows are exported.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_NDJSON = new MediaType("application", "x-ndjson");
+    private static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+
+    // In the select order of the streamForExport queries
+    private static final List<String> ORDER_COLUMNS = List.of("id", "orderDate", "status", "totalAmount",
+            "discountAmount", "couponCode", "trackingNumber", "userId", "customerEmail");
+    private static final List<String> USER_COLUMNS = List.of("id", "email", "firstName", "lastName", "phone",
+            "role", "active", "emailVerified", "createdAt", "lastLogin");
+    private static final List<String> PRODUCT_COLUMNS = List.of("id", "sku", "name", "category", "price",
+            "stockQuantity", "active", "featured", "createdAt", "updatedAt");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void initTransaction() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportOrders(OrderStatus status, String format, boolean gzip) {
+        return export("orders", format, gzip, ORDER_COLUMNS, () -> orderRepository.streamForExport(status));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportUsers(String role, String format, boolean gzip) {
+        Role parsedRole = parseRole(role);
+        return export("users", format, gzip, USER_COLUMNS, () -> userRepository.streamForExport(parsedRole));
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportProducts(Boolean active, String format, boolean gzip) {
+        return export("products", format, gzip, PRODUCT_COLUMNS, () -> productRepository.streamForExport(active));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, String format, boolean gzip,
+                                                         List<String> columns, Supplier<Stream<Object[]>> rows) {
+        boolean csv = switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> true;
+            case "ndjson" -> false;
+            default -> throw new BadRequestException("Unsupported export format: " + format);
+        };
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+            try {
+                transaction.executeWithoutResult(status -> {
+                    try (Stream<Object[]> stream = rows.get();
+                         RowWriter writer = csv ? new CsvRowWriter(target, columns)
+                                 : new NdjsonRowWriter(target, columns)) {
+                        writer.writeHeader();
+                        for (Object[] row : (Iterable<Object[]>) stream::iterator) {
+                            writer.writeRow(row);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (target instanceof GZIPOutputStream gzipStream) {
+                    gzipStream.finish();
+                }
+            } catch (RuntimeException e) {
+                // The response is already committed; the client sees a truncated download
+                System.err.println("Export of " + name + " failed: " + e.getMessage());
+                throw e;
+            }
+        };
+
+        String filename = name + "-" + LocalDate.now() + (csv ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(gzip ? APPLICATION_GZIP : csv ? TEXT_CSV : APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private Role parseRole(String role) {
+        if (role == null || role.isBlank()) {
+            return null;
+        }
+        String name = role.trim().toUpperCase(Locale.ROOT);
+        try {
+            return Role.valueOf(name.startsWith("ROLE_") ? name : "ROLE_" + name);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown role: " + role);
+        }
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void writeHeader() throws IOException;
+
+        void writeRow(Object[] row) throws IOException;
+
+        // Flushes but leaves the response stream open
+        @Override
+        void close() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final List<String> columns;
+
+        private CsvRowWriter(OutputStream out, List<String> columns) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.columns = columns;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writeRow(columns.toArray());
+        }
+
+        @Override
+        public void writeRow(Object[] row) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCell(row[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeCell(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            // Keep spreadsheets from evaluating user-supplied text as a formula
+            if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<String> columns;
+
+        private NdjsonRowWriter(OutputStream out, List<String> columns) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null);
+            this.columns = columns;
+        }
+
+        @Override
+        public void writeHeader() {
+            // Every line names its fields
+        }
+
+        @Override
+        public void writeRow(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < row.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                Object value = row[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Long || value instanceof Integer) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -4,10 +4,18 @@ import com.ecommerce.controller.FileController.FileInfo;
 import com.ecommerce.controller.FileController.FileUploadResponse;
 import com.ecommerce.controller.FileController.FileValidationResponse;
 import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
 import com.ecommerce.service.FileService;
+import com.ecommerce.util.IoBudget;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -17,12 +25,19 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Service
 public class FileServiceImpl implements FileService {
@@ -33,9 +48,57 @@ public class FileServiceImpl implements FileService {
     @Value("${file.max.size:10485760}") // 10MB default
     private long maxFileSize;
 
+    @Value("${file.cleanup.enabled:true}")
+    private boolean cleanupEnabled;
+
+    @Value("${file.cleanup.temp-expiry-hours:24}")
+    private long tempExpiryHours;
+
+    @Value("${file.cleanup.resized-expiry-hours:720}")
+    private long resizedExpiryHours;
+
+    @Value("${file.cleanup.compressed-expiry-hours:720}")
+    private long compressedExpiryHours;
+
+    @Value("${file.cleanup.orphan-grace-hours:48}")
+    private long orphanGraceHours;
+
+    @Value("${file.cleanup.max-files-per-run:10000}")
+    private long maxFilesPerRun;
+
+    @Value("${file.cleanup.io.deletes-per-second:50}")
+    private long deletesPerSecond;
+
+    @Value("${file.cleanup.io.bytes-per-second:20971520}") // 20MB/s default
+    private long bytesPerSecond;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final String[] ORPHAN_SCAN_CATEGORIES = {"products", "categories", "avatars"};
+
+    private IoBudget ioBudget;
+    private final AtomicLong totalReclaimedFiles = new AtomicLong();
+    private final AtomicLong totalReclaimedBytes = new AtomicLong();
+    private volatile Map<String, Object> lastMaintenance;
+
     private final String[] allowedImageTypes = {"image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"};
     private final String[] allowedDocumentTypes = {"application/pdf", "text/plain", "application/msword"};
 
+    @PostConstruct
+    public void initIoBudget() {
+        ioBudget = new IoBudget(deletesPerSecond, bytesPerSecond);
+    }
+
     @Override
     public String uploadFile(MultipartFile file, String category) {
         validateFile(file);
@@ -239,6 +302,11 @@ public class FileServiceImpl implements FileService {
             info.put("totalFiles", totalFiles);
             info.put("uploadDirectory", uploadDir);
             info.put("maxFileSize", maxFileSize);
+            info.put("reclaimedFiles", totalReclaimedFiles.get());
+            info.put("reclaimedBytes", totalReclaimedBytes.get());
+            if (lastMaintenance != null) {
+                info.put("lastMaintenance", lastMaintenance);
+            }
 
         } catch (IOException e) {
             info.put("error", "Failed to calculate storage info");
@@ -356,34 +424,172 @@ public class FileServiceImpl implements FileService {
 
     @Override
     public void cleanupTempFiles() {
-        // Implementation for cleaning up temporary files
-        try {
-            Path tempPath = Paths.get(uploadDir, "temp");
-            if (Files.exists(tempPath)) {
-                Files.walk(tempPath)
-                        .filter(Files::isRegularFile)
-                        .forEach(path -> {
-                            try {
-                                Files.deleteIfExists(path);
-                            } catch (IOException e) {
-                                System.err.println("Failed to delete temp file: " + e.getMessage());
-                            }
-                        });
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to cleanup temp files: " + e.getMessage());
-        }
+        cleanupTempFiles(loadReferencedFiles());
     }
 
     @Override
     public void deleteExpiredFiles() {
-        // Implementation for deleting expired files
-        // This would typically check file creation dates and delete old files
+        deleteExpiredFiles(loadReferencedFiles());
     }
 
     @Override
     public void optimizeStorage() {
-        // Implementation for storage optimization
-        // This could include compression, deduplication, etc.
+        optimizeStorage(loadReferencedFiles());
+    }
+
+    @Scheduled(cron = "${file.cleanup.cron:0 30 3 * * *}")
+    public void runStorageMaintenance() {
+        if (!cleanupEnabled) {
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        long filesBefore = totalReclaimedFiles.get();
+        long bytesBefore = totalReclaimedBytes.get();
+
+        try {
+            Set<String> referenced = loadReferencedFiles();
+            cleanupTempFiles(referenced);
+            deleteExpiredFiles(referenced);
+            optimizeStorage(referenced);
+        } catch (Exception e) {
+            System.err.println("Storage maintenance failed: " + e.getMessage());
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("finishedAt", LocalDateTime.now().toString());
+        summary.put("durationMs", System.currentTimeMillis() - startedAt);
+        summary.put("reclaimedFiles", totalReclaimedFiles.get() - filesBefore);
+        summary.put("reclaimedBytes", totalReclaimedBytes.get() - bytesBefore);
+        lastMaintenance = summary;
+    }
+
+    // Helper methods for storage maintenance
+    private void cleanupTempFiles(Set<String> referenced) {
+        runSweep("temp", tempExpiryHours, referenced);
+    }
+
+    private void deleteExpiredFiles(Set<String> referenced) {
+        runSweep("resized", resizedExpiryHours, referenced);
+        runSweep("compressed", compressedExpiryHours, referenced);
+    }
+
+    private void optimizeStorage(Set<String> referenced) {
+        for (String category : ORPHAN_SCAN_CATEGORIES) {
+            sweepOrphans(category, referenced);
+        }
+    }
+
+    // Expiry is by age, but a file that a product, category or user still points to is kept
+    private void runSweep(String category, long expiryHours, Set<String> referenced) {
+        Path categoryPath = Paths.get(uploadDir, category);
+        if (!Files.isDirectory(categoryPath)) {
+            return;
+        }
+
+        Instant cutoff = Instant.now().minus(Duration.ofHours(expiryHours));
+        List<Path> expired = collectFiles(categoryPath, cutoff, path -> !isReferenced(path, referenced));
+        deleteWithinBudget(expired, category, "expired");
+    }
+
+    private void sweepOrphans(String category, Set<String> referenced) {
+        Path categoryPath = Paths.get(uploadDir, category);
+        if (!Files.isDirectory(categoryPath)) {
+            return;
+        }
+
+        // Grace period so freshly uploaded files are not removed before they are attached to an entity
+        Instant cutoff = Instant.now().minus(Duration.ofHours(orphanGraceHours));
+        List<Path> orphans = collectFiles(categoryPath, cutoff, path -> !isReferenced(path, referenced));
+        deleteWithinBudget(orphans, category, "orphan");
+    }
+
+    private boolean isReferenced(Path path, Set<String> referenced) {
+        return referenced.contains(Paths.get(uploadDir).relativize(path).toString().replace('\\', '/'));
+    }
+
+    private List<Path> collectFiles(Path directory, Instant cutoff, Predicate<Path> filter) {
+        List<Path> matches = new ArrayList<>();
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.filter(Files::isRegularFile)
+                    .filter(path -> isOlderThan(path, cutoff))
+                    .filter(filter)
+                    .limit(maxFilesPerRun)
+                    .forEach(matches::add);
+        } catch (IOException e) {
+            System.err.println("Failed to scan " + directory + ": " + e.getMessage());
+        }
+
+        return matches;
+    }
+
+    private void deleteWithinBudget(List<Path> files, String category, String reason) {
+        long reclaimedFiles = 0;
+        long reclaimedBytes = 0;
+
+        for (Path path : files) {
+            long size;
+            try {
+                size = Files.size(path);
+            } catch (IOException e) {
+                continue;
+            }
+
+            if (!ioBudget.acquire(size)) {
+                break; // interrupted (e.g. shutdown)
+            }
+
+            try {
+                if (Files.deleteIfExists(path)) {
+                    reclaimedFiles++;
+                    reclaimedBytes += size;
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to delete " + path + ": " + e.getMessage());
+            }
+        }
+
+        if (reclaimedFiles > 0) {
+            meterRegistry.counter("storage.reclaimed.files", "category", category, "reason", reason)
+                    .increment(reclaimedFiles);
+            meterRegistry.counter("storage.reclaimed.bytes", "category", category, "reason", reason)
+                    .increment(reclaimedBytes);
+            totalReclaimedFiles.addAndGet(reclaimedFiles);
+            totalReclaimedBytes.addAndGet(reclaimedBytes);
+        }
+    }
+
+    private boolean isOlderThan(Path path, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Set<String> loadReferencedFiles() {
+        Set<String> referenced = new HashSet<>();
+        productRepository.findAllMainImageUrls().forEach(url -> addReference(referenced, url));
+        productRepository.findAllGalleryImageUrls().forEach(url -> addReference(referenced, url));
+        categoryRepository.findAllImageUrls().forEach(url -> addReference(referenced, url));
+        userRepository.findAllAvatarUrls().forEach(url -> addReference(referenced, url));
+        return referenced;
+    }
+
+    // Stored URLs look like "/products/5/name_20240101_120000.jpg", optionally absolute or
+    // prefixed with the file controller path; reduce them to the path relative to uploadDir
+    private void addReference(Set<String> referenced, String url) {
+        if (url == null || url.isBlank()) {
+            return;
+        }
+
+        String path = url.replaceFirst("^[a-zA-Z][a-zA-Z0-9+.-]*://[^/]+", "")
+                .replaceFirst("^/api/files/(view|download)/", "/");
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        referenced.add(path.startsWith("/") ? path.substring(1) : path);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.IdempotencyRecord;
+import com.ecommerce.entity.enums.IdempotencyStatus;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.exception.IdempotencyConflictException;
+import com.ecommerce.repository.IdempotencyRecordRepository;
+import com.ecommerce.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency keys backed by the idempotency_keys table. Completed responses are also kept
+ * in memory, and requests on this node that share a key wait on the running one instead of
+ * polling the table. Not @Transactional: the key is claimed and completed in transactions of
+ * its own so the action commits (or fails) on its own in between.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.poll-ms:100}")
+    private long pollMs;
+
+    @Value("${idempotency.stale-after-seconds:60}")
+    private long staleAfterSeconds;
+
+    @Value("${idempotency.response-cache.max-entries:10000}")
+    private int responseCacheMaxEntries;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private final ConcurrentMap<String, StoredResponse> responses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initTransaction() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public <T> ResponseEntity<T> execute(Long userId, String scope, String key, Object request,
+                                         Class<T> responseType, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException(IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = userId + ":" + scope + ":" + key;
+        String requestHash = hash(request);
+
+        StoredResponse cached = responses.get(cacheKey);
+        if (cached != null && !cached.isExpired()) {
+            return replay(cached, requestHash, responseType);
+        }
+
+        CompletableFuture<StoredResponse> own = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, own);
+        if (running != null) {
+            return replay(await(running), requestHash, responseType);
+        }
+
+        try {
+            long deadline = System.currentTimeMillis() + waitTimeoutMs;
+            while (true) {
+                Claim claim = transaction.execute(status -> claim(userId, scope, key, requestHash));
+                if (claim.ownedId() != null) {
+                    return run(claim.ownedId(), cacheKey, requestHash, action, own);
+                }
+                if (claim.completed() != null) {
+                    own.complete(claim.completed());
+                    return replay(claim.completed(), requestHash, responseType);
+                }
+                // Running on another node: poll until it completes, is released or goes stale
+                if (System.currentTimeMillis() >= deadline) {
+                    throw new IdempotencyConflictException("A request with this " + IDEMPOTENCY_KEY_HEADER
+                            + " is still being processed");
+                }
+                sleep(pollMs);
+            }
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, own);
+        }
+    }
+
+    @Scheduled(cron = "${idempotency.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        responses.values().removeIf(StoredResponse::isExpired);
+        transaction.executeWithoutResult(status -> idempotencyRecordRepository.deleteExpiredBefore(LocalDateTime.now()));
+    }
+
+    private Claim claim(Long userId, String scope, String key, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyRecordRepository.insertIfAbsent(userId, scope, key, requestHash, now,
+                now.plusHours(retentionHours)) == 1) {
+            return new Claim(idempotencyRecordRepository.findByKey(userId, scope, key).orElseThrow().getId(), null);
+        }
+
+        IdempotencyRecord record = idempotencyRecordRepository.findByKey(userId, scope, key).orElse(null);
+        if (record == null) {
+            // Released by a failed first request between our insert and read
+            return new Claim(null, null);
+        }
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new BadRequestException(IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+        }
+        if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+            return new Claim(null, new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                    record.getResponseBody(), record.getExpiresAt()));
+        }
+        // The first request's node died mid-request: take the key over once its lock is stale
+        if (record.getLockedAt().isBefore(now.minusSeconds(staleAfterSeconds))
+                && idempotencyRecordRepository.reclaim(record.getId(), record.getLockedAt(), now) == 1) {
+            return new Claim(record.getId(), null);
+        }
+        return new Claim(null, null);
+    }
+
+    private <T> ResponseEntity<T> run(Long recordId, String cacheKey, String requestHash,
+                                      Supplier<ResponseEntity<T>> action, CompletableFuture<StoredResponse> own) {
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Nothing was committed for this key: let the client retry it
+            transaction.executeWithoutResult(status -> idempotencyRecordRepository.release(recordId));
+            throw e;
+        }
+
+        StoredResponse stored;
+        try {
+            stored = new StoredResponse(requestHash, response.getStatusCode().value(),
+                    objectMapper.writeValueAsString(response.getBody()), LocalDateTime.now().plusHours(retentionHours));
+            transaction.executeWithoutResult(status -> idempotencyRecordRepository.markCompleted(recordId,
+                    stored.status(), stored.body(), LocalDateTime.now()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            System.err.println("Failed to store idempotent response for record " + recordId + ": " + e.getMessage());
+            own.completeExceptionally(new IdempotencyConflictException("The first request with this "
+                    + IDEMPOTENCY_KEY_HEADER + " completed but its response could not be stored"));
+            return response;
+        }
+
+        if (responses.size() < responseCacheMaxEntries) {
+            responses.put(cacheKey, stored);
+        }
+        own.complete(stored);
+        return response;
+    }
+
+    private <T> ResponseEntity<T> replay(StoredResponse stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new BadRequestException(IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+        }
+        try {
+            return ResponseEntity.status(stored.status())
+                    .header("Idempotent-Replayed", "true")
+                    .body(objectMapper.readValue(stored.body(), responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this " + IDEMPOTENCY_KEY_HEADER
+                    + " is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the request with this "
+                    + IDEMPOTENCY_KEY_HEADER);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the request with this "
+                    + IDEMPOTENCY_KEY_HEADER);
+        }
+    }
+
+    // Exactly one of ownedId (this request runs the action) and completed (replay it) is set, or neither (wait)
+    private record Claim(Long ownedId, StoredResponse completed) {
+    }
+
+    private record StoredResponse(String requestHash, int status, String body, LocalDateTime expiresAt) {
+        private boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderEvent;
+import com.ecommerce.entity.enums.OrderEventType;
+import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.repository.OrderEventRepository;
+import com.ecommerce.repository.OrderStatusRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * The single entry point for order changes: appends them to order_events and feeds the
+ * projections built from them (currently OrderReadModel), all in the caller's transaction.
+ * Events are flushed with the order, as one insert batch.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderEventLog {
+
+    // Actor of changes made outside a request, e.g. by webhook processing
+    private static final String SYSTEM_ACTOR = "system";
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private OrderReadModel orderReadModel;
+
+    public void orderPlaced(Order order) {
+        orderEventRepository.save(new OrderEvent(order.getId(), order.getUser().getId(), OrderEventType.PLACED,
+                null, order.getStatus(), null, order.getTotalAmount(), actor()));
+        orderReadModel.orderCreated(order);
+    }
+
+    // Call after the status (and tracking number) on the order have been changed
+    public void statusChanged(Order order, OrderStatus previous) {
+        orderEventRepository.save(new OrderEvent(order.getId(), order.getUser().getId(), OrderEventType.STATUS_CHANGED,
+                previous, order.getStatus(), order.getTrackingNumber(), order.getTotalAmount(), actor()));
+        orderReadModel.statusChanged(order, previous);
+    }
+
+    public void statusesChanged(List<OrderStatusRow> rows, OrderStatus status) {
+        String actor = actor();
+        orderEventRepository.saveAll(rows.stream()
+                .map(row -> new OrderEvent(row.getId(), row.getUserId(), OrderEventType.STATUS_CHANGED,
+                        row.getStatus(), status, null, row.getTotalAmount(), actor))
+                .toList());
+        orderReadModel.statusesChanged(rows, status);
+    }
+
+    private String actor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? SYSTEM_ACTOR : authentication.getName();
+    }
+}
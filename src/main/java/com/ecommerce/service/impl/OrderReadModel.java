@@ -0,0 +1,125 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.OrderSummaryView;
+import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.repository.OrderStatusRow;
+import com.ecommerce.repository.OrderSummaryViewRepository;
+import com.ecommerce.repository.UserOrderStatsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps order_summary_view and user_order_stats in step with the orders table. Fed by
+ * OrderEventLog in the transaction of each order write, so the read model commits with the order.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class OrderReadModel {
+
+    @Autowired
+    private OrderSummaryViewRepository orderSummaryViewRepository;
+
+    @Autowired
+    private UserOrderStatsRepository userOrderStatsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Runs before the web server takes requests. The user backfill skips users that already
+    // have a stats row, so it must finish before orderCreated can create one for a user
+    // whose earlier orders are not counted yet. The transaction is programmatic, since
+    // @PostConstruct runs on the bean rather than its transactional proxy.
+    @PostConstruct
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void backfill() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int orders = orderSummaryViewRepository.backfill();
+            int users = userOrderStatsRepository.backfill();
+            if (orders > 0 || users > 0) {
+                System.out.println("Backfilled order read model: " + orders + " orders, " + users + " users");
+            }
+        });
+    }
+
+    public void orderCreated(Order order) {
+        OrderSummaryView view = new OrderSummaryView();
+        view.setOrderId(order.getId());
+        view.setUserId(order.getUser().getId());
+        view.setOrderDate(order.getOrderDate());
+        view.setStatus(order.getStatus());
+        view.setTotalAmount(order.getTotalAmount());
+        view.setLineCount(order.getOrderItems().size());
+        view.setItemCount(order.getOrderItems().stream().mapToInt(OrderItem::getQuantity).sum());
+        if (!order.getOrderItems().isEmpty()) {
+            OrderItem first = order.getOrderItems().get(0);
+            view.setFirstItemName(first.getProduct().getName());
+            view.setFirstItemImageUrl(first.getProduct().getImageUrl());
+        }
+        // The id is assigned, so save() would merge and select first
+        entityManager.persist(view);
+
+        Long userId = order.getUser().getId();
+        userOrderStatsRepository.ensureExists(userId);
+        applyStatusChange(order, null, order.getStatus(), 1);
+    }
+
+    // Call after the status (and tracking number) on the order have been changed
+    public void statusChanged(Order order, OrderStatus previous) {
+        orderSummaryViewRepository.updateStatus(order.getId(), order.getStatus(), order.getTrackingNumber());
+        if (previous != order.getStatus()) {
+            applyStatusChange(order, previous, order.getStatus(), 0);
+        }
+    }
+
+    // Bulk form of statusChanged, for orders moved to status by one update per source status
+    public void statusesChanged(List<OrderStatusRow> rows, OrderStatus status) {
+        orderSummaryViewRepository.updateStatuses(rows.stream().map(OrderStatusRow::getId).toList(), status);
+
+        Map<Long, StatsDelta> deltas = new HashMap<>();
+        for (OrderStatusRow row : rows) {
+            BigDecimal amount = row.getTotalAmount() == null ? BigDecimal.ZERO : row.getTotalAmount();
+            long deliveredDelta = delta(row.getStatus(), status, OrderStatus.DELIVERED);
+            deltas.merge(row.getUserId(), new StatsDelta(delta(row.getStatus(), status, OrderStatus.PENDING),
+                    deliveredDelta, delta(row.getStatus(), status, OrderStatus.CANCELLED),
+                    amount.multiply(BigDecimal.valueOf(deliveredDelta))), StatsDelta::plus);
+        }
+        deltas.forEach((userId, delta) -> userOrderStatsRepository.applyChange(userId, 0, delta.pending(),
+                delta.delivered(), delta.cancelled(), delta.deliveredAmount()));
+    }
+
+    private void applyStatusChange(Order order, OrderStatus from, OrderStatus to, long totalDelta) {
+        long deliveredDelta = delta(from, to, OrderStatus.DELIVERED);
+        BigDecimal amount = order.getTotalAmount() == null ? BigDecimal.ZERO : order.getTotalAmount();
+        userOrderStatsRepository.applyChange(order.getUser().getId(), totalDelta,
+                delta(from, to, OrderStatus.PENDING), deliveredDelta, delta(from, to, OrderStatus.CANCELLED),
+                amount.multiply(BigDecimal.valueOf(deliveredDelta)));
+    }
+
+    private static long delta(OrderStatus from, OrderStatus to, OrderStatus counted) {
+        return (to == counted ? 1 : 0) - (from == counted ? 1 : 0);
+    }
+
+    private record StatsDelta(long pending, long delivered, long cancelled, BigDecimal deliveredAmount) {
+        private StatsDelta plus(StatsDelta other) {
+            return new StatsDelta(pending + other.pending, delivered + other.delivered, cancelled + other.cancelled,
+                    deliveredAmount.add(other.deliveredAmount));
+        }
+    }
+}
@@ -2,34 +2,64 @@ package com.ecommerce.service.impl;
 
 import com.ecommerce.controller.OrderController.CreateOrderRequest;
 import com.ecommerce.controller.OrderController.OrderSummary;
+import com.ecommerce.controller.admin.AdminOrderController.BulkUpdateOrdersResponse;
 import com.ecommerce.entity.CartItem;
 import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderEvent;
 import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.OrderSummaryView;
+import com.ecommerce.entity.OutboxMessage;
 import com.ecommerce.entity.User;
+import com.ecommerce.entity.UserOrderStats;
 import com.ecommerce.entity.enums.OrderStatus;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.OrderEventRepository;
 import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.OrderSpecifications;
+import com.ecommerce.repository.OrderStatusRow;
+import com.ecommerce.repository.OrderSummaryViewRepository;
+import com.ecommerce.repository.UserOrderStatsRepository;
 import com.ecommerce.repository.UserRepository;
 import com.ecommerce.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    private static final Set<String> ADMIN_SORT_PROPERTIES = Set.of("orderDate", "totalAmount", "status", "id");
+    private static final int MAX_ADMIN_PAGE_SIZE = 100;
+    private static final int MAX_ADMIN_EMAIL_MATCHES = 1000;
+
+    @Value("${orders.bulk-update.max-orders:500}")
+    private int maxBulkOrders;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -39,100 +69,155 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private CartItemRepository cartItemRepository;
 
+    @Autowired
+    private EmailOutbox emailOutbox;
+
+    @Autowired
+    private CheckoutPipeline checkoutPipeline;
+
+    @Autowired
+    private OrderEventLog orderEventLog;
+
+    @Autowired
+    private OrderSummaryViewRepository orderSummaryViewRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private UserOrderStatsRepository userOrderStatsRepository;
+
     @Override
     public Order createOrder(Long userId, CreateOrderRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        // Get cart items
-        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
-        if (cartItems.isEmpty()) {
-            throw new BadRequestException("Cart is empty");
+        Order savedOrder = checkoutPipeline.checkout(user, request.getCouponCode());
+        enqueueOrderConfirmation(savedOrder);
+        return savedOrder;
+    }
+
+    @Override
+    public Order updateOrderStatus(Long orderId, OrderStatus status) {
+        Order order = orderRepository.findWithItemsById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+
+        if (status == OrderStatus.CANCELLED && order.getStatus() != OrderStatus.CANCELLED) {
+            checkoutPipeline.release(order);
+        }
+        changeStatus(order, status);
+        enqueueOrderStatusUpdate(order);
+        return orderRepository.save(order);
+    }
+
+    @Override
+    public BulkUpdateOrdersResponse bulkUpdateOrderStatus(List<Long> orderIds, OrderStatus status) {
+        if (status == null || orderIds == null || orderIds.isEmpty()) {
+            throw new BadRequestException("orderIds and status are required");
+        }
+        Set<Long> ids = orderIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(TreeSet::new));
+        if (ids.size() > maxBulkOrders) {
+            throw new BadRequestException("At most " + maxBulkOrders + " orders can be updated at once");
         }
 
-        // Create order
-        Order order = new Order();
-        order.setUser(user);
-        order.setOrderDate(LocalDateTime.now());
-        order.setStatus(OrderStatus.PENDING);
-
-        // Calculate total and create order items
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        for (CartItem cartItem : cartItems) {
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setProduct(cartItem.getProduct());
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setUnitPrice(cartItem.getProduct().getPrice());
-
-            order.getOrderItems().add(orderItem);
-
-            BigDecimal itemTotal = cartItem.getProduct().getPrice()
-                    .multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-            totalAmount = totalAmount.add(itemTotal);
+        // Row locks keep the statuses read here valid for the updates below
+        List<OrderStatusRow> rows = orderRepository.findStatusRowsForUpdate(ids);
+        BulkUpdateOrdersResponse response = new BulkUpdateOrdersResponse();
+        Map<OrderStatus, List<OrderStatusRow>> bySource = new EnumMap<>(OrderStatus.class);
+        Set<Long> found = new HashSet<>();
+        for (OrderStatusRow row : rows) {
+            found.add(row.getId());
+            if (row.getStatus().canTransitionTo(status)) {
+                bySource.computeIfAbsent(row.getStatus(), source -> new ArrayList<>()).add(row);
+            } else {
+                response.reject(row.getId(), "Cannot move from " + row.getStatus() + " to " + status);
+            }
         }
+        ids.stream().filter(id -> !found.contains(id)).forEach(id -> response.reject(id, "Order not found"));
 
-        order.setTotalAmount(totalAmount);
+        List<OrderStatusRow> moved = new ArrayList<>();
+        bySource.forEach((source, group) -> {
+            List<Long> groupIds = group.stream().map(OrderStatusRow::getId).toList();
+            if (orderRepository.updateStatus(groupIds, source, status) != groupIds.size()) {
+                throw new IllegalStateException("Orders changed status during a bulk update");
+            }
+            moved.addAll(group);
+        });
+        if (moved.isEmpty()) {
+            return response;
+        }
 
-        // Save order
-        Order savedOrder = orderRepository.save(order);
+        List<Long> movedIds = moved.stream().map(OrderStatusRow::getId).sorted().toList();
+        if (status == OrderStatus.CANCELLED) {
+            checkoutPipeline.release(movedIds);
+        }
+        orderEventLog.statusesChanged(moved, status);
 
-        // Clear cart
-        cartItemRepository.deleteByUserId(userId);
+        List<Long> userIds = moved.stream().map(OrderStatusRow::getUserId).distinct().toList();
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        emailOutbox.enqueueAll(moved.stream()
+                .map(row -> statusEmail(row.getId(), users.get(row.getUserId()), status))
+                .toList());
 
-        return savedOrder;
+        response.setUpdatedOrderIds(movedIds);
+        return response;
     }
 
     @Override
-    public Order updateOrderStatus(Long orderId, OrderStatus status) {
+    @Transactional(readOnly = true)
+    public List<OrderEvent> getOrderTimeline(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-
-        order.setStatus(status);
-        return orderRepository.save(order);
+        return orderEventRepository.findTimeline(orderId, order.getOrderDate());
     }
 
     @Override
     public Order cancelOrder(Long orderId, Long userId) {
-        Order order = orderRepository.findByIdAndUserId(orderId, userId)
+        Order order = orderRepository.findWithItemsByIdAndUserId(orderId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
         if (order.getStatus() == OrderStatus.SHIPPED || order.getStatus() == OrderStatus.DELIVERED) {
             throw new BadRequestException("Cannot cancel shipped or delivered order");
         }
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            return order;
+        }
 
-        order.setStatus(OrderStatus.CANCELLED);
+        checkoutPipeline.release(order);
+        changeStatus(order, OrderStatus.CANCELLED);
+        enqueueOrderStatusUpdate(order);
         return orderRepository.save(order);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Order> getOrderById(Long orderId) {
-        return orderRepository.findById(orderId);
+        return orderRepository.findWithItemsById(orderId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Order> getOrderByIdAndUser(Long orderId, Long userId) {
-        return orderRepository.findByIdAndUserId(orderId, userId);
+        return orderRepository.findWithItemsByIdAndUserId(orderId, userId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Order> getUserOrders(Long userId, Pageable pageable) {
-        return (Page<Order>) orderRepository.findByUserIdOrderByOrderDateDesc(userId, pageable);
+    public Page<OrderSummaryView> getUserOrders(Long userId, Pageable pageable) {
+        return orderSummaryViewRepository.findByUserIdOrderByOrderDateDescOrderIdDesc(userId, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Order> getOrdersByStatus(Long userId, OrderStatus status, Pageable pageable) {
-        return orderRepository.findByUserIdAndStatusOrderByOrderDateDesc(userId, status, pageable);
+    public Page<OrderSummaryView> getOrdersByStatus(Long userId, OrderStatus status, Pageable pageable) {
+        return orderSummaryViewRepository.findByUserIdAndStatusOrderByOrderDateDescOrderIdDesc(userId, status, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Order> getRecentOrders(Long userId, int limit) {
-        return orderRepository.findRecentOrdersByUser(userId, limit);
+    public List<OrderSummaryView> getRecentOrders(Long userId, int limit) {
+        return orderSummaryViewRepository.findByUserIdOrderByOrderDateDescOrderIdDesc(userId, Limit.of(limit));
     }
 
     @Override
@@ -166,7 +251,7 @@ public class OrderServiceImpl implements OrderService {
             throw new BadRequestException("Order is not in pending status");
         }
 
-        order.setStatus(OrderStatus.PROCESSING);
+        changeStatus(order, OrderStatus.PROCESSING);
         orderRepository.save(order);
     }
 
@@ -179,7 +264,7 @@ public class OrderServiceImpl implements OrderService {
             throw new BadRequestException("Order is not in processing status");
         }
 
-        order.setStatus(OrderStatus.CONFIRMED);
+        changeStatus(order, OrderStatus.CONFIRMED);
         orderRepository.save(order);
     }
 
@@ -188,8 +273,9 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
 
-        order.setStatus(OrderStatus.SHIPPED);
-        // Would store tracking number in additional field
+        order.setTrackingNumber(trackingNumber);
+        changeStatus(order, OrderStatus.SHIPPED);
+        enqueueShippingNotification(order);
         orderRepository.save(order);
     }
 
@@ -202,39 +288,59 @@ public class OrderServiceImpl implements OrderService {
             throw new BadRequestException("Order is not in shipped status");
         }
 
-        order.setStatus(OrderStatus.DELIVERED);
+        changeStatus(order, OrderStatus.DELIVERED);
+        enqueueDeliveryNotification(order);
         orderRepository.save(order);
     }
 
     @Override
     @Transactional(readOnly = true)
     public OrderSummary getOrderSummary(Long userId) {
-        long totalOrders = orderRepository.countByUserId(userId);
-        long pendingOrders = orderRepository.countByUserIdAndStatus(userId, OrderStatus.PENDING);
-        long completedOrders = orderRepository.countByUserIdAndStatus(userId, OrderStatus.DELIVERED);
-        long cancelledOrders = orderRepository.countByUserIdAndStatus(userId, OrderStatus.CANCELLED);
-
-        BigDecimal totalSpent = orderRepository.getTotalSpentByUser(userId);
-        if (totalSpent == null) totalSpent = BigDecimal.ZERO;
-
-        BigDecimal averageOrderValue = orderRepository.getAverageOrderValueByUser(userId);
-        if (averageOrderValue == null) averageOrderValue = BigDecimal.ZERO;
-
-        return new OrderSummary(totalOrders, pendingOrders, completedOrders,
-                cancelledOrders, totalSpent, averageOrderValue);
+        UserOrderStats stats = userOrderStatsRepository.findById(userId).orElseGet(() -> new UserOrderStats(userId));
+        return new OrderSummary(stats.getTotalOrders(), stats.getPendingOrders(), stats.getDeliveredOrders(),
+                stats.getCancelledOrders(), stats.getDeliveredAmount(), stats.getAverageDeliveredAmount());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Order> getOrdersForAdmin(OrderStatus status, String sortBy, String sortDir) {
-        Sort sort = sortDir.equalsIgnoreCase("desc") ?
-                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+    public Page<Order> searchOrdersForAdmin(String query, OrderStatus status, LocalDateTime from, LocalDateTime to,
+                                            BigDecimal minAmount, BigDecimal maxAmount, Pageable pageable) {
+        for (Sort.Order sortOrder : pageable.getSort()) {
+            if (!ADMIN_SORT_PROPERTIES.contains(sortOrder.getProperty())) {
+                throw new BadRequestException("Orders cannot be sorted by " + sortOrder.getProperty());
+            }
+        }
+        // Tie-break on id so pages stay stable between requests
+        Pageable stable = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), MAX_ADMIN_PAGE_SIZE),
+                pageable.getSort().and(Sort.by(Sort.Direction.DESC, "id")));
 
+        List<Specification<Order>> filters = new ArrayList<>();
         if (status != null) {
-            return orderRepository.findByStatus(status);
-        } else {
-            return orderRepository.findAll(sort);
+            filters.add(OrderSpecifications.hasStatus(status));
+        }
+        if (from != null) {
+            filters.add(OrderSpecifications.placedFrom(from));
+        }
+        if (to != null) {
+            filters.add(OrderSpecifications.placedBefore(to));
+        }
+        if (minAmount != null) {
+            filters.add(OrderSpecifications.totalAtLeast(minAmount));
+        }
+        if (maxAmount != null) {
+            filters.add(OrderSpecifications.totalAtMost(maxAmount));
         }
+        if (query != null && !query.isBlank()) {
+            String text = query.trim().toLowerCase(Locale.ROOT);
+            String pattern = "%" + text.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+            Long orderId = text.matches("\\d{1,18}") ? Long.valueOf(text) : null;
+            // Matching customers are looked up first so the order query can use idx_order_user_date
+            List<Long> userIds = userRepository.findIdsByEmailLike(pattern, PageRequest.of(0, MAX_ADMIN_EMAIL_MATCHES + 1));
+            filters.add(OrderSpecifications.matchesText(orderId, pattern,
+                    userIds.size() > MAX_ADMIN_EMAIL_MATCHES ? null : userIds));
+        }
+
+        return fetchItems(orderRepository.findAll(Specification.allOf(filters), stable));
     }
 
     @Override
@@ -276,56 +382,109 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional(readOnly = true)
     public List<String> validateOrderItems(Long userId) {
-        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
-        List<String> errors = new java.util.ArrayList<>();
-
-        for (CartItem item : cartItems) {
-            if (!item.getProduct().getActive()) {
-                errors.add("Product " + item.getProduct().getName() + " is no longer available");
-            }
-
-            if (item.getProduct().getTrackQuantity() &&
-                    item.getProduct().getStockQuantity() < item.getQuantity()) {
-                errors.add("Insufficient stock for " + item.getProduct().getName());
-            }
-        }
-
-        return errors;
+        return checkoutPipeline.validate(cartItemRepository.findByUserIdOrderByIdAsc(userId));
     }
 
     @Override
     public void sendOrderConfirmation(Long orderId) {
-        // Implementation for sending order confirmation email
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-
-        // Send email logic here
+        enqueueOrderConfirmation(findOrderForEmail(orderId));
     }
 
     @Override
     public void sendOrderStatusUpdate(Long orderId) {
-        // Implementation for sending order status update
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-
-        // Send notification logic here
+        enqueueOrderStatusUpdate(findOrderForEmail(orderId));
     }
 
     @Override
     public void sendShippingNotification(Long orderId) {
-        // Implementation for sending shipping notification
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
-
-        // Send shipping notification logic here
+        enqueueShippingNotification(findOrderForEmail(orderId));
     }
 
     @Override
     public void sendDeliveryNotification(Long orderId) {
-        // Implementation for sending delivery notification
-        Order order = orderRepository.findById(orderId)
+        enqueueDeliveryNotification(findOrderForEmail(orderId));
+    }
+
+    private Order findOrderForEmail(Long orderId) {
+        return orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + orderId));
+    }
+
+    // Order emails go through the outbox, so they are sent only once this transaction commits
+    private void enqueueOrderConfirmation(Order order) {
+        StringBuilder body = new StringBuilder(greeting(order.getUser()))
+                .append("Thank you for your order #").append(order.getId()).append(".\n\n");
+        for (OrderItem item : order.getOrderItems()) {
+            body.append(item.getQuantity()).append(" x ").append(item.getProduct().getName())
+                    .append(" @ ").append(item.getUnitPrice()).append('\n');
+        }
+        body.append("\nTotal: ").append(order.getTotalAmount()).append('\n');
+        enqueueOrderEmail(order, "ORDER_CONFIRMATION", "Order #" + order.getId() + " received", body.toString());
+    }
 
-        // Send delivery notification logic here
+    private void enqueueOrderStatusUpdate(Order order) {
+        emailOutbox.enqueue(statusUpdateEmail(order.getId(), order.getUser(), order.getStatus()));
+    }
+
+    private void enqueueShippingNotification(Order order) {
+        emailOutbox.enqueue(shippingEmail(order.getId(), order.getUser(), order.getTrackingNumber()));
+    }
+
+    private void enqueueDeliveryNotification(Order order) {
+        emailOutbox.enqueue(deliveryEmail(order.getId(), order.getUser()));
+    }
+
+    private void enqueueOrderEmail(Order order, String eventType, String subject, String body) {
+        emailOutbox.enqueue(eventType, order.getId(), order.getUser().getEmail(), subject, body);
+    }
+
+    // The email a single-order transition to this status would send
+    private OutboxMessage statusEmail(Long orderId, User user, OrderStatus status) {
+        return switch (status) {
+            case SHIPPED -> shippingEmail(orderId, user, null);
+            case DELIVERED -> deliveryEmail(orderId, user);
+            default -> statusUpdateEmail(orderId, user, status);
+        };
+    }
+
+    private OutboxMessage statusUpdateEmail(Long orderId, User user, OrderStatus status) {
+        return new OutboxMessage("ORDER_STATUS_UPDATE", orderId, user.getEmail(),
+                "Order #" + orderId + " is now " + status, greeting(user) + "The status of your order #" + orderId + " is now " + status + ".\n");
+    }
+
+    private OutboxMessage shippingEmail(Long orderId, User user, String trackingNumber) {
+        String tracking = trackingNumber == null ? "" : "\nTracking number: " + trackingNumber + "\n";
+        return new OutboxMessage("ORDER_SHIPPED", orderId, user.getEmail(), "Order #" + orderId + " has shipped",
+                greeting(user) + "Your order #" + orderId + " is on its way.\n" + tracking);
+    }
+
+    private OutboxMessage deliveryEmail(Long orderId, User user) {
+        return new OutboxMessage("ORDER_DELIVERED", orderId, user.getEmail(), "Order #" + orderId + " was delivered",
+                greeting(user) + "Your order #" + orderId + " has been delivered.\n");
+    }
+
+    private String greeting(User user) {
+        String firstName = user.getFirstName();
+        return (firstName == null ? "Hello" : "Hi " + firstName) + ",\n\n";
+    }
+
+    private void changeStatus(Order order, OrderStatus status) {
+        OrderStatus previous = order.getStatus();
+        order.setStatus(status);
+        orderEventLog.statusChanged(order, previous);
+    }
+
+    private Page<Order> fetchItems(Page<Order> orders) {
+        fetchItems(orders.getContent());
+        return orders;
+    }
+
+    // Loads the order view fetch plan for an already paged/limited result in one query;
+    // the orders are the same managed instances, so their associations get initialized
+    private List<Order> fetchItems(List<Order> orders) {
+        if (!orders.isEmpty()) {
+            orderRepository.findWithItemsByIdIn(orders.stream().map(Order::getId).toList());
+        }
+        return orders;
     }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.OutboxMessage;
+import com.ecommerce.entity.enums.OutboxStatus;
+import com.ecommerce.repository.OutboxMessageRepository;
+import com.ecommerce.service.EmailService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays outbox emails. Each poll claims at most as many due rows as the sender queue can
+ * take, committing the claim before anything is sent; failures are retried with
+ * exponential backoff until outbox.max-attempts, then left as FAILED. Delivery is
+ * at-least-once: a sender dying between SMTP accept and markSent repeats the email.
+ */
+@Component
+public class OutboxDispatcher {
+
+    @Value("${outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${outbox.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${outbox.backoff-initial-seconds:30}")
+    private long backoffInitialSeconds;
+
+    @Value("${outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${outbox.sent-retention-days:7}")
+    private long sentRetentionDays;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private ThreadPoolExecutor sender;
+
+    @PostConstruct
+    public void initSender() {
+        transaction = new TransactionTemplate(transactionManager);
+        int threads = Math.max(1, senderThreads);
+        sender = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)));
+    }
+
+    @PreDestroy
+    public void shutdownSender() {
+        sender.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-ms:2000}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+
+        int limit = Math.min(batchSize, sender.getQueue().remainingCapacity());
+        if (limit <= 0) {
+            return;
+        }
+
+        List<OutboxMessage> claimed = transaction.execute(status -> claim(limit));
+        for (int i = 0; i < claimed.size(); i++) {
+            OutboxMessage message = claimed.get(i);
+            try {
+                sender.execute(() -> send(message));
+            } catch (RejectedExecutionException e) {
+                // Queue filled up meanwhile or the sender is shutting down: hand the rest back
+                // due now and without the attempt, rather than leaving them leased
+                release(claimed.subList(i, claimed.size()));
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${outbox.purge-cron:0 15 4 * * *}")
+    public void purgeSent() {
+        transaction.executeWithoutResult(status ->
+                outboxMessageRepository.deleteSentBefore(LocalDateTime.now().minusDays(sentRetentionDays)));
+    }
+
+    private List<OutboxMessage> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> due = outboxMessageRepository.findDueForUpdate(now, limit);
+        for (OutboxMessage message : due) {
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        return due;
+    }
+
+    private void release(List<OutboxMessage> messages) {
+        List<Long> ids = messages.stream().map(OutboxMessage::getId).toList();
+        transaction.executeWithoutResult(status -> outboxMessageRepository.releaseClaim(ids, LocalDateTime.now()));
+    }
+
+    private void send(OutboxMessage message) {
+        try {
+            emailService.send(message.getRecipient(), message.getSubject(), message.getBody());
+        } catch (RuntimeException e) {
+            recordFailure(message, e);
+            return;
+        }
+        transaction.executeWithoutResult(status ->
+                outboxMessageRepository.markSent(message.getId(), LocalDateTime.now()));
+    }
+
+    private void recordFailure(OutboxMessage message, RuntimeException e) {
+        boolean exhausted = message.getAttempts() >= maxAttempts;
+        long backoffSeconds = Math.min(backoffMaxSeconds,
+                backoffInitialSeconds << Math.min(message.getAttempts() - 1, 20));
+        String error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        if (error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+
+        System.err.println("Failed to send outbox message " + message.getId() + " (attempt "
+                + message.getAttempts() + "): " + error);
+        String lastError = error;
+        transaction.executeWithoutResult(status -> outboxMessageRepository.markAttemptFailed(message.getId(),
+                exhausted ? OutboxStatus.FAILED : OutboxStatus.PENDING,
+                LocalDateTime.now().plusSeconds(backoffSeconds), lastError));
+    }
+}
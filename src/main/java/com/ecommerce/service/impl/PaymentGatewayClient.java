@@ -0,0 +1,250 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.exception.PaymentGatewayException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for one payment provider. Calls share one pooled HTTP/2 client with strict
+ * connect and read timeouts, are limited by a bulkhead (max concurrent calls, short wait),
+ * and go through a circuit breaker over a sliding window of recent outcomes: at
+ * failure-rate-threshold percent failures the circuit opens for open-seconds, then lets a
+ * single trial call through. Failed calls that are safe to repeat (GETs, and POSTs carrying an
+ * Idempotency-Key) are retried up to max-retries times with a linear backoff. Shed and failed
+ * calls throw PaymentGatewayException.
+ */
+public class PaymentGatewayClient {
+
+    public record Response(int status, String body) {
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    public record Settings(String baseUrl, long connectTimeoutMs, long readTimeoutMs, int maxConcurrentCalls,
+                           long bulkheadWaitMs, int windowSize, int minimumCalls, int failureRateThreshold,
+                           long openSeconds, int maxRetries, long retryBackoffMs) {
+    }
+
+    private enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String provider;
+    private final Settings settings;
+    private final HttpClient httpClient;
+    private final Semaphore bulkhead;
+    private final MeterRegistry meterRegistry;
+
+    // Circuit breaker state, guarded by this
+    private final boolean[] failures;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public PaymentGatewayClient(String provider, Settings settings, MeterRegistry meterRegistry) {
+        this.provider = provider;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(settings.connectTimeoutMs()))
+                .build();
+        this.bulkhead = new Semaphore(Math.max(1, settings.maxConcurrentCalls()));
+        this.failures = new boolean[Math.max(1, settings.windowSize())];
+
+        Gauge.builder("payment.gateway.circuit.state", this, client -> client.currentState().ordinal())
+                .description("0 = closed, 1 = half-open, 2 = open")
+                .tag("provider", provider)
+                .register(meterRegistry);
+        Gauge.builder("payment.gateway.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("provider", provider)
+                .register(meterRegistry);
+    }
+
+    public Response get(String path, Map<String, String> headers) {
+        return send(request(path, headers).GET(), true);
+    }
+
+    public Response post(String path, String contentType, String body, Map<String, String> headers) {
+        return send(request(path, headers)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body)), headers.containsKey("Idempotency-Key"));
+    }
+
+    private HttpRequest.Builder request(String path, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(settings.baseUrl() + path))
+                .timeout(Duration.ofMillis(settings.readTimeoutMs()));
+        headers.forEach(builder::header);
+        return builder;
+    }
+
+    private Response send(HttpRequest.Builder request, boolean idempotent) {
+        int attempts = idempotent ? 1 + Math.max(0, settings.maxRetries()) : 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return call(request);
+            } catch (CallFailedException e) {
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                record("retried", 0);
+                try {
+                    Thread.sleep(settings.retryBackoffMs() * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Response call(HttpRequest.Builder request) {
+        if (!allowRequest()) {
+            record("short_circuited", 0);
+            throw new PaymentGatewayException(provider + " gateway is unavailable (circuit open)");
+        }
+        if (!acquireBulkhead()) {
+            releaseTrial();
+            record("rejected", 0);
+            throw new PaymentGatewayException(provider + " gateway is busy");
+        }
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            // 4xx is the caller's problem and says nothing about the provider's health
+            boolean failed = response.statusCode() >= 500 || response.statusCode() == 429;
+            recordOutcome(!failed);
+            record(failed ? "failure" : "success", System.nanoTime() - start);
+            if (failed) {
+                throw new CallFailedException(provider + " gateway returned HTTP " + response.statusCode(), null);
+            }
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            recordOutcome(false);
+            record("failure", System.nanoTime() - start);
+            throw new CallFailedException(provider + " gateway call failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            releaseTrial();
+            throw new PaymentGatewayException(provider + " gateway call was interrupted", e);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(settings.bulkheadWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void record(String outcome, long nanos) {
+        Timer.builder("payment.gateway.requests")
+                .tags("provider", provider, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized State currentState() {
+        return state;
+    }
+
+    private synchronized boolean allowRequest() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < settings.openSeconds() * 1000) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    private synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    private synchronized void recordOutcome(boolean success) {
+        if (state == State.HALF_OPEN) {
+            if (success) {
+                state = State.CLOSED;
+                resetWindow();
+            } else {
+                open();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+
+        if (windowCount == failures.length) {
+            if (failures[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        failures[windowIndex] = !success;
+        if (!success) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % failures.length;
+
+        if (windowCount >= settings.minimumCalls()
+                && windowFailures * 100 >= settings.failureRateThreshold() * windowCount) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        trialInFlight = false;
+        resetWindow();
+        System.err.println("Circuit opened for " + provider + " payment gateway");
+    }
+
+    // The call reached the provider (or timed out on the way) and failed; repeating it may succeed
+    private static class CallFailedException extends PaymentGatewayException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        CallFailedException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private void resetWindow() {
+        Arrays.fill(failures, false);
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+}
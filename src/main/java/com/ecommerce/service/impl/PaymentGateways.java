@@ -0,0 +1,50 @@
+package com.ecommerce.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One PaymentGatewayClient per provider, configured from payment.gateway.&lt;provider&gt;.*
+ * with payment.gateway.default.* as the fallback for each setting.
+ */
+@Component
+public class PaymentGateways {
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, PaymentGatewayClient> clients = new ConcurrentHashMap<>();
+
+    public PaymentGatewayClient client(String provider) {
+        return clients.computeIfAbsent(provider, this::createClient);
+    }
+
+    private PaymentGatewayClient createClient(String provider) {
+        PaymentGatewayClient.Settings settings = new PaymentGatewayClient.Settings(
+                environment.getRequiredProperty("payment.gateway." + provider + ".base-url"),
+                setting(provider, "connect-timeout-ms", 2000L),
+                setting(provider, "read-timeout-ms", 5000L),
+                setting(provider, "max-concurrent-calls", 20L).intValue(),
+                setting(provider, "bulkhead-wait-ms", 50L),
+                setting(provider, "window-size", 20L).intValue(),
+                setting(provider, "minimum-calls", 10L).intValue(),
+                setting(provider, "failure-rate-threshold", 50L).intValue(),
+                setting(provider, "open-seconds", 30L),
+                setting(provider, "max-retries", 1L).intValue(),
+                setting(provider, "retry-backoff-ms", 100L));
+        return new PaymentGatewayClient(provider, settings, meterRegistry);
+    }
+
+    private Long setting(String provider, String name, long defaultValue) {
+        Long fallback = environment.getProperty("payment.gateway.default." + name, Long.class, defaultValue);
+        return environment.getProperty("payment.gateway." + provider + "." + name, Long.class, fallback);
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.Payment;
+import com.ecommerce.entity.enums.PaymentMethod;
+import com.ecommerce.entity.enums.PaymentStatus;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.PaymentRepository;
+import com.ecommerce.repository.UserPaymentStatsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Writes to the payments table. Every change is applied to the locked payment row and,
+ * as a delta, to the user's UserPaymentStats row in the same transaction.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class PaymentLedger {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserPaymentStatsRepository userPaymentStatsRepository;
+
+    public Payment record(Order order, PaymentMethod paymentMethod, BigDecimal amount, String currency,
+                          String transactionId) {
+        Payment payment = paymentRepository.save(new Payment(order, paymentMethod, amount, currency, transactionId));
+
+        Long userId = order.getUser().getId();
+        userPaymentStatsRepository.ensureExists(userId);
+        userPaymentStatsRepository.applyChange(userId, 1, 0, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+        return payment;
+    }
+
+    // Returns false when the payment is already past the point where the change applies,
+    // e.g. a late failure notice for a completed payment
+    public boolean transition(Payment payment, PaymentStatus status) {
+        PaymentStatus current = payment.getStatus();
+        if (current == status || !canTransition(current, status)) {
+            return false;
+        }
+
+        long successfulDelta = (isSuccessful(status) ? 1 : 0) - (isSuccessful(current) ? 1 : 0);
+        long failedDelta = (status == PaymentStatus.FAILED ? 1 : 0) - (current == PaymentStatus.FAILED ? 1 : 0);
+        BigDecimal capturedDelta = payment.getAmount().multiply(BigDecimal.valueOf(successfulDelta));
+
+        payment.setStatus(status);
+        payment.setUpdatedAt(LocalDateTime.now());
+        userPaymentStatsRepository.applyChange(payment.getUser().getId(), 0, successfulDelta, failedDelta,
+                capturedDelta, BigDecimal.ZERO);
+        return true;
+    }
+
+    public boolean transitionByTransactionId(String transactionId, PaymentStatus status) {
+        return paymentRepository.findByTransactionIdForUpdate(transactionId)
+                .map(payment -> transition(payment, status))
+                .orElse(false);
+    }
+
+    // A refund of the full remaining amount moves the payment to REFUNDED
+    public void refund(Payment payment, BigDecimal amount) {
+        if (payment.getStatus() != PaymentStatus.COMPLETED) {
+            throw new BadRequestException("Only completed payments can be refunded");
+        }
+        BigDecimal refundable = payment.getAmount().subtract(payment.getRefundedAmount());
+        if (amount.signum() <= 0 || amount.compareTo(refundable) > 0) {
+            throw new BadRequestException("Refund amount must be between 0 and " + refundable);
+        }
+
+        payment.setRefundedAmount(payment.getRefundedAmount().add(amount));
+        if (amount.compareTo(refundable) == 0) {
+            payment.setStatus(PaymentStatus.REFUNDED);
+        }
+        payment.setUpdatedAt(LocalDateTime.now());
+        userPaymentStatsRepository.applyChange(payment.getUser().getId(), 0, 0, 0, BigDecimal.ZERO, amount);
+    }
+
+    private boolean canTransition(PaymentStatus from, PaymentStatus to) {
+        return switch (from) {
+            case PENDING -> to != PaymentStatus.REFUNDED;
+            // A provider may still capture after reporting a failed attempt
+            case FAILED -> to == PaymentStatus.COMPLETED;
+            case COMPLETED, CANCELLED, REFUNDED -> false;
+        };
+    }
+
+    private boolean isSuccessful(PaymentStatus status) {
+        return status == PaymentStatus.COMPLETED || status == PaymentStatus.REFUNDED;
+    }
+}
@@ -3,22 +3,54 @@ package com.ecommerce.service.impl;
 import com.ecommerce.controller.PaymentController.PaymentDetails;
 import com.ecommerce.controller.PaymentController.PaymentRequest;
 import com.ecommerce.controller.PaymentController.PaymentResponse;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.Payment;
+import com.ecommerce.entity.UserPaymentStats;
+import com.ecommerce.entity.enums.PaymentMethod;
 import com.ecommerce.entity.enums.PaymentStatus;
 import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.exception.PaymentGatewayException;
+import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.PaymentRepository;
+import com.ecommerce.repository.UserPaymentStatsRepository;
 import com.ecommerce.service.PaymentService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.json.JSONObject;
+import org.springframework.util.DigestUtils;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
 @Transactional
 public class PaymentServiceImpl implements PaymentService {
 
+    // Stripe's recommended window for the signed timestamp, against replayed deliveries
+    private static final long STRIPE_SIGNATURE_TOLERANCE_SECONDS = 300;
+
     @Value("${stripe.secret.key:}")
     private String stripeSecretKey;
 
@@ -34,7 +66,48 @@ public class PaymentServiceImpl implements PaymentService {
     @Value("${paypal.client.secret:}")
     private String paypalClientSecret;
 
+    @Value("${stripe.webhook.secret:}")
+    private String stripeWebhookSecret;
+
+    @Value("${razorpay.webhook.secret:}")
+    private String razorpayWebhookSecret;
+
+    @Autowired
+    private PaymentWebhookQueue webhookQueue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserPaymentStatsRepository userPaymentStatsRepository;
+
+    @Autowired
+    private PaymentLedger paymentLedger;
+
+    @Autowired
+    private PaymentGateways paymentGateways;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${payment.history.max-page-size:100}")
+    private int historyMaxPageSize;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void initTransaction() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse initiatePayment(Long userId, PaymentRequest request) {
         // Validate request
         if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
@@ -56,64 +129,119 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
+    // Gateway calls run outside any transaction, so no database connection waits on Stripe
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, String> createStripePaymentIntent(Long userId, Long orderId, BigDecimal amount) {
-        Map<String, String> response = new HashMap<>();
+        BigDecimal chargeAmount = transaction.execute(status -> chargeAmount(findUserOrder(userId, orderId), amount));
+
+        String paymentIntentId;
+        String clientSecret;
+        String intentStatus;
+        if (stripeSecretKey.isBlank()) {
+            // No Stripe key configured: mock intent
+            paymentIntentId = "pi_mock_" + System.currentTimeMillis();
+            clientSecret = "pi_mock_client_secret";
+            intentStatus = "requires_payment_method";
+        } else {
+            PaymentGatewayClient.Response created = paymentGateways.client("stripe").post("/v1/payment_intents",
+                    "application/x-www-form-urlencoded",
+                    "amount=" + chargeAmount.movePointRight(2).setScale(0, RoundingMode.HALF_UP)
+                            + "&currency=usd&metadata%5BorderId%5D=" + orderId,
+                    stripeIdempotentHeaders());
+            if (!created.isSuccessful()) {
+                throw new BadRequestException("Failed to create Stripe payment intent: HTTP " + created.status());
+            }
+            JsonNode intent = readGatewayResponse(created);
+            paymentIntentId = intent.path("id").asText();
+            clientSecret = intent.path("client_secret").asText();
+            intentStatus = intent.path("status").asText();
+        }
 
-        try {
-            // Stripe integration would go here
-            // For now, returning mock response
-            response.put("clientSecret", "pi_mock_client_secret");
-            response.put("paymentIntentId", "pi_mock_" + System.currentTimeMillis());
-            response.put("status", "requires_payment_method");
+        Payment payment = recordPayment(userId, orderId, chargeAmount, PaymentMethod.STRIPE, "USD", paymentIntentId);
+        Map<String, String> response = new HashMap<>();
+        response.put("paymentId", payment.getId().toString());
+        response.put("clientSecret", clientSecret);
+        response.put("paymentIntentId", paymentIntentId);
+        response.put("status", intentStatus);
 
-            return response;
-        } catch (Exception e) {
-            throw new BadRequestException("Failed to create Stripe payment intent: " + e.getMessage());
-        }
+        return response;
     }
 
+    // Without a Stripe key the intent is taken as succeeded. If Stripe cannot be reached the
+    // payment stays PENDING (the fallback status) and the payment webhook settles it later
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public PaymentResponse confirmStripePayment(String paymentIntentId, Long orderId) {
-        try {
-            // Stripe confirmation logic would go here
-            // For now, returning mock response
-
-            return new PaymentResponse(
-                    1L, // mock payment ID
-                    PaymentStatus.COMPLETED,
-                    "Payment completed successfully",
-                    paymentIntentId
-            );
-        } catch (Exception e) {
-            return new PaymentResponse(
-                    null,
-                    PaymentStatus.FAILED,
-                    "Payment confirmation failed: " + e.getMessage(),
-                    paymentIntentId
-            );
+        PaymentStatus confirmedStatus;
+        boolean gatewayUnavailable = false;
+        if (stripeSecretKey.isBlank()) {
+            confirmedStatus = PaymentStatus.COMPLETED;
+        } else {
+            PaymentStatus intentStatus;
+            try {
+                PaymentGatewayClient.Response intent = paymentGateways.client("stripe").get(
+                        "/v1/payment_intents/" + URLEncoder.encode(paymentIntentId, StandardCharsets.UTF_8), stripeHeaders());
+                if (!intent.isSuccessful()) {
+                    throw new BadRequestException("Failed to confirm Stripe payment: HTTP " + intent.status());
+                }
+                intentStatus = switch (readGatewayResponse(intent).path("status").asText()) {
+                    case "succeeded" -> PaymentStatus.COMPLETED;
+                    case "canceled" -> PaymentStatus.CANCELLED;
+                    default -> PaymentStatus.PENDING;
+                };
+            } catch (PaymentGatewayException e) {
+                intentStatus = PaymentStatus.PENDING;
+                gatewayUnavailable = true;
+            }
+            confirmedStatus = intentStatus;
         }
+
+        Payment payment = transaction.execute(status -> {
+            Payment locked = findPaymentForUpdate(paymentIntentId, orderId);
+            paymentLedger.transition(locked, confirmedStatus);
+            return locked;
+        });
+
+        String message = switch (payment.getStatus()) {
+            case COMPLETED -> "Payment completed successfully";
+            case PENDING -> gatewayUnavailable ? "Payment provider unavailable; payment is pending confirmation" : "Payment is pending";
+            default -> "Payment is " + payment.getStatus();
+        };
+        return new PaymentResponse(payment.getId(), payment.getStatus(), message, paymentIntentId);
     }
 
     @Override
     public void handleStripeWebhook(String payload, String signature) {
+        if (stripeWebhookSecret.isBlank()) {
+            throw new BadRequestException("Stripe webhook secret is not configured");
+        }
         try {
-            // Stripe webhook verification and processing
-            // This would verify the signature and process the event
-            System.out.println("Processing Stripe webhook: " + payload);
-        } catch (Exception e) {
-            throw new BadRequestException("Failed to process Stripe webhook: " + e.getMessage());
+            Webhook.Signature.verifyHeader(payload, signature, stripeWebhookSecret, STRIPE_SIGNATURE_TOLERANCE_SECONDS);
+        } catch (SignatureVerificationException e) {
+            throw new BadRequestException("Invalid Stripe webhook signature");
         }
+
+        JsonNode event = readWebhookPayload(payload);
+        JsonNode object = event.at("/data/object");
+        // Charge events point at their payment intent, which is the recorded transaction id
+        String paymentReference = "payment_intent".equals(object.path("object").asText())
+                ? object.path("id").asText(null) : object.path("payment_intent").asText(null);
+        webhookQueue.enqueue("stripe", webhookEventId(event.path("id").asText(null), payload),
+                event.path("type").asText(null), webhookOrderId(object.at("/metadata/orderId")), paymentReference, payload);
     }
 
     @Override
     public Map<String, Object> createRazorpayOrder(Long userId, Long orderId, BigDecimal amount) {
         Map<String, Object> response = new HashMap<>();
+        String razorpayOrderId = "order_mock_" + System.currentTimeMillis();
+        Payment payment = recordPayment(userId, orderId, amount, PaymentMethod.RAZORPAY, "INR", razorpayOrderId);
 
         try {
             // Razorpay integration would go here
-            response.put("orderId", "order_mock_" + System.currentTimeMillis());
-            response.put("amount", amount.multiply(BigDecimal.valueOf(100)).intValue()); // Amount in paise
+            response.put("paymentId", payment.getId());
+            response.put("orderId", razorpayOrderId);
+            response.put("amount", payment.getAmount().multiply(BigDecimal.valueOf(100)).intValue()); // Amount in paise
             response.put("currency", "INR");
             response.put("keyId", razorpayKeyId);
 
@@ -125,43 +253,64 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public PaymentResponse verifyRazorpayPayment(Long orderId, String paymentId, String razorpayOrderId, String signature) {
+        Payment payment = findPaymentForUpdate(razorpayOrderId, orderId);
+
+        boolean verified;
         try {
-            // Razorpay signature verification would go here
-            // For now, returning mock response
-
-            return new PaymentResponse(
-                    2L, // mock payment ID
-                    PaymentStatus.COMPLETED,
-                    "Razorpay payment verified successfully",
-                    paymentId
-            );
-        } catch (Exception e) {
-            return new PaymentResponse(
-                    null,
-                    PaymentStatus.FAILED,
-                    "Payment verification failed: " + e.getMessage(),
-                    paymentId
-            );
+            // Without a key secret (mock mode) the payment is taken as verified
+            verified = razorpayKeySecret.isBlank() || Utils.verifyPaymentSignature(new JSONObject()
+                    .put("razorpay_order_id", razorpayOrderId)
+                    .put("razorpay_payment_id", paymentId)
+                    .put("razorpay_signature", signature), razorpayKeySecret);
+        } catch (RazorpayException e) {
+            verified = false;
         }
+        paymentLedger.transition(payment, verified ? PaymentStatus.COMPLETED : PaymentStatus.FAILED);
+
+        return new PaymentResponse(
+                payment.getId(),
+                payment.getStatus(),
+                verified ? "Razorpay payment verified successfully" : "Payment verification failed: invalid signature",
+                paymentId
+        );
     }
 
     @Override
-    public void handleRazorpayWebhook(String payload, String signature) {
+    public void handleRazorpayWebhook(String payload, String signature, String eventId) {
+        if (razorpayWebhookSecret.isBlank()) {
+            throw new BadRequestException("Razorpay webhook secret is not configured");
+        }
         try {
-            // Razorpay webhook verification and processing
-            System.out.println("Processing Razorpay webhook: " + payload);
-        } catch (Exception e) {
-            throw new BadRequestException("Failed to process Razorpay webhook: " + e.getMessage());
+            if (signature == null || !Utils.verifyWebhookSignature(payload, signature, razorpayWebhookSecret)) {
+                throw new BadRequestException("Invalid Razorpay webhook signature");
+            }
+        } catch (RazorpayException e) {
+            throw new BadRequestException("Invalid Razorpay webhook signature");
         }
+
+        JsonNode event = readWebhookPayload(payload);
+        JsonNode orderId = event.at("/payload/payment/entity/notes/orderId");
+        if (orderId.isMissingNode()) {
+            orderId = event.at("/payload/order/entity/notes/orderId");
+        }
+        String paymentReference = event.at("/payload/payment/entity/order_id").asText(null);
+        if (paymentReference == null) {
+            paymentReference = event.at("/payload/order/entity/id").asText(null);
+        }
+        webhookQueue.enqueue("razorpay", webhookEventId(eventId, payload),
+                event.path("event").asText(null), webhookOrderId(orderId), paymentReference, payload);
     }
 
     @Override
     public Map<String, String> createPayPalOrder(Long userId, Long orderId, BigDecimal amount) {
         Map<String, String> response = new HashMap<>();
+        String payPalOrderId = "paypal_order_" + System.currentTimeMillis();
+        Payment payment = recordPayment(userId, orderId, amount, PaymentMethod.PAYPAL, "USD", payPalOrderId);
 
         try {
             // PayPal integration would go here
-            response.put("orderId", "paypal_order_" + System.currentTimeMillis());
+            response.put("paymentId", payment.getId().toString());
+            response.put("orderId", payPalOrderId);
             response.put("approvalUrl", "https://sandbox.paypal.com/approve?token=mock_token");
             response.put("status", "CREATED");
 
@@ -173,99 +322,106 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public PaymentResponse capturePayPalOrder(Long orderId, String payPalOrderId) {
-        try {
-            // PayPal capture logic would go here
-
-            return new PaymentResponse(
-                    3L, // mock payment ID
-                    PaymentStatus.COMPLETED,
-                    "PayPal payment captured successfully",
-                    payPalOrderId
-            );
-        } catch (Exception e) {
-            return new PaymentResponse(
-                    null,
-                    PaymentStatus.FAILED,
-                    "Payment capture failed: " + e.getMessage(),
-                    payPalOrderId
-            );
-        }
+        // PayPal capture logic would go here; the capture is taken as succeeded
+        Payment payment = findPaymentForUpdate(payPalOrderId, orderId);
+        paymentLedger.transition(payment, PaymentStatus.COMPLETED);
+
+        return new PaymentResponse(
+                payment.getId(),
+                payment.getStatus(),
+                payment.getStatus() == PaymentStatus.COMPLETED ? "PayPal payment captured successfully" : "Payment is " + payment.getStatus(),
+                payPalOrderId
+        );
     }
 
     @Override
+    @Transactional(readOnly = true)
     public PaymentDetails getPaymentDetails(Long orderId) {
-        // This would fetch payment details from database
-        return new PaymentDetails(
-                1L, // paymentId
-                orderId,
-                com.ecommerce.entity.enums.PaymentMethod.STRIPE,
-                PaymentStatus.COMPLETED,
-                BigDecimal.valueOf(100.00),
-                "USD",
-                "txn_mock_123",
-                LocalDateTime.now().toString()
-        );
+        return paymentRepository.findFirstByOrderIdOrderByCreatedAtDescIdDesc(orderId)
+                .map(this::toDetails)
+                .orElseThrow(() -> new ResourceNotFoundException("No payment found for order id: " + orderId));
     }
 
     @Override
     public PaymentResponse refundPayment(Long paymentId, BigDecimal amount, String reason) {
-        try {
-            // Refund logic would go here based on original payment method
-
-            return new PaymentResponse(
-                    paymentId,
-                    PaymentStatus.REFUNDED,
-                    "Refund processed successfully",
-                    "refund_" + System.currentTimeMillis()
-            );
-        } catch (Exception e) {
-            throw new BadRequestException("Failed to process refund: " + e.getMessage());
-        }
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + paymentId));
+
+        // Refund logic would go here based on original payment method; no amount refunds the rest
+        paymentLedger.refund(payment, amount != null ? amount : payment.getAmount().subtract(payment.getRefundedAmount()));
+
+        return new PaymentResponse(
+                paymentId,
+                payment.getStatus(),
+                "Refund processed successfully",
+                "refund_" + System.currentTimeMillis()
+        );
     }
 
+    // Keyset pagination: the cursor is the (createdAt, id) of the last payment on the previous page
     @Override
-    public Map<String, Object> getPaymentHistory(Long userId, int page, int size) {
-        Map<String, Object> history = new HashMap<>();
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPaymentHistory(Long userId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, historyMaxPageSize));
+        List<Payment> payments;
+        if (cursor == null || cursor.isBlank()) {
+            payments = paymentRepository.findLatestByUserId(userId, limit);
+        } else {
+            String[] position = decodeHistoryCursor(cursor);
+            payments = paymentRepository.findByUserIdBefore(userId,
+                    LocalDateTime.parse(position[0]), Long.parseLong(position[1]), limit);
+        }
 
-        // This would fetch from database with pagination
-        history.put("payments", java.util.List.of());
-        history.put("totalElements", 0);
-        history.put("totalPages", 0);
-        history.put("currentPage", page);
-        history.put("pageSize", size);
+        Map<String, Object> history = new HashMap<>();
+        history.put("payments", payments.stream().map(this::toDetails).toList());
+        history.put("pageSize", limit);
+        history.put("nextCursor", payments.size() < limit ? null : encodeHistoryCursor(payments.get(payments.size() - 1)));
 
         return history;
     }
 
+    // A payment is valid when it is not dead and covers the order total
     @Override
+    @Transactional(readOnly = true)
     public boolean validatePayment(Long paymentId) {
-        // Validation logic would go here
-        return true; // Placeholder
+        return paymentRepository.findById(paymentId)
+                .filter(payment -> payment.getStatus() == PaymentStatus.PENDING || payment.getStatus() == PaymentStatus.COMPLETED)
+                .filter(payment -> payment.getAmount().compareTo(payment.getOrder().getTotalAmount()) == 0)
+                .isPresent();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean isPaymentSuccessful(Long paymentId) {
-        // Check payment status in database
-        return true; // Placeholder
+        return paymentRepository.findById(paymentId)
+                .map(payment -> payment.getStatus() == PaymentStatus.COMPLETED)
+                .orElse(false);
     }
 
+    // Read from the running totals maintained by PaymentLedger, not aggregated over payments
     @Override
+    @Transactional(readOnly = true)
     public Map<String, Object> getPaymentStats(Long userId) {
+        UserPaymentStats paymentStats = userPaymentStatsRepository.findById(userId).orElseGet(() -> new UserPaymentStats(userId));
         Map<String, Object> stats = new HashMap<>();
 
-        stats.put("totalPayments", 0);
-        stats.put("successfulPayments", 0);
-        stats.put("failedPayments", 0);
-        stats.put("totalAmount", BigDecimal.ZERO);
-        stats.put("averageAmount", BigDecimal.ZERO);
+        stats.put("totalPayments", paymentStats.getPaymentCount());
+        stats.put("successfulPayments", paymentStats.getSuccessfulCount());
+        stats.put("failedPayments", paymentStats.getFailedCount());
+        stats.put("totalAmount", paymentStats.getNetAmount());
+        stats.put("refundedAmount", paymentStats.getRefundedAmount());
+        stats.put("averageAmount", paymentStats.getSuccessfulCount() == 0 ? BigDecimal.ZERO
+                : paymentStats.getCapturedAmount().divide(BigDecimal.valueOf(paymentStats.getSuccessfulCount()), 2, RoundingMode.HALF_UP));
 
         return stats;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BigDecimal getTotalPayments(Long userId) {
-        // Calculate total payments for user
-        return BigDecimal.ZERO; // Placeholder
+        return userPaymentStatsRepository.findById(userId)
+                .map(UserPaymentStats::getNetAmount)
+                .orElse(BigDecimal.ZERO);
     }
 
     @Override
@@ -275,13 +431,116 @@ public class PaymentServiceImpl implements PaymentService {
                 handleStripeWebhook(payload, signature);
                 break;
             case "razorpay":
-                handleRazorpayWebhook(payload, signature);
+                handleRazorpayWebhook(payload, signature, null);
                 break;
             default:
                 throw new BadRequestException("Unsupported payment provider: " + provider);
         }
     }
 
+    // Joins the caller's transaction, or runs in its own when called outside one
+    private Payment recordPayment(Long userId, Long orderId, BigDecimal amount, PaymentMethod paymentMethod,
+                                  String currency, String transactionId) {
+        return transaction.execute(status -> {
+            Order order = findUserOrder(userId, orderId);
+            return paymentLedger.record(order, paymentMethod, chargeAmount(order, amount), currency, transactionId);
+        });
+    }
+
+    // Payments are always for the server-side order total; a client amount may only confirm it
+    private BigDecimal chargeAmount(Order order, BigDecimal requestedAmount) {
+        if (requestedAmount != null && requestedAmount.compareTo(order.getTotalAmount()) != 0) {
+            throw new BadRequestException("Payment amount does not match the order total");
+        }
+        return order.getTotalAmount();
+    }
+
+    private Order findUserOrder(Long userId, Long orderId) {
+        return orderRepository.findByIdAndUserId(orderId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+    }
+
+    private Map<String, String> stripeHeaders() {
+        return Map.of("Authorization", "Bearer " + stripeSecretKey);
+    }
+
+    // One key per logical call: a retried POST is not applied twice by Stripe
+    private Map<String, String> stripeIdempotentHeaders() {
+        return Map.of("Authorization", "Bearer " + stripeSecretKey, "Idempotency-Key", UUID.randomUUID().toString());
+    }
+
+    private JsonNode readGatewayResponse(PaymentGatewayClient.Response response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (JsonProcessingException e) {
+            throw new PaymentGatewayException("Malformed payment gateway response", e);
+        }
+    }
+
+    private Payment findPaymentForUpdate(String transactionId, Long orderId) {
+        Payment payment = paymentRepository.findByTransactionIdForUpdate(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Payment not found for transaction: " + transactionId));
+        if (orderId != null && !orderId.equals(payment.getOrder().getId())) {
+            throw new BadRequestException("Payment does not belong to order " + orderId);
+        }
+        return payment;
+    }
+
+    private PaymentDetails toDetails(Payment payment) {
+        return new PaymentDetails(
+                payment.getId(),
+                payment.getOrder().getId(),
+                payment.getPaymentMethod(),
+                payment.getStatus(),
+                payment.getAmount(),
+                payment.getCurrency(),
+                payment.getTransactionId(),
+                payment.getCreatedAt().toString()
+        );
+    }
+
+    private String encodeHistoryCursor(Payment payment) {
+        String position = payment.getCreatedAt() + "|" + payment.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeHistoryCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            LocalDateTime.parse(position[0]);
+            Long.parseLong(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid payment history cursor");
+        }
+    }
+
+    private JsonNode readWebhookPayload(String payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed webhook payload");
+        }
+    }
+
+    // Redeliveries carry the same event id; without one, an identical payload is the same event
+    private String webhookEventId(String eventId, String payload) {
+        if (eventId != null && !eventId.isBlank()) {
+            return eventId;
+        }
+        return DigestUtils.md5DigestAsHex(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long webhookOrderId(JsonNode orderId) {
+        if (orderId.isNumber()) {
+            return orderId.asLong();
+        }
+        if (orderId.isTextual() && orderId.asText().matches("\\d{1,18}")) {
+            return Long.parseLong(orderId.asText());
+        }
+        return null;
+    }
+
     // Helper methods for different payment types
     private PaymentResponse initiateStripePayment(Long userId, PaymentRequest request) {
         Map<String, String> stripeResponse = createStripePaymentIntent(userId, request.getOrderId(), request.getAmount());
@@ -291,7 +550,7 @@ public class PaymentServiceImpl implements PaymentService {
         additionalData.put("paymentIntentId", stripeResponse.get("paymentIntentId"));
 
         PaymentResponse response = new PaymentResponse(
-                null,
+                Long.valueOf(stripeResponse.get("paymentId")),
                 PaymentStatus.PENDING,
                 "Stripe payment intent created",
                 stripeResponse.get("paymentIntentId")
@@ -305,7 +564,7 @@ public class PaymentServiceImpl implements PaymentService {
         Map<String, Object> razorpayResponse = createRazorpayOrder(userId, request.getOrderId(), request.getAmount());
 
         PaymentResponse response = new PaymentResponse(
-                null,
+                (Long) razorpayResponse.get("paymentId"),
                 PaymentStatus.PENDING,
                 "Razorpay order created",
                 razorpayResponse.get("orderId").toString()
@@ -323,7 +582,7 @@ public class PaymentServiceImpl implements PaymentService {
         additionalData.put("orderId", paypalResponse.get("orderId"));
 
         PaymentResponse response = new PaymentResponse(
-                null,
+                Long.valueOf(paypalResponse.get("paymentId")),
                 PaymentStatus.PENDING,
                 "PayPal order created",
                 paypalResponse.get("orderId")
@@ -334,11 +593,14 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     private PaymentResponse initiateCODPayment(Long userId, PaymentRequest request) {
+        String transactionId = "cod_" + System.currentTimeMillis();
+        Payment payment = recordPayment(userId, request.getOrderId(), request.getAmount(), PaymentMethod.COD,
+                request.getCurrency(), transactionId);
         return new PaymentResponse(
-                null,
+                payment.getId(),
                 PaymentStatus.PENDING,
                 "Cash on Delivery order created",
-                "cod_" + System.currentTimeMillis()
+                transactionId
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.PaymentWebhookEvent;
+import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.entity.enums.PaymentStatus;
+import com.ecommerce.entity.enums.WebhookEventStatus;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.PaymentWebhookEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable intake for payment webhooks. The request thread only inserts the event and
+ * returns; processing runs after commit on single-threaded partitions keyed by order id,
+ * so events for one order are applied in the order they arrived. Events that miss the
+ * in-memory hand-off or fail are picked up by the sweep and retried with backoff.
+ */
+@Component
+public class PaymentWebhookQueue {
+
+    private static final Set<String> PAYMENT_SUCCEEDED_EVENTS = Set.of(
+            "payment_intent.succeeded", "charge.succeeded", "payment.captured", "order.paid");
+
+    private static final Set<String> PAYMENT_FAILED_EVENTS = Set.of(
+            "payment_intent.payment_failed", "charge.failed", "payment.failed");
+
+    @Value("${payment.webhooks.partitions:4}")
+    private int partitionCount;
+
+    @Value("${payment.webhooks.partition-queue-capacity:1000}")
+    private int partitionQueueCapacity;
+
+    @Value("${payment.webhooks.sweep-batch-size:100}")
+    private int sweepBatchSize;
+
+    @Value("${payment.webhooks.handoff-grace-seconds:60}")
+    private long handoffGraceSeconds;
+
+    @Value("${payment.webhooks.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${payment.webhooks.backoff-initial-seconds:10}")
+    private long backoffInitialSeconds;
+
+    @Value("${payment.webhooks.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${payment.webhooks.processed-retention-days:30}")
+    private long processedRetentionDays;
+
+    @Autowired
+    private PaymentWebhookEventRepository webhookEventRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentLedger paymentLedger;
+
+    @Autowired
+    private OrderEventLog orderEventLog;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private ThreadPoolExecutor[] partitions;
+
+    @PostConstruct
+    public void initPartitions() {
+        transaction = new TransactionTemplate(transactionManager);
+        partitions = new ThreadPoolExecutor[Math.max(1, partitionCount)];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, partitionQueueCapacity)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdownPartitions() {
+        for (ThreadPoolExecutor partition : partitions) {
+            partition.shutdown();
+        }
+    }
+
+    // Returns false for an event that was already received
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean enqueue(String provider, String eventId, String eventType, Long orderId, String paymentReference,
+                           String payload) {
+        LocalDateTime now = LocalDateTime.now();
+        int inserted = webhookEventRepository.insertIfAbsent(provider, eventId, eventType, orderId, paymentReference, payload,
+                now.plusSeconds(handoffGraceSeconds), now);
+        if (inserted == 0) {
+            return false;
+        }
+
+        Long id = webhookEventRepository.findIdByProviderAndEventId(provider, eventId).orElseThrow();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(id, orderId, eventId);
+            }
+        });
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.webhooks.sweep-ms:5000}")
+    public void sweepDueEvents() {
+        List<PaymentWebhookEvent> due = transaction.execute(status -> {
+            List<PaymentWebhookEvent> events = webhookEventRepository.findDueForUpdate(LocalDateTime.now(), sweepBatchSize);
+            LocalDateTime lease = LocalDateTime.now().plusSeconds(handoffGraceSeconds);
+            events.forEach(event -> event.setNextAttemptAt(lease));
+            return events;
+        });
+        for (PaymentWebhookEvent event : due) {
+            submit(event.getId(), event.getOrderId(), event.getEventId());
+        }
+    }
+
+    @Scheduled(cron = "${payment.webhooks.purge-cron:0 45 4 * * *}")
+    public void purgeProcessed() {
+        transaction.executeWithoutResult(status -> webhookEventRepository.deleteProcessedBefore(
+                LocalDateTime.now().minusDays(processedRetentionDays)));
+    }
+
+    private void submit(Long id, Long orderId, String eventId) {
+        Object key = orderId != null ? orderId : eventId;
+        try {
+            partitions[Math.floorMod(key.hashCode(), partitions.length)].execute(() -> process(id));
+        } catch (RejectedExecutionException e) {
+            // Partition is full: the sweep picks the event up once its grace period is over
+        }
+    }
+
+    // The row lock makes a duplicate submission (hand-off plus sweep) wait, then see PROCESSED
+    private void process(Long id) {
+        try {
+            transaction.executeWithoutResult(status -> webhookEventRepository.findByIdForUpdate(id)
+                    .filter(event -> event.getStatus() == WebhookEventStatus.RECEIVED)
+                    .ifPresent(this::apply));
+        } catch (RuntimeException e) {
+            recordFailure(id, e);
+        }
+    }
+
+    private void apply(PaymentWebhookEvent event) {
+        if (event.getPaymentReference() != null) {
+            if (PAYMENT_SUCCEEDED_EVENTS.contains(event.getEventType())) {
+                paymentLedger.transitionByTransactionId(event.getPaymentReference(), PaymentStatus.COMPLETED);
+            } else if (PAYMENT_FAILED_EVENTS.contains(event.getEventType())) {
+                paymentLedger.transitionByTransactionId(event.getPaymentReference(), PaymentStatus.FAILED);
+            }
+        }
+        if (event.getOrderId() != null && PAYMENT_SUCCEEDED_EVENTS.contains(event.getEventType())) {
+            BigDecimal captured = capturedAmount(event);
+            orderRepository.findById(event.getOrderId())
+                    .filter(order -> order.getStatus() == OrderStatus.PENDING)
+                    .ifPresent(order -> {
+                        // Only a capture of the full order total pays for the order
+                        if (captured == null || captured.compareTo(order.getTotalAmount()) != 0) {
+                            System.err.println("Payment webhook event " + event.getId() + " captured " + captured
+                                    + " for order " + order.getId() + " totalling " + order.getTotalAmount()
+                                    + "; order status left unchanged");
+                            return;
+                        }
+                        order.setStatus(OrderStatus.PROCESSING);
+                        orderEventLog.statusChanged(order, OrderStatus.PENDING);
+                    });
+        }
+        event.setStatus(WebhookEventStatus.PROCESSED);
+        event.setProcessedAt(LocalDateTime.now());
+    }
+
+    // Amount captured by a succeeded event, in major units; null when the payload carries none.
+    // Stripe and Razorpay both report minor units (cents, paise).
+    private BigDecimal capturedAmount(PaymentWebhookEvent event) {
+        JsonNode payload;
+        try {
+            payload = objectMapper.readTree(event.getPayload());
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+        JsonNode amount = switch (event.getEventType()) {
+            case "payment_intent.succeeded" -> payload.at("/data/object/amount_received");
+            case "charge.succeeded" -> payload.at("/data/object/amount_captured");
+            case "payment.captured" -> payload.at("/payload/payment/entity/amount");
+            case "order.paid" -> payload.at("/payload/order/entity/amount_paid");
+            default -> MissingNode.getInstance();
+        };
+        return amount.isIntegralNumber() ? BigDecimal.valueOf(amount.asLong(), 2) : null;
+    }
+
+    private void recordFailure(Long id, RuntimeException e) {
+        String error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        if (error.length() > 1000) {
+            error = error.substring(0, 1000);
+        }
+        System.err.println("Failed to process payment webhook event " + id + ": " + error);
+
+        String lastError = error;
+        transaction.executeWithoutResult(status -> webhookEventRepository.findById(id).ifPresent(event -> {
+            int attempts = event.getAttempts() + 1;
+            long backoffSeconds = Math.min(backoffMaxSeconds, backoffInitialSeconds << Math.min(attempts - 1, 20));
+            webhookEventRepository.markAttemptFailed(id,
+                    attempts >= maxAttempts ? WebhookEventStatus.FAILED : WebhookEventStatus.RECEIVED,
+                    LocalDateTime.now().plusSeconds(backoffSeconds), lastError);
+        }));
+    }
+}
@@ -0,0 +1,166 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.CartItem;
+import com.ecommerce.entity.Coupon;
+import com.ecommerce.entity.enums.CouponType;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.CouponRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prices carts for the cart views, checkout and order creation. Tax, shipping and coupon
+ * rules are compiled into an immutable plan of long minor-unit values, so pricing a cart is
+ * plain long arithmetic; the plan is recompiled and swapped in whenever the coupons table
+ * changes. Coupon usage limits in the plan are advisory, CouponRepository.redeem enforces them.
+ */
+@Component
+public class PricingEngine {
+
+    // Prices are stored with two decimals (cents)
+    private static final int MINOR_DIGITS = 2;
+    private static final long PPM = 1_000_000;
+
+    @Value("${pricing.tax-rate-percent:8.00}")
+    private BigDecimal taxRatePercent;
+
+    @Value("${pricing.shipping.free-threshold:50.00}")
+    private BigDecimal freeShippingThreshold;
+
+    @Value("${pricing.shipping.flat-rate:5.99}")
+    private BigDecimal flatShippingRate;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private volatile PricingPlan plan;
+    private volatile String couponVersion;
+
+    @PostConstruct
+    public void initPlan() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        plan = compile(List.of());
+        refreshPlan();
+    }
+
+    @Scheduled(fixedDelayString = "${pricing.plan-refresh-ms:30000}")
+    public void refreshPlan() {
+        try {
+            transaction.executeWithoutResult(status -> {
+                String version = couponRepository.findVersionStamp().token();
+                if (!version.equals(couponVersion)) {
+                    plan = compile(couponRepository.findByActiveTrue());
+                    couponVersion = version;
+                }
+            });
+        } catch (RuntimeException e) {
+            // Keep pricing with the current plan
+            System.err.println("Failed to refresh pricing plan: " + e.getMessage());
+        }
+    }
+
+    public CartPrice priceCart(List<CartItem> lines, String couponCode) {
+        PricingPlan current = plan;
+
+        long subtotal = 0;
+        for (CartItem line : lines) {
+            subtotal = Math.addExact(subtotal,
+                    Math.multiplyExact(toMinor(line.getProduct().getPrice()), line.getQuantity()));
+        }
+
+        CouponRule coupon = null;
+        long discount = 0;
+        if (couponCode != null && !couponCode.isBlank()) {
+            coupon = current.coupons().get(couponCode.trim().toUpperCase(Locale.ROOT));
+            if (coupon == null || !coupon.appliesTo(subtotal, LocalDateTime.now())) {
+                throw new BadRequestException("Coupon " + couponCode + " is not valid for this cart");
+            }
+            discount = coupon.discount(subtotal);
+        }
+
+        long discounted = subtotal - discount;
+        long tax = (Math.multiplyExact(discounted, current.taxPpm()) + PPM / 2) / PPM;
+        long shipping = (coupon != null && coupon.type() == CouponType.FREE_SHIPPING)
+                || discounted >= current.freeShippingThreshold() ? 0 : current.flatShipping();
+
+        return new CartPrice(toAmount(subtotal), toAmount(discount), toAmount(tax), toAmount(shipping),
+                toAmount(discounted + tax + shipping),
+                coupon == null ? null : coupon.id(), coupon == null ? null : coupon.code());
+    }
+
+    private PricingPlan compile(List<Coupon> coupons) {
+        Map<String, CouponRule> rules = new HashMap<>();
+        for (Coupon coupon : coupons) {
+            long value = coupon.getValue() == null ? 0
+                    : coupon.getType() == CouponType.PERCENTAGE ? toPpm(coupon.getValue()) : toMinor(coupon.getValue());
+            rules.put(coupon.getCode().toUpperCase(Locale.ROOT), new CouponRule(coupon.getId(),
+                    coupon.getCode().toUpperCase(Locale.ROOT), coupon.getType(), value,
+                    coupon.getMinimumSubtotal() == null ? 0 : toMinor(coupon.getMinimumSubtotal()),
+                    coupon.getMaxDiscount() == null ? Long.MAX_VALUE : toMinor(coupon.getMaxDiscount()),
+                    coupon.getStartsAt(), coupon.getExpiresAt(),
+                    coupon.getUsageLimit() != null && coupon.getUsedCount() >= coupon.getUsageLimit()));
+        }
+        return new PricingPlan(toPpm(taxRatePercent), toMinor(freeShippingThreshold), toMinor(flatShippingRate),
+                Map.copyOf(rules));
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(MINOR_DIGITS).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    // Percent to parts per million: 8.25 -> 82,500
+    private static long toPpm(BigDecimal percent) {
+        return percent.movePointRight(4).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, MINOR_DIGITS);
+    }
+
+    public record CartPrice(BigDecimal subtotal, BigDecimal discount, BigDecimal tax, BigDecimal shipping,
+                            BigDecimal total, Long couponId, String couponCode) {
+    }
+
+    private record PricingPlan(long taxPpm, long freeShippingThreshold, long flatShipping,
+                               Map<String, CouponRule> coupons) {
+    }
+
+    // value is parts per million for PERCENTAGE and minor units for FIXED_AMOUNT
+    private record CouponRule(Long id, String code, CouponType type, long value, long minimumSubtotal,
+                              long maxDiscount, LocalDateTime startsAt, LocalDateTime expiresAt,
+                              boolean exhausted) {
+
+        private boolean appliesTo(long subtotal, LocalDateTime now) {
+            return !exhausted && subtotal >= minimumSubtotal
+                    && (startsAt == null || !now.isBefore(startsAt))
+                    && (expiresAt == null || now.isBefore(expiresAt));
+        }
+
+        private long discount(long subtotal) {
+            long discount = switch (type) {
+                case PERCENTAGE -> Math.min((Math.multiplyExact(subtotal, value) + PPM / 2) / PPM, maxDiscount);
+                case FIXED_AMOUNT -> value;
+                case FREE_SHIPPING -> 0;
+            };
+            return Math.min(discount, subtotal);
+        }
+    }
+}
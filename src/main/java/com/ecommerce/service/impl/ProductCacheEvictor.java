@@ -0,0 +1,54 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.config.HibernateCacheConfig;
+import com.ecommerce.entity.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cache eviction for product rows written with plain JDBC (catalog import, stock
+ * adjustments), which Hibernate does not see: the second-level cache entries of the
+ * products and the cached listing queries are dropped after the transaction commits, and
+ * the product pages are invalidated.
+ */
+@Component
+public class ProductCacheEvictor {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductPageCache productPageCache;
+
+    public void evictAfterCommit(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        Runnable evict = () -> {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            ids.forEach(id -> cache.evictEntityData(Product.class, id));
+            cache.evictQueryRegion(HibernateCacheConfig.PRODUCT_LISTINGS_REGION);
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+        ids.forEach(productPageCache::invalidate);
+    }
+}
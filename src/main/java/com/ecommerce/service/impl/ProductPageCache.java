@@ -0,0 +1,82 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.controller.ProductController.ProductPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Short-lived cache of assembled product pages, keyed by product id plus a per-product
+ * version. Product and review writes bump the version after commit, so a page assembled
+ * from data read before the write can never be served once the write is visible.
+ */
+@Component
+public class ProductPageCache {
+
+    @Value("${product.page-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${product.page-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final ConcurrentMap<Long, Long> versions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public long currentVersion(Long productId) {
+        return versions.getOrDefault(productId, 0L);
+    }
+
+    public ProductPage get(Long productId, long version) {
+        Entry entry = entries.get(productId);
+        if (entry == null || entry.version != version || entry.expiresAt < System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.page;
+    }
+
+    public void put(Long productId, long version, ProductPage page) {
+        if (ttlSeconds <= 0 || currentVersion(productId) != version) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(productId, new Entry(version, System.currentTimeMillis() + ttlSeconds * 1000, page));
+    }
+
+    public void invalidate(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(productId);
+                }
+            });
+        } else {
+            evict(productId);
+        }
+    }
+
+    private void evict(Long productId) {
+        versions.merge(productId, 1L, Long::sum);
+        entries.remove(productId);
+    }
+
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt < now);
+    }
+
+    private record Entry(long version, long expiresAt, ProductPage page) {
+    }
+}
@@ -1,20 +1,61 @@
 package com.ecommerce.service.impl;
 
+import com.ecommerce.controller.ProductController.ProductPage;
+import com.ecommerce.controller.ProductController.StorefrontList;
+import com.ecommerce.controller.ReviewController.ReviewStats;
+import com.ecommerce.controller.ReviewController.ReviewSummary;
+import com.ecommerce.controller.admin.AdminProductController.StockAdjustment;
+import com.ecommerce.controller.admin.AdminProductController.StockAdjustmentsResponse;
+import com.ecommerce.dto.mapper.ProductMapper;
+import com.ecommerce.dto.response.ProductResponse;
+import com.ecommerce.dto.response.ProductCardResponse;
 import com.ecommerce.entity.Product;
+import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
+import com.ecommerce.repository.CategoryRepository;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductStockRow;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.service.ReviewService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -23,15 +64,87 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ProductPageCache productPageCache;
+
+    @Autowired
+    private ProductMapper productMapper;
+
+    @Autowired
+    private StorefrontListCache storefrontListCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StockLevelIndex stockLevelIndex;
+
+    @Autowired
+    private ProductCacheEvictor productCacheEvictor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${stock.adjustments.max-per-request:10000}")
+    private int maxStockAdjustments;
+
+    @Value("${stock.adjustments.batch-size:500}")
+    private int stockAdjustmentBatchSize;
+
+    @Value("${product.page.related-limit:5}")
+    private int pageRelatedLimit;
+
+    @Value("${product.page.loader-threads:8}")
+    private int pageLoaderThreads;
+
+    @Value("${product.page.load-timeout-ms:5000}")
+    private long pageLoadTimeoutMs;
+
+    @Value("${storefront.list-cache.max-limit:50}")
+    private int storefrontMaxLimit;
+
+    @Value("${storefront.list-cache.warm-limits:10}")
+    private List<Integer> storefrontWarmLimits;
+
+    private ExecutorService pageLoader;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    public void initPageLoader() {
+        pageLoader = Executors.newFixedThreadPool(Math.max(1, pageLoaderThreads));
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    public void shutdownPageLoader() {
+        pageLoader.shutdown();
+    }
+
     @Override
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        stockLevelIndex.update(savedProduct);
+        return savedProduct;
     }
 
     @Override
     public Product updateProduct(Long id, Product product) {
-        Product existingProduct = productRepository.findById(id)
+        Product existingProduct = productRepository.findDetailById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        boolean wasActive = Boolean.TRUE.equals(existingProduct.getActive());
+        boolean wasFeatured = Boolean.TRUE.equals(existingProduct.getFeatured());
 
         existingProduct.setName(product.getName());
         existingProduct.setDescription(product.getDescription());
@@ -50,14 +163,19 @@ public class ProductServiceImpl implements ProductService {
         existingProduct.setMetaTitle(product.getMetaTitle());
         existingProduct.setMetaDescription(product.getMetaDescription());
         existingProduct.setSearchKeywords(product.getSearchKeywords());
+        // The next catalog import re-applies its row for this SKU
+        existingProduct.setContentHash(null);
 
+        productPageCache.invalidate(id);
+        refreshStorefrontLists(existingProduct, wasActive, wasFeatured);
+        stockLevelIndex.update(existingProduct);
         return productRepository.save(existingProduct);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        return findDetail(id);
     }
 
     @Override
@@ -65,6 +183,9 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
         productRepository.delete(product);
+        productPageCache.invalidate(id);
+        storefrontListCache.refreshContaining(id);
+        stockLevelIndex.remove(id);
     }
 
     @Override
@@ -83,7 +204,7 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional(readOnly = true)
     public Page<Product> getProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable);
+        return productRepository.findActiveInCategoryTree(categoryId, pageable);
     }
 
     @Override
@@ -104,26 +225,82 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     public List<Product> getBestSellingProducts(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        return productRepository.findBestSellingProducts(pageable);
+        return fetchCategories(productRepository.findBestSellingProducts(pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> getRelatedProducts(Long productId, int limit) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
-
         Pageable pageable = PageRequest.of(0, limit);
-        return productRepository.findRelatedProducts(product.getCategory().getId(), productId, pageable);
+        return productRepository.findRelatedToProduct(productId, pageable);
     }
 
     @Override
-    public void incrementViewCount(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ProductPage getProductPage(Long productId) {
+        long version = productPageCache.currentVersion(productId);
+        ProductPage cached = productPageCache.get(productId, version);
+        if (cached != null) {
+            return cached;
+        }
 
-        product.setViewCount(product.getViewCount() + 1);
-        productRepository.save(product);
+        // Independent parts load concurrently, each in its own read-only transaction
+        CompletableFuture<ProductResponse> product = loadAsync(() -> findDetail(productId)
+                .map(productMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId)));
+        CompletableFuture<List<ProductCardResponse>> related = loadAsync(() -> productMapper.toCards(
+                productRepository.findRelatedToProduct(productId, PageRequest.of(0, pageRelatedLimit))));
+        CompletableFuture<ReviewStats> stats = loadAsync(() -> reviewService.getReviewStats(productId));
+        CompletableFuture<ReviewSummary> summary = stats.thenComposeAsync(
+                s -> loadAsync(() -> reviewService.getReviewSummary(productId, s)), pageLoader);
+
+        try {
+            CompletableFuture.allOf(product, related, stats, summary)
+                    .get(pageLoadTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out loading product page for product id: " + productId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading product page for product id: " + productId);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to load product page for product id: " + productId, e.getCause());
+        }
+
+        ProductPage page = new ProductPage(product.join(), related.join(), summary.join(), stats.join());
+        productPageCache.put(productId, version, page);
+        return page;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public byte[] getStorefrontList(StorefrontList list, int limit) {
+        int size = Math.max(1, Math.min(limit, storefrontMaxLimit));
+        return storefrontListCache.get(list, size, () -> loadStorefrontList(list, size));
+    }
+
+    // Load the default storefront lists before the first visitor asks for them
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmStorefrontLists() {
+        for (StorefrontList list : StorefrontList.values()) {
+            for (int limit : storefrontWarmLimits) {
+                try {
+                    getStorefrontList(list, limit);
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to warm storefront list " + list + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void incrementViewCount(Long productId) {
+        // Single UPDATE; view counts are deliberately not a cache-invalidating write
+        if (productRepository.incrementViewCount(productId) == 0) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
     }
 
     @Override
@@ -133,19 +310,26 @@ public class ProductServiceImpl implements ProductService {
 
         product.setAvgRating(newRating);
         product.setReviewCount(reviewCount);
+        productPageCache.invalidate(productId);
         productRepository.save(product);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> getLowStockProducts() {
-        return productRepository.findLowStockProducts();
+        // The index may lag writes from other nodes; the loaded rows have the final say
+        return productRepository.findWithCategoryByIdIn(stockLevelIndex.lowStockIds()).stream()
+                .filter(product -> StockLevelIndex.isLowStock(product.getStockQuantity(),
+                        product.getLowStockThreshold(), product.getTrackQuantity(), product.getActive()))
+                .toList();
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Product> getOutOfStockProducts() {
-        return productRepository.findByStockQuantityAndTrackQuantityTrue(0);
+        return productRepository.findWithCategoryByIdIn(stockLevelIndex.outOfStockIds()).stream()
+                .filter(product -> StockLevelIndex.isOutOfStock(product.getStockQuantity(), product.getTrackQuantity()))
+                .toList();
     }
 
     @Override
@@ -154,9 +338,53 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
         product.setStockQuantity(quantity);
+        productPageCache.invalidate(productId);
+        stockLevelIndex.update(product);
         productRepository.save(product);
     }
 
+    // Not one transaction for the whole request: each batch commits on its own, so row locks are
+    // held for one batch at a time and a failed batch does not undo the ones before it
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StockAdjustmentsResponse adjustStock(List<StockAdjustment> adjustments) {
+        if (adjustments == null || adjustments.isEmpty()) {
+            throw new BadRequestException("adjustments are required");
+        }
+        if (adjustments.size() > maxStockAdjustments) {
+            throw new BadRequestException("At most " + maxStockAdjustments + " stock adjustments can be applied at once");
+        }
+
+        StockAdjustmentsResponse response = new StockAdjustmentsResponse();
+        Map<String, List<StockAdjustment>> bySku = new LinkedHashMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            String sku = adjustment.getSku() == null ? "" : adjustment.getSku().trim();
+            if (sku.isEmpty()) {
+                response.reject(adjustment.getSku(), "sku is required");
+            } else if ((adjustment.getDelta() == null) == (adjustment.getQuantity() == null)) {
+                response.reject(sku, "Exactly one of delta and quantity is required");
+            } else if (adjustment.getQuantity() != null && adjustment.getQuantity() < 0) {
+                response.reject(sku, "quantity cannot be negative");
+            } else {
+                bySku.computeIfAbsent(sku, key -> new ArrayList<>()).add(adjustment);
+            }
+        }
+
+        List<String> skus = new ArrayList<>(bySku.keySet());
+        for (int from = 0; from < skus.size(); from += stockAdjustmentBatchSize) {
+            List<String> batch = skus.subList(from, Math.min(from + stockAdjustmentBatchSize, skus.size()));
+            StockAdjustmentsResponse batchResponse = new StockAdjustmentsResponse();
+            try {
+                transaction.executeWithoutResult(status -> adjustStockBatch(batch, bySku, batchResponse));
+                response.merge(batchResponse);
+            } catch (DataAccessException | TransactionException e) {
+                System.err.println("Stock adjustment batch failed: " + e.getMessage());
+                batch.forEach(sku -> response.reject(sku, "Batch failed and was rolled back"));
+            }
+        }
+        return response;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public boolean isInStock(Long productId, int quantity) {
@@ -170,46 +398,54 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Product addProductImage(Long productId, String imageUrl) {
-        Product product = productRepository.findById(productId)
+        Product product = productRepository.findDetailById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
         product.getImages().add(imageUrl);
+        productPageCache.invalidate(productId);
         return productRepository.save(product);
     }
 
     @Override
     public Product removeProductImage(Long productId, String imageUrl) {
-        Product product = productRepository.findById(productId)
+        Product product = productRepository.findDetailById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
         product.getImages().remove(imageUrl);
+        productPageCache.invalidate(productId);
         return productRepository.save(product);
     }
 
     @Override
     public Product setMainImage(Long productId, String imageUrl) {
-        Product product = productRepository.findById(productId)
+        Product product = productRepository.findDetailById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
         product.setImageUrl(imageUrl);
+        productPageCache.invalidate(productId);
         return productRepository.save(product);
     }
 
     @Override
     public Product toggleProductStatus(Long productId) {
-        Product product = productRepository.findById(productId)
+        Product product = productRepository.findDetailById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
         product.setActive(!product.getActive());
+        productPageCache.invalidate(productId);
+        stockLevelIndex.update(product);
+        refreshStorefrontLists(product, !product.getActive(), product.getFeatured());
         return productRepository.save(product);
     }
 
     @Override
     public Product toggleFeaturedStatus(Long productId) {
-        Product product = productRepository.findById(productId)
+        Product product = productRepository.findDetailById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
         product.setFeatured(!product.getFeatured());
+        productPageCache.invalidate(productId);
+        refreshStorefrontLists(product, product.getActive(), !product.getFeatured());
         return productRepository.save(product);
     }
 
@@ -228,6 +464,13 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getCatalogVersion() {
+        // Listings embed the category reference, so category writes count as well
+        return productRepository.findVersionStamp().token() + "/" + categoryRepository.findVersionStamp().token();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Product> getTrendingProducts(int limit) {
@@ -239,6 +482,107 @@ public class ProductServiceImpl implements ProductService {
     @Transactional(readOnly = true)
     public List<Product> getRecommendedProducts(Long userId, int limit) {
         Pageable pageable = PageRequest.of(0, limit);
-        return productRepository.findRecommendedProducts(userId, pageable);
+        return fetchCategories(productRepository.findRecommendedProducts(userId, pageable));
+    }
+
+    private <T> CompletableFuture<T> loadAsync(Supplier<T> loader) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> loader.get()), pageLoader);
+    }
+
+    // Runs on request and refresh threads alike, each load in its own read-only transaction
+    private StorefrontListCache.Snapshot loadStorefrontList(StorefrontList list, int limit) {
+        List<ProductCardResponse> products = readOnlyTransaction.execute(status -> productMapper.toCards(
+                switch (list) {
+                    case FEATURED -> getFeaturedProducts(limit);
+                    case LATEST -> getLatestProducts(limit);
+                    case BEST_SELLING -> getBestSellingProducts(limit);
+                    case TRENDING -> getTrendingProducts(limit);
+                }));
+
+        Set<Long> productIds = products.stream().map(ProductCardResponse::getId).collect(Collectors.toSet());
+        try {
+            return new StorefrontListCache.Snapshot(objectMapper.writeValueAsBytes(products), productIds);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize storefront list " + list, e);
+        }
+    }
+
+    // Runs in its own transaction. Row locks, taken in id order, keep the quantities read here
+    // valid for the batched update, which adds the net change per SKU to the stored quantity
+    private void adjustStockBatch(List<String> skus, Map<String, List<StockAdjustment>> bySku,
+                                  StockAdjustmentsResponse response) {
+        Map<String, ProductStockRow> rows = productRepository.findStockRowsForUpdate(skus).stream()
+                .collect(Collectors.toMap(ProductStockRow::getSku, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> updates = new ArrayList<>();
+        List<Long> changedIds = new ArrayList<>();
+
+        for (String sku : skus) {
+            ProductStockRow row = rows.get(sku);
+            if (row == null) {
+                response.reject(sku, "Product not found");
+                continue;
+            }
+            int previous = row.getStockQuantity() == null ? 0 : row.getStockQuantity();
+            long quantity = previous;
+            for (StockAdjustment adjustment : bySku.get(sku)) {
+                quantity = adjustment.getQuantity() != null ? adjustment.getQuantity() : quantity + adjustment.getDelta();
+            }
+            if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+                response.reject(sku, "Adjustments would take stock from " + previous + " to " + quantity);
+                continue;
+            }
+
+            int newQuantity = (int) quantity;
+            if (newQuantity != previous) {
+                updates.add(new Object[]{newQuantity - previous, now, row.getId()});
+                changedIds.add(row.getId());
+                stockLevelIndex.update(row.getId(), newQuantity, row.getLowStockThreshold(), row.getTrackQuantity(),
+                        row.getActive());
+            }
+            response.apply(sku, previous, newQuantity,
+                    StockLevelIndex.isLowStock(newQuantity, row.getLowStockThreshold(), row.getTrackQuantity(),
+                            row.getActive()),
+                    StockLevelIndex.isOutOfStock(newQuantity, row.getTrackQuantity()));
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE products SET stock_quantity = COALESCE(stock_quantity, 0) + ?, "
+                    + "updated_at = ? WHERE id = ?", updates);
+            productCacheEvictor.evictAfterCommit(changedIds);
+            changedIds.forEach(storefrontListCache::refreshContaining);
+        }
+    }
+
+    // Lists holding the product are reloaded; all lists (or the featured ones) only when
+    // the product may have just entered them by being activated (or featured)
+    private void refreshStorefrontLists(Product product, boolean wasActive, boolean wasFeatured) {
+        boolean active = Boolean.TRUE.equals(product.getActive());
+        boolean featured = Boolean.TRUE.equals(product.getFeatured());
+
+        if (active && !wasActive) {
+            storefrontListCache.refreshAll();
+        } else if (active && featured && !wasFeatured) {
+            storefrontListCache.refreshList(StorefrontList.FEATURED);
+        }
+        storefrontListCache.refreshContaining(product.getId());
+    }
+
+    // Detail read by id: product, category and image collection are all served from the
+    // second-level cache when present (a fetch-join query would always go to the database)
+    private Optional<Product> findDetail(Long id) {
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(p -> {
+            Hibernate.initialize(p.getCategory());
+            Hibernate.initialize(p.getImages());
+        });
+        return product;
+    }
+
+    // Loads the categories of a result list whose query cannot carry an entity graph
+    // (GROUP BY / DISTINCT); with batch fetching this is a single IN query
+    private List<Product> fetchCategories(List<Product> products) {
+        products.forEach(product -> Hibernate.initialize(product.getCategory()));
+        return products;
     }
 }
\ No newline at end of file
@@ -3,16 +3,19 @@ package com.ecommerce.service.impl;
 import com.ecommerce.controller.ReviewController.ReviewStats;
 import com.ecommerce.controller.ReviewController.ReviewSummary;
 import com.ecommerce.entity.Product;
+import com.ecommerce.entity.ProductReviewStats;
 import com.ecommerce.entity.Review;
 import com.ecommerce.entity.User;
 import com.ecommerce.exception.BadRequestException;
 import com.ecommerce.exception.ResourceNotFoundException;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductReviewStatsRepository;
 import com.ecommerce.repository.ReviewRepository;
 import com.ecommerce.repository.UserRepository;
-import com.ecommerce.service.ProductService;
 import com.ecommerce.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -40,7 +43,10 @@ public class ReviewServiceImpl implements ReviewService {
     private ProductRepository productRepository;
 
     @Autowired
-    private ProductService productService;
+    private ProductReviewStatsRepository productReviewStatsRepository;
+
+    @Autowired
+    private ProductPageCache productPageCache;
 
     @Override
     public Review createReview(Long userId, Long productId, int rating, String comment) {
@@ -69,7 +75,7 @@ public class ReviewServiceImpl implements ReviewService {
         Review savedReview = reviewRepository.save(review);
 
         // Update product rating
-        updateProductRating(productId);
+        updateProductRating(productId, 0, rating);
 
         return savedReview;
     }
@@ -87,13 +93,18 @@ public class ReviewServiceImpl implements ReviewService {
             throw new BadRequestException("You can only update your own reviews");
         }
 
+        int previousRating = review.getRating();
         review.setRating(rating);
         review.setComment(comment);
 
         Review updatedReview = reviewRepository.save(review);
 
         // Update product rating
-        updateProductRating(review.getProduct().getId());
+        if (previousRating != rating) {
+            updateProductRating(review.getProduct().getId(), previousRating, rating);
+        } else {
+            productPageCache.invalidate(review.getProduct().getId());
+        }
 
         return updatedReview;
     }
@@ -108,10 +119,11 @@ public class ReviewServiceImpl implements ReviewService {
         }
 
         Long productId = review.getProduct().getId();
+        int rating = review.getRating();
         reviewRepository.delete(review);
 
         // Update product rating
-        updateProductRating(productId);
+        updateProductRating(productId, rating, 0);
     }
 
     @Override
@@ -144,37 +156,31 @@ public class ReviewServiceImpl implements ReviewService {
 
     @Override
     @Transactional(readOnly = true)
-    public ReviewStats getReviewStats(Long productId) {
-        Double averageRating = reviewRepository.getAverageRatingByProductId(productId);
-        Long totalReviews = reviewRepository.getReviewCountByProductId(productId);
-
-        List<Object[]> distributionData = reviewRepository.getRatingDistribution(productId);
-        Map<Integer, Integer> ratingDistribution = new HashMap<>();
-
-        // Initialize all ratings to 0
-        for (int i = 1; i <= 5; i++) {
-            ratingDistribution.put(i, 0);
-        }
+    public String getProductReviewsVersion(Long productId) {
+        return reviewRepository.findVersionStampByProductId(productId).token();
+    }
 
-        // Fill in actual data
-        for (Object[] data : distributionData) {
-            Integer rating = (Integer) data[0];
-            Long count = (Long) data[1];
-            ratingDistribution.put(rating, count.intValue());
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public ReviewStats getReviewStats(Long productId) {
+        ProductReviewStats stats = getStatsRow(productId);
 
         return new ReviewStats(
-                averageRating != null ? averageRating : 0.0,
-                totalReviews != null ? totalReviews.intValue() : 0,
-                ratingDistribution
+                stats.getAverageRating(),
+                (int) stats.getTotalReviews(),
+                stats.getRatingDistribution()
         );
     }
 
     @Override
     @Transactional(readOnly = true)
     public ReviewSummary getReviewSummary(Long productId) {
-        ReviewStats stats = getReviewStats(productId);
+        return getReviewSummary(productId, getReviewStats(productId));
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public ReviewSummary getReviewSummary(Long productId, ReviewStats stats) {
         // Get featured reviews (high rating with good comments)
         Pageable featuredPageable = PageRequest.of(0, 3);
         List<Review> featuredReviews = reviewRepository.findFeaturedReviews(productId, featuredPageable);
@@ -205,15 +211,13 @@ public class ReviewServiceImpl implements ReviewService {
     @Override
     @Transactional(readOnly = true)
     public double getAverageRating(Long productId) {
-        Double average = reviewRepository.getAverageRatingByProductId(productId);
-        return average != null ? average : 0.0;
+        return getStatsRow(productId).getAverageRating();
     }
 
     @Override
     @Transactional(readOnly = true)
     public int getTotalReviewCount(Long productId) {
-        Long count = reviewRepository.getReviewCountByProductId(productId);
-        return count != null ? count.intValue() : 0;
+        return (int) getStatsRow(productId).getTotalReviews();
     }
 
     @Override
@@ -296,18 +300,40 @@ public class ReviewServiceImpl implements ReviewService {
     @Override
     public void deleteReviewsByProduct(Long productId) {
         reviewRepository.deleteByProductId(productId);
+        productReviewStatsRepository.deleteByProductId(productId);
+        productRepository.refreshRatingFromStats(productId);
+        productPageCache.invalidate(productId);
     }
 
     @Override
     public void deleteReviewsByUser(Long userId) {
+        List<Object[]> productRatings = reviewRepository.findProductRatingsByUserId(userId);
         reviewRepository.deleteByUserId(userId);
+
+        for (Object[] productRating : productRatings) {
+            updateProductRating((Long) productRating[0], (Integer) productRating[1], 0);
+        }
     }
 
-    // Helper method to update product rating
-    private void updateProductRating(Long productId) {
-        double averageRating = getAverageRating(productId);
-        int reviewCount = getTotalReviewCount(productId);
+    // Seed review stats for reviews written before product_review_stats existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillReviewStats() {
+        if (productReviewStatsRepository.count() == 0 && reviewRepository.count() > 0) {
+            productReviewStatsRepository.backfillFromReviews();
+        }
+    }
+
+    // Helper method to update product rating: one atomic delta on the stats row,
+    // then the denormalized avg/count on the product copied from it
+    private void updateProductRating(Long productId, int oldRating, int newRating) {
+        productReviewStatsRepository.ensureExists(productId);
+        productReviewStatsRepository.applyRatingChange(productId, oldRating, newRating);
+        productRepository.refreshRatingFromStats(productId);
+        productPageCache.invalidate(productId);
+    }
 
-        productService.updateRating(productId, averageRating, reviewCount);
+    private ProductReviewStats getStatsRow(Long productId) {
+        return productReviewStatsRepository.findById(productId)
+                .orElseGet(() -> new ProductReviewStats(productId));
     }
 }
\ No newline at end of file
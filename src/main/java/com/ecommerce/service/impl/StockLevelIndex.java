@@ -0,0 +1,150 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Ids of the products on the low-stock and out-of-stock lists, so the lists are not a table
+ * scan per read. Stock writes on this node move products in and out after they commit; the
+ * sets are also rebuilt from the table on a schedule, which picks up writes from other nodes.
+ * Membership matches the list queries: low stock is tracked, active and at or below the
+ * threshold, out of stock is tracked with nothing left.
+ */
+@Component
+public class StockLevelIndex {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Object lock = new Object();
+    private TransactionTemplate transaction;
+    private Set<Long> lowStock = new HashSet<>();
+    private Set<Long> outOfStock = new HashSet<>();
+    // Non-null while a rebuild runs: changes it may have read too early, re-applied on swap
+    private Map<Long, Level> changedDuringRebuild;
+
+    @PostConstruct
+    public void initIndex() {
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${stock.level-index.rebuild-ms:600000}")
+    public void rebuild() {
+        synchronized (lock) {
+            changedDuringRebuild = new HashMap<>();
+        }
+        try {
+            Set<Long> low = new HashSet<>(transaction.execute(status -> productRepository.findLowStockIds()));
+            Set<Long> out = new HashSet<>(transaction.execute(status -> productRepository.findOutOfStockIds()));
+            synchronized (lock) {
+                changedDuringRebuild.forEach((id, level) -> apply(low, out, id, level));
+                lowStock = low;
+                outOfStock = out;
+            }
+        } catch (RuntimeException e) {
+            // Keep serving the current sets
+            System.err.println("Failed to rebuild stock level index: " + e.getMessage());
+        } finally {
+            synchronized (lock) {
+                changedDuringRebuild = null;
+            }
+        }
+    }
+
+    public static boolean isLowStock(Integer stockQuantity, Integer lowStockThreshold, Boolean trackQuantity,
+                                     Boolean active) {
+        return Boolean.TRUE.equals(trackQuantity) && Boolean.TRUE.equals(active)
+                && stockQuantity != null && lowStockThreshold != null && stockQuantity <= lowStockThreshold;
+    }
+
+    public static boolean isOutOfStock(Integer stockQuantity, Boolean trackQuantity) {
+        return Boolean.TRUE.equals(trackQuantity) && stockQuantity != null && stockQuantity == 0;
+    }
+
+    public void update(Product product) {
+        update(product.getId(), product.getStockQuantity(), product.getLowStockThreshold(),
+                product.getTrackQuantity(), product.getActive());
+    }
+
+    public void update(Long productId, Integer stockQuantity, Integer lowStockThreshold, Boolean trackQuantity,
+                       Boolean active) {
+        afterCommit(productId, new Level(isLowStock(stockQuantity, lowStockThreshold, trackQuantity, active),
+                isOutOfStock(stockQuantity, trackQuantity)));
+    }
+
+    public void remove(Long productId) {
+        afterCommit(productId, new Level(false, false));
+    }
+
+    public List<Long> lowStockIds() {
+        synchronized (lock) {
+            return List.copyOf(lowStock);
+        }
+    }
+
+    public List<Long> outOfStockIds() {
+        synchronized (lock) {
+            return List.copyOf(outOfStock);
+        }
+    }
+
+    private void afterCommit(Long productId, Level level) {
+        if (productId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    set(productId, level);
+                }
+            });
+        } else {
+            set(productId, level);
+        }
+    }
+
+    private void set(Long productId, Level level) {
+        synchronized (lock) {
+            apply(lowStock, outOfStock, productId, level);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(productId, level);
+            }
+        }
+    }
+
+    private static void apply(Set<Long> low, Set<Long> out, Long productId, Level level) {
+        if (level.lowStock()) {
+            low.add(productId);
+        } else {
+            low.remove(productId);
+        }
+        if (level.outOfStock()) {
+            out.add(productId);
+        } else {
+            out.remove(productId);
+        }
+    }
+
+    private record Level(boolean lowStock, boolean outOfStock) {
+    }
+}
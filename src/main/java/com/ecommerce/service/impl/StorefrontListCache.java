@@ -0,0 +1,180 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.controller.ProductController.StorefrontList;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Pre-serialized JSON of the storefront product lists, keyed by list and limit.
+ * Entries are reloaded in the background before they expire (refresh-ahead), and
+ * product writes mark affected entries stale after commit; readers keep getting the
+ * previous bytes until the reload lands, so only a never-seen key is loaded inline.
+ */
+@Component
+public class StorefrontListCache {
+
+    @Value("${storefront.list-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${storefront.list-cache.refresh-ahead-seconds:60}")
+    private long refreshAheadSeconds;
+
+    @Value("${storefront.list-cache.idle-seconds:3600}")
+    private long idleSeconds;
+
+    @Value("${storefront.list-cache.refresh-threads:2}")
+    private int refreshThreads;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private ExecutorService refresher;
+
+    @PostConstruct
+    public void initRefresher() {
+        refresher = Executors.newFixedThreadPool(Math.max(1, refreshThreads));
+    }
+
+    @PreDestroy
+    public void shutdownRefresher() {
+        refresher.shutdown();
+    }
+
+    public byte[] get(StorefrontList list, int limit, Supplier<Snapshot> loader) {
+        Entry entry = entries.computeIfAbsent(list.name() + ":" + limit, key -> new Entry(list, loader));
+        long now = System.currentTimeMillis();
+        entry.lastAccess = now;
+
+        Snapshot snapshot = entry.snapshot;
+        if (snapshot == null || isExpired(entry, now)) {
+            // Never loaded, or background refreshes have been failing past the TTL
+            synchronized (entry) {
+                if (entry.snapshot == null || isExpired(entry, System.currentTimeMillis())) {
+                    load(entry);
+                }
+                return entry.snapshot.json();
+            }
+        }
+        if (entry.stale || isDue(entry, now)) {
+            refreshAsync(entry);
+        }
+        return snapshot.json();
+    }
+
+    public void refreshList(StorefrontList list) {
+        refreshAfterCommit(entry -> entry.list == list);
+    }
+
+    public void refreshContaining(Long productId) {
+        refreshAfterCommit(entry -> {
+            Snapshot snapshot = entry.snapshot;
+            return snapshot != null && snapshot.productIds().contains(productId);
+        });
+    }
+
+    public void refreshAll() {
+        refreshAfterCommit(entry -> true);
+    }
+
+    @Scheduled(fixedDelayString = "${storefront.list-cache.sweep-ms:5000}")
+    public void refreshDueEntries() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> now - entry.lastAccess > idleSeconds * 1000);
+        for (Entry entry : entries.values()) {
+            if (entry.stale || isDue(entry, now)) {
+                refreshAsync(entry);
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.loadedAt > ttlSeconds * 1000;
+    }
+
+    private boolean isDue(Entry entry, long now) {
+        return now - entry.loadedAt > (ttlSeconds - refreshAheadSeconds) * 1000;
+    }
+
+    private void refreshAfterCommit(Predicate<Entry> affected) {
+        Runnable refresh = () -> entries.values().stream().filter(affected).forEach(entry -> {
+            entry.generation.incrementAndGet();
+            entry.stale = true;
+            refreshAsync(entry);
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh.run();
+                }
+            });
+        } else {
+            refresh.run();
+        }
+    }
+
+    private void refreshAsync(Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                load(entry);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to refresh storefront list " + entry.list + ": " + e.getMessage());
+            } finally {
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    // A write that lands while the loader runs bumps the generation; the result is then
+    // reloaded so a list read before the commit never replaces one marked stale by it
+    private void load(Entry entry) {
+        synchronized (entry) {
+            for (int attempt = 0; attempt < 3; attempt++) {
+                long generation = entry.generation.get();
+                Snapshot snapshot = entry.loader.get();
+                entry.snapshot = snapshot;
+                entry.loadedAt = System.currentTimeMillis();
+                if (entry.generation.get() == generation) {
+                    entry.stale = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    public record Snapshot(byte[] json, Set<Long> productIds) {
+    }
+
+    private static class Entry {
+        private final StorefrontList list;
+        private final Supplier<Snapshot> loader;
+        private final AtomicLong generation = new AtomicLong();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile Snapshot snapshot;
+        private volatile long loadedAt;
+        private volatile long lastAccess;
+        private volatile boolean stale;
+
+        private Entry(StorefrontList list, Supplier<Snapshot> loader) {
+            this.list = list;
+            this.loader = loader;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.util;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Weak ETags for conditional GETs. Validators are derived from what identifies a
+ * representation's version (entity id plus updatedAt, a table version, cached bytes),
+ * so If-None-Match can be answered before anything is mapped or serialized.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String weak(Object... versionParts) {
+        String version = Arrays.stream(versionParts)
+                .map(String::valueOf)
+                .collect(Collectors.joining("|"));
+        return weak(version.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String weak(byte[] content) {
+        return "W/\"" + DigestUtils.md5DigestAsHex(content) + "\"";
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.util;
+
+/**
+ * Simple token bucket used to throttle background disk work (e.g. storage cleanup)
+ * so it does not compete with request-serving I/O.
+ * Both an operations-per-second and a bytes-per-second budget are enforced.
+ */
+public class IoBudget {
+
+    private final long opsPerSecond;
+    private final long bytesPerSecond;
+
+    private double availableOps;
+    private double availableBytes;
+    private long lastRefillNanos;
+
+    public IoBudget(long opsPerSecond, long bytesPerSecond) {
+        this.opsPerSecond = Math.max(1, opsPerSecond);
+        this.bytesPerSecond = Math.max(1, bytesPerSecond);
+        this.availableOps = this.opsPerSecond;
+        this.availableBytes = this.bytesPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Blocks until one operation touching the given number of bytes fits in the budget.
+     * Returns false if the calling thread was interrupted while waiting.
+     */
+    public synchronized boolean acquire(long bytes) {
+        // A single file larger than one second of budget is charged as a full second
+        long cost = Math.min(Math.max(0, bytes), bytesPerSecond);
+
+        while (true) {
+            refill();
+            if (availableOps >= 1 && availableBytes >= cost) {
+                availableOps -= 1;
+                availableBytes -= cost;
+                return true;
+            }
+
+            double opsWait = availableOps >= 1 ? 0 : (1 - availableOps) / opsPerSecond;
+            double bytesWait = availableBytes >= cost ? 0 : (cost - availableBytes) / bytesPerSecond;
+            long waitMillis = Math.max(1, (long) Math.ceil(Math.max(opsWait, bytesWait) * 1000));
+
+            try {
+                wait(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+        lastRefillNanos = now;
+
+        availableOps = Math.min(opsPerSecond, availableOps + elapsedSeconds * opsPerSecond);
+        availableBytes = Math.min(bytesPerSecond, availableBytes + elapsedSeconds * bytesPerSecond);
+    }
+}
@@ -0,0 +1,151 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.controller.OrderController.CreateOrderRequest;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.enums.Role;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.CategoryService;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.support.StatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for the endpoints that map entities to DTOs inside explicit fetch plans.
+ * Each request runs against cold caches, with more rows than one, so an N+1 shows up as a
+ * budget overrun rather than passing with a single row.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointQueryCountTest {
+
+    private static final int LINES = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private User customer;
+    private User admin;
+    private String emailTag;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        emailTag = UUID.randomUUID().toString().substring(0, 8);
+        customer = saveUser("customer-" + emailTag + "@example.com", Role.ROLE_USER);
+        admin = saveUser("admin-" + emailTag + "@example.com", Role.ROLE_ADMIN);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Category category = categoryService.createCategory(new Category("Category " + emailTag + i, "d"));
+            Product product = new Product("Product " + emailTag + i, "d", new BigDecimal("10.00"));
+            product.setCategory(category);
+            product.setStockQuantity(100);
+            products.add(productService.createProduct(product));
+        }
+
+        for (Product product : products) {
+            cartService.addToCart(customer.getId(), product.getId(), 1);
+        }
+        order = orderService.createOrder(customer.getId(), new CreateOrderRequest());
+        orderService.createOrder(customer.getId(), orderFor(products.get(0)));
+        for (Product product : products) {
+            cartService.addToCart(customer.getId(), product.getId(), 2);
+        }
+    }
+
+    @Test
+    void orderDetailLoadsOrderItemsAndProductsTogether() throws Exception {
+        assertThat(statements(get("/api/user/orders/" + order.getId()).with(user(customer)))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void orderHistoryReadsTheReadModelOnly() throws Exception {
+        assertThat(statements(get("/api/user/orders").with(user(customer)))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void productListingIsIndependentOfPageSize() throws Exception {
+        int small = statements(get("/api/user/products").param("size", "1"));
+        int large = statements(get("/api/user/products").param("size", "20"));
+        // A short page adds the count query; more rows must not add anything else
+        assertThat(small).isLessThanOrEqualTo(4);
+        assertThat(large).isLessThanOrEqualTo(small);
+    }
+
+    @Test
+    void cartLoadsLinesWithTheirProducts() throws Exception {
+        assertThat(statements(get("/api/user/cart").with(user(customer)))).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void adminSearchFetchesItemsInOneQuery() throws Exception {
+        int statements = statements(get("/api/admin/orders/search").param("query", "customer-" + emailTag)
+                .with(user(admin)));
+        assertThat(statements).isLessThanOrEqualTo(4);
+    }
+
+    private int statements(RequestBuilder request) throws Exception {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        StatementCounter.reset();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return StatementCounter.count();
+    }
+
+    private CreateOrderRequest orderFor(Product product) {
+        cartService.addToCart(customer.getId(), product.getId(), 1);
+        return new CreateOrderRequest();
+    }
+
+    private User saveUser(String email, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret1");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+}
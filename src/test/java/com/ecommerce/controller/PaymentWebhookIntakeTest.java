@@ -0,0 +1,145 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.entity.PaymentWebhookEvent;
+import com.ecommerce.entity.enums.WebhookEventStatus;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.PaymentWebhookEventRepository;
+import com.ecommerce.support.StripeSignatures;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.ecommerce.support.Polling.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Payment webhook intake: signed deliveries are stored once per provider event id and
+ * acknowledged before processing, which then runs per order in arrival order.
+ */
+@SpringBootTest(properties = {
+        "stripe.webhook.secret=" + PaymentWebhookIntakeTest.SECRET,
+        "payment.webhooks.sweep-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:webhooks;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentWebhookIntakeTest {
+
+    static final String SECRET = "whsec_test";
+
+    private static final int INTAKE_REQUESTS = 300;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PaymentWebhookEventRepository webhookEventRepository;
+
+    @Test
+    void invalidSignatureIsRejectedAndNotStored() throws Exception {
+        String eventId = eventId();
+        String payload = event(eventId, "payment_intent.payment_failed", orderId());
+
+        assertThatThrownBy(() -> deliver(payload, StripeSignatures.sign(payload, "whsec_other")))
+                .hasRootCauseInstanceOf(BadRequestException.class)
+                .hasRootCauseMessage("Invalid Stripe webhook signature");
+
+        assertThat(events(eventId)).isEmpty();
+    }
+
+    @Test
+    void redeliveredEventIsStoredAndProcessedOnce() throws Exception {
+        String eventId = eventId();
+        String payload = event(eventId, "payment_intent.payment_failed", orderId());
+
+        deliver(payload).andExpect(status().isOk());
+        deliver(payload).andExpect(status().isOk());
+
+        await(() -> events(eventId).stream().allMatch(event -> event.getStatus() == WebhookEventStatus.PROCESSED));
+        assertThat(events(eventId)).singleElement()
+                .satisfies(event -> assertThat(event.getAttempts()).isZero());
+    }
+
+    @Test
+    void eventsOfOneOrderAreProcessedInArrivalOrder() throws Exception {
+        long orderId = orderId();
+        for (int i = 0; i < 20; i++) {
+            deliver(event(eventId(), "payment_intent.payment_failed", orderId)).andExpect(status().isOk());
+        }
+
+        await(() -> orderEvents(orderId).size() == 20
+                && orderEvents(orderId).stream().allMatch(event -> event.getStatus() == WebhookEventStatus.PROCESSED));
+        List<PaymentWebhookEvent> events = orderEvents(orderId);
+        assertThat(events).isSortedAccordingTo(Comparator.comparing(PaymentWebhookEvent::getProcessedAt));
+    }
+
+    @Test
+    void intakeAcknowledgesWithoutWaitingForProcessing() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            deliver(event(eventId(), "payment_intent.payment_failed", orderId()));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < INTAKE_REQUESTS; i++) {
+            deliver(event(eventId(), "payment_intent.payment_failed", orderId())).andExpect(status().isOk());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double millisPerEvent = elapsed / 1_000_000.0 / INTAKE_REQUESTS;
+        System.out.printf("webhook intake: %d events, %.2f ms/event, %.0f events/s%n", INTAKE_REQUESTS,
+                millisPerEvent, INTAKE_REQUESTS / (elapsed / 1_000_000_000.0));
+        assertThat(millisPerEvent).isLessThan(50);
+    }
+
+    private ResultActions deliver(String payload) throws Exception {
+        return deliver(payload, StripeSignatures.sign(payload, SECRET));
+    }
+
+    private ResultActions deliver(String payload, String signature) throws Exception {
+        return mockMvc.perform(post("/api/payments/webhook/stripe")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Stripe-Signature", signature)
+                .content(payload));
+    }
+
+    private List<PaymentWebhookEvent> events(String eventId) {
+        return webhookEventRepository.findAll().stream()
+                .filter(event -> eventId.equals(event.getEventId()))
+                .toList();
+    }
+
+    private List<PaymentWebhookEvent> orderEvents(long orderId) {
+        return webhookEventRepository.findAll().stream()
+                .filter(event -> Long.valueOf(orderId).equals(event.getOrderId()))
+                .sorted(Comparator.comparing(PaymentWebhookEvent::getId))
+                .toList();
+    }
+
+    private static String event(String eventId, String type, long orderId) {
+        return """
+                {"id":"%s","type":"%s","data":{"object":{"id":"pi_%s","object":"payment_intent",\
+                "amount_received":1000,"metadata":{"orderId":"%d"}}}}""".formatted(eventId, type, eventId, orderId);
+    }
+
+    private static String eventId() {
+        return "evt_" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    // Orders that do not exist: only the intake and the event bookkeeping are exercised
+    private static long orderId() {
+        return ThreadLocalRandom.current().nextLong(1_000_000, 1_000_000_000);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecommerce.dto.mapper;
+
+import com.ecommerce.dto.response.ProductCardResponse;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Serialization cost of a 50-product listing page: full entities against storefront cards,
+ * reflective Jackson against Blackbird. Reports bytes (raw and gzipped), bytes allocated and
+ * time per page on this thread after a warm-up, and checks the card page is the cheaper one.
+ */
+class ProductCardSerializationBenchmarkTest {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 2_000;
+
+    private final ProductMapper productMapper = new ProductMapperImpl();
+
+    @Test
+    void cardPageIsSmallerAndCheaperThanEntityPage() throws IOException {
+        List<Product> products = products();
+        Page<Product> entityPage = new PageImpl<>(products, PageRequest.of(0, PAGE_SIZE), 500);
+        Page<ProductCardResponse> cardPage = entityPage.map(productMapper::toCard);
+
+        ObjectMapper reflective = mapper(false);
+        ObjectMapper blackbird = mapper(true);
+
+        Result entities = measure("entity page, reflective", reflective, entityPage);
+        Result entitiesBlackbird = measure("entity page, blackbird", blackbird, entityPage);
+        measure("card page, reflective", reflective, cardPage);
+        Result cards = measure("card page, blackbird", blackbird, cardPage);
+
+        assertThat(entitiesBlackbird.bytes()).isEqualTo(entities.bytes());
+        assertThat(cards.bytes()).isLessThan(entities.bytes() / 5);
+        assertThat(cards.gzippedBytes()).isLessThan(entities.gzippedBytes());
+        assertThat(cards.allocatedPerOp()).isLessThan(entities.allocatedPerOp());
+    }
+
+    private Result measure(String label, ObjectMapper mapper, Object page) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(page);
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(page);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        Result result = new Result(json.length, gzip(json).length, allocated / ITERATIONS, elapsed / ITERATIONS);
+        System.out.printf("%-24s %8d B  %7d B gzip  %9d B alloc/op  %8d ns/op%n", label, result.bytes(),
+                result.gzippedBytes(), result.allocatedPerOp(), result.nanosPerOp());
+        return result;
+    }
+
+    private static ObjectMapper mapper(boolean blackbird) {
+        JsonMapper.Builder builder = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(new Hibernate6Module())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (blackbird) {
+            builder.addModule(new BlackbirdModule());
+        }
+        return builder.build();
+    }
+
+    private static List<Product> products() {
+        Category category = new Category("Kitchen", "Pots, pans and knives");
+        category.setId(7L);
+        String description = "x".repeat(2000);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName("Product " + id);
+            product.setDescription(description);
+            product.setPrice(new BigDecimal("19.99"));
+            product.setComparePrice(new BigDecimal("24.99"));
+            product.setCostPrice(new BigDecimal("9.50"));
+            product.setStockQuantity(40);
+            product.setSku("SKU-" + id);
+            product.setImageUrl("https://cdn.example.com/p/" + id + ".jpg");
+            product.setImages(List.of("https://cdn.example.com/p/" + id + "-1.jpg",
+                    "https://cdn.example.com/p/" + id + "-2.jpg", "https://cdn.example.com/p/" + id + "-3.jpg"));
+            product.setMetaTitle("Product " + id);
+            product.setMetaDescription("Meta description of product " + id);
+            product.setSearchKeywords("kitchen cookware product " + id);
+            product.setAvgRating(4.5);
+            product.setReviewCount(12);
+            product.setCategory(category);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    private record Result(int bytes, int gzippedBytes, long allocatedPerOp, long nanosPerOp) {
+    }
+}
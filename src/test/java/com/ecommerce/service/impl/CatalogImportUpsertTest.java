@@ -0,0 +1,107 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.controller.admin.AdminProductController.ImportProductsResponse;
+import com.ecommerce.entity.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.CatalogImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalog import against PostgreSQL, since the chunk upsert (unnest() arrays, ON CONFLICT,
+ * xmax) does not run on H2: inserted, changed and unchanged rows are told apart, and a chunk
+ * that only inserts new SKUs still refreshes the cached product listings. Skipped when no
+ * Docker daemon is available.
+ */
+@SpringBootTest(properties = "catalog.import.chunk-size=2")
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class CatalogImportUpsertTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void upsertTellsInsertedChangedAndUnchangedRowsApart() {
+        String prefix = prefix();
+        String feed = "sku,name,price,stockQuantity\n"
+                + prefix + "-1,First,9.90,4\n"
+                + prefix + "-2,Second,5.00,0\n"
+                + prefix + "-3,Third,12.50,7\n";
+
+        ImportProductsResponse first = importCsv(feed);
+        assertThat(first.getInserted()).isEqualTo(3);
+        assertThat(first.getUpdated()).isZero();
+        assertThat(first.getChunks()).isEqualTo(2);
+        assertThat(first.getErrors()).isEmpty();
+
+        // 9.9 hashes like 9.90, so only the third row changes
+        ImportProductsResponse second = importCsv("sku,name,price,stockQuantity\n"
+                + prefix + "-1,First,9.9,4\n"
+                + prefix + "-2,Second,5.00,0\n"
+                + prefix + "-3,Third,11.00,7\n");
+        assertThat(second.getInserted()).isZero();
+        assertThat(second.getUpdated()).isEqualTo(1);
+        assertThat(second.getUnchanged()).isEqualTo(2);
+
+        Product changed = productRepository.findBySkuAndActiveTrue(prefix + "-3");
+        assertThat(changed.getPrice()).isEqualByComparingTo("11.00");
+        assertThat(changed.getStockQuantity()).isEqualTo(7);
+        assertThat(changed.getContentHash()).hasSize(64);
+    }
+
+    @Test
+    void insertOnlyChunkRefreshesTheCachedListings() {
+        PageRequest everything = PageRequest.of(0, 1000, Sort.by("id"));
+        List<Product> before = productRepository.findByActiveTrue(everything);
+
+        String prefix = prefix();
+        ImportProductsResponse report = importCsv("sku,name,price\n" + prefix + "-1,New one,3.00\n");
+        assertThat(report.getInserted()).isEqualTo(1);
+
+        assertThat(productRepository.findByActiveTrue(everything))
+                .hasSize(before.size() + 1)
+                .anyMatch(product -> (prefix + "-1").equals(product.getSku()));
+    }
+
+    private ImportProductsResponse importCsv(String csv) {
+        InputStream feed = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        return catalogImportService.importProducts(feed, "csv", false);
+    }
+
+    private static String prefix() {
+        return "SKU-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
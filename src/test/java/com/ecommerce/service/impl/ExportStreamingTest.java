@@ -0,0 +1,253 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.entity.enums.Role;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.ExportService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order export: the CSV and NDJSON shapes (quoting, formula escaping, nulls, numbers), gzip on
+ * the fly, and a large export whose retained heap stays flat while loading the same rows into
+ * a list does not. The shape rows are CANCELLED orders, the bulk rows DELIVERED ones.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:exports;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+        + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportStreamingTest {
+
+    private static final int BULK_ORDERS = 100_000;
+    private static final long FIRST_BULK_ID = 1_000_000;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User customer;
+
+    @BeforeAll
+    void seedOrders() {
+        customer = new User();
+        customer.setEmail("export@example.com");
+        customer.setPassword("secret1");
+        customer.setFirstName("Export");
+        customer.setLastName("User");
+        customer.setRole(Role.ROLE_USER);
+        customer = userRepository.save(customer);
+
+        LocalDateTime placed = LocalDateTime.of(2026, 3, 1, 9, 30);
+        insertOrder(900_001, placed, OrderStatus.CANCELLED, "19.99", null, "SAVE,10 \"VIP\"", null);
+        insertOrder(900_002, placed, OrderStatus.CANCELLED, "5.00", "1.50", "=HYPERLINK(1)", "TRK-2");
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = FIRST_BULK_ID; id < FIRST_BULK_ID + BULK_ORDERS; id++) {
+            rows.add(new Object[]{id, Timestamp.valueOf(placed), OrderStatus.DELIVERED.name(),
+                    new BigDecimal("42.50"), BigDecimal.ZERO, null, "TRK-" + id, customer.getId()});
+            if (rows.size() == 5_000) {
+                insertOrders(rows);
+                rows.clear();
+            }
+        }
+        insertOrders(rows);
+    }
+
+    @Test
+    void csvQuotesAndEscapesCells() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = exportService.exportOrders(OrderStatus.CANCELLED, "csv", false);
+
+        assertThat(response.getHeaders().getContentType()).hasToString("text/csv;charset=UTF-8");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+                .startsWith("attachment; filename=\"orders-").endsWith(".csv\"");
+        assertThat(new String(write(response), StandardCharsets.UTF_8)).isEqualTo(
+                "id,orderDate,status,totalAmount,discountAmount,couponCode,trackingNumber,userId,customerEmail\r\n"
+                        + "900001,2026-03-01T09:30,CANCELLED,19.99,,\"SAVE,10 \"\"VIP\"\"\",," + customer.getId()
+                        + ",export@example.com\r\n"
+                        + "900002,2026-03-01T09:30,CANCELLED,5.00,1.50,'=HYPERLINK(1),TRK-2," + customer.getId()
+                        + ",export@example.com\r\n");
+    }
+
+    @Test
+    void ndjsonWritesOneTypedObjectPerLine() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = exportService.exportOrders(OrderStatus.CANCELLED, "ndjson", false);
+
+        assertThat(response.getHeaders().getContentType()).hasToString("application/x-ndjson");
+        String[] lines = new String(write(response), StandardCharsets.UTF_8).split("\n", -1);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).isEmpty();
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.path("id").isIntegralNumber()).isTrue();
+        assertThat(first.path("id").asLong()).isEqualTo(900_001);
+        assertThat(first.path("totalAmount").decimalValue()).isEqualByComparingTo("19.99");
+        assertThat(first.path("discountAmount").isNull()).isTrue();
+        assertThat(first.path("couponCode").asText()).isEqualTo("SAVE,10 \"VIP\"");
+        assertThat(first.path("customerEmail").asText()).isEqualTo("export@example.com");
+        assertThat(objectMapper.readTree(lines[1]).path("trackingNumber").asText()).isEqualTo("TRK-2");
+    }
+
+    @Test
+    void gzipExportInflatesToThePlainExport() throws IOException {
+        byte[] plain = write(exportService.exportOrders(OrderStatus.CANCELLED, "csv", false));
+        ResponseEntity<StreamingResponseBody> response = exportService.exportOrders(OrderStatus.CANCELLED, "csv", true);
+
+        assertThat(response.getHeaders().getContentType()).hasToString("application/gzip");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).endsWith(".csv.gz\"");
+        try (GZIPInputStream gunzip = new GZIPInputStream(new ByteArrayInputStream(write(response)))) {
+            assertThat(gunzip.readAllBytes()).isEqualTo(plain);
+        }
+    }
+
+    @Test
+    void largeExportKeepsTheHeapFlat() throws IOException {
+        long baseline = retainedHeap();
+
+        // Samples the retained heap once the export is halfway through
+        long[] midway = new long[1];
+        CountingOutputStream out = new CountingOutputStream(BULK_ORDERS / 2, () -> midway[0] = retainedHeap());
+        long start = System.nanoTime();
+        exportService.exportOrders(OrderStatus.DELIVERED, "ndjson", true).getBody().writeTo(out);
+        long elapsed = System.nanoTime() - start;
+        long streaming = midway[0] - baseline;
+
+        // Control: the same rows collected into memory
+        long loaded = new TransactionTemplate(transactionManager).execute(status -> {
+            try (Stream<Object[]> rows = orderRepository.streamForExport(OrderStatus.DELIVERED)) {
+                List<Object[]> all = rows.toList();
+                long retained = retainedHeap() - baseline;
+                assertThat(all).hasSize(BULK_ORDERS);
+                return retained;
+            }
+        });
+
+        System.out.printf("export of %d orders (ndjson, gzip): %d ms, %d KB gzipped, %d lines; retained heap "
+                        + "midway %d KB, all rows loaded %d KB%n", BULK_ORDERS, elapsed / 1_000_000,
+                out.bytes / 1024, out.lines, streaming / 1024, loaded / 1024);
+        assertThat(midway[0]).as("export never got halfway").isPositive();
+        assertThat(streaming).isLessThan(loaded / 2);
+    }
+
+    private byte[] write(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toByteArray();
+    }
+
+    private void insertOrder(long id, LocalDateTime placed, OrderStatus status, String total, String discount,
+                             String couponCode, String trackingNumber) {
+        insertOrders(List.<Object[]>of(new Object[]{id, Timestamp.valueOf(placed), status.name(), new BigDecimal(total),
+                discount == null ? null : new BigDecimal(discount), couponCode, trackingNumber, customer.getId()}));
+    }
+
+    private void insertOrders(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_date, status, total_amount, discount_amount, "
+                + "coupon_code, tracking_number, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static long retainedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards the gzipped export, counting bytes, and runs a probe once the inflated side
+     * would have passed the given number of lines; lines are counted after decompression.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private final int probeAtLine;
+        private final Runnable probe;
+        private final Inflater inflater = new Inflater(true);
+        private final byte[] inflated = new byte[64 * 1024];
+        private long bytes;
+        private long lines;
+        private int headerBytesLeft = 10;
+
+        private CountingOutputStream(int probeAtLine, Runnable probe) {
+            this.probeAtLine = probeAtLine;
+            this.probe = probe;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+            // Skip the fixed 10-byte gzip header, then inflate the raw deflate stream
+            int skip = Math.min(headerBytesLeft, length);
+            headerBytesLeft -= skip;
+            if (length == skip || inflater.finished()) {
+                return;
+            }
+            inflater.setInput(Arrays.copyOfRange(buffer, offset + skip, offset + length));
+            try {
+                int n;
+                while ((n = inflater.inflate(inflated)) > 0) {
+                    long before = lines;
+                    for (int i = 0; i < n; i++) {
+                        if (inflated[i] == '\n') {
+                            lines++;
+                        }
+                    }
+                    if (before < probeAtLine && lines >= probeAtLine) {
+                        probe.run();
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.controller.OrderController.CreateOrderRequest;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.enums.Role;
+import com.ecommerce.repository.CartItemRepository;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.support.StatementCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Order placement with pooled-lo sequence ids: the order items of a large order go out as
+ * one JDBC batch, ids come from one sequence allocation, and the cart is cleared with a
+ * single delete. Also reports placement latency against the number of lines.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderPlacementBatchingTest {
+
+    private static final int MAX_LINES = 50;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeAll
+    void createProducts() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < MAX_LINES; i++) {
+            Product product = new Product("Batch " + tag + " " + i, "d", new BigDecimal("5.00"));
+            product.setStockQuantity(100_000);
+            products.add(productService.createProduct(product));
+        }
+    }
+
+    @Test
+    void orderItemsAreInsertedAsOneBatch() {
+        User customer = customer();
+        fillCart(customer, 30);
+        products.set(29, productRepository.findById(products.get(29).getId()).orElseThrow());
+
+        StatementCounter.reset();
+        Order order = orderService.createOrder(customer.getId(), new CreateOrderRequest());
+
+        assertThat(StatementCounter.count("insert into order_items")).isEqualTo(1);
+        // Stock goes out as one JdbcTemplate batch, not an entity update per line
+        assertThat(StatementCounter.count("update products")).isZero();
+        assertThat(StatementCounter.count("select next value for order_items_seq")).isLessThanOrEqualTo(1);
+        assertThat(StatementCounter.count("delete from cart ")).isEqualTo(1);
+        assertThat(cartItemRepository.countByUserId(customer.getId())).isZero();
+        assertThat(productRepository.findById(products.get(29).getId()).orElseThrow().getStockQuantity())
+                .isEqualTo(products.get(29).getStockQuantity() - 1);
+
+        List<Long> itemIds = orderRepository.findWithItemsById(order.getId()).orElseThrow().getOrderItems().stream()
+                .map(OrderItem::getId)
+                .sorted()
+                .toList();
+        assertThat(itemIds).hasSize(30).doesNotHaveDuplicates();
+        // Ids are handed out from pooled-lo blocks of 50, so 30 lines span at most two blocks
+        assertThat(itemIds.get(itemIds.size() - 1) - itemIds.get(0)).isLessThan(100);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithLineCount() {
+        assertThat(placementStatements(30)).isEqualTo(placementStatements(1));
+    }
+
+    @Test
+    void placementLatencyAgainstLineCount() {
+        int[] lineCounts = {1, 10, 30, 50};
+        for (int lines : lineCounts) {
+            placeOrder(lines);
+        }
+
+        double[] millis = new double[lineCounts.length];
+        for (int i = 0; i < lineCounts.length; i++) {
+            int repetitions = 10;
+            long total = 0;
+            for (int r = 0; r < repetitions; r++) {
+                total += placeOrder(lineCounts[i]);
+            }
+            millis[i] = total / 1_000_000.0 / repetitions;
+            System.out.printf("order placement: %2d lines  %6.2f ms%n", lineCounts[i], millis[i]);
+        }
+        // Per-line work is batched: 50 lines must cost far less than 50 single-line orders
+        assertThat(millis[millis.length - 1]).isLessThan(millis[0] * 25);
+    }
+
+    private int placementStatements(int lines) {
+        User customer = customer();
+        fillCart(customer, lines);
+        StatementCounter.reset();
+        orderService.createOrder(customer.getId(), new CreateOrderRequest());
+        // Sequence fetches depend on where earlier orders left the pooled blocks
+        return StatementCounter.count() - StatementCounter.count("select next value for");
+    }
+
+    private long placeOrder(int lines) {
+        User customer = customer();
+        fillCart(customer, lines);
+        long start = System.nanoTime();
+        orderService.createOrder(customer.getId(), new CreateOrderRequest());
+        return System.nanoTime() - start;
+    }
+
+    private void fillCart(User customer, int lines) {
+        for (int i = 0; i < lines; i++) {
+            cartService.addToCart(customer.getId(), products.get(i).getId(), 1);
+        }
+    }
+
+    private User customer() {
+        User user = new User();
+        user.setEmail("customer-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com");
+        user.setPassword("secret1");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setRole(Role.ROLE_USER);
+        return userRepository.save(user);
+    }
+}
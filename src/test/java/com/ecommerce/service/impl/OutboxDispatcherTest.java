@@ -0,0 +1,162 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.OutboxMessage;
+import com.ecommerce.entity.enums.OutboxStatus;
+import com.ecommerce.repository.OutboxMessageRepository;
+import com.ecommerce.support.SmtpStandIn;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static com.ecommerce.support.Polling.await;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outbox relay against a local SMTP stand-in: emails leave only after the enqueuing
+ * transaction commits, a transient SMTP failure is retried after its backoff, and rows the
+ * sender cannot take are handed back instead of staying leased.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxDispatcherTest {
+
+    private static final SmtpStandIn SMTP = startSmtp();
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", SMTP::getPort);
+        // Polled by the test, not the scheduler
+        registry.add("outbox.poll-ms", () -> "3600000");
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:mem:outbox;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+    }
+
+    @Autowired
+    private EmailOutbox emailOutbox;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @Test
+    void committedMessageIsDeliveredOverSmtp() {
+        String recipient = recipient();
+        Long id = enqueue(recipient, "Order confirmed");
+
+        outboxDispatcher.dispatch();
+
+        await(() -> status(id) == OutboxStatus.SENT);
+        OutboxMessage sent = outboxMessageRepository.findById(id).orElseThrow();
+        assertThat(sent.getSentAt()).isNotNull();
+        assertThat(sent.getAttempts()).isEqualTo(1);
+        assertThat(SMTP.getMessages()).anySatisfy(mail -> assertThat(mail)
+                .contains("To: " + recipient)
+                .contains("Subject: Order confirmed")
+                .contains("Your order is on its way"));
+    }
+
+    @Test
+    void rolledBackMessageIsNeverQueued() {
+        String recipient = recipient();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            emailOutbox.enqueue("ORDER_CONFIRMATION", 1L, recipient, "Order confirmed", "Your order is on its way");
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxMessageRepository.findAll())
+                .noneMatch(message -> recipient.equals(message.getRecipient()));
+    }
+
+    @Test
+    void transientSmtpFailureIsRetriedAfterBackoff() {
+        String recipient = recipient();
+        Long id = enqueue(recipient, "Order shipped");
+        SMTP.failNext(1);
+
+        outboxDispatcher.dispatch();
+
+        await(() -> outboxMessageRepository.findById(id).orElseThrow().getLastError() != null);
+        OutboxMessage failed = outboxMessageRepository.findById(id).orElseThrow();
+        assertThat(failed.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now());
+
+        // Not due yet: the next poll leaves it alone
+        outboxDispatcher.dispatch();
+        assertThat(outboxMessageRepository.findById(id).orElseThrow().getAttempts()).isEqualTo(1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outboxMessageRepository.findById(id).orElseThrow().setNextAttemptAt(LocalDateTime.now().minusSeconds(1)));
+        outboxDispatcher.dispatch();
+
+        await(() -> status(id) == OutboxStatus.SENT);
+        assertThat(outboxMessageRepository.findById(id).orElseThrow().getAttempts()).isEqualTo(2);
+        assertThat(SMTP.getMessages()).anySatisfy(mail -> assertThat(mail).contains("To: " + recipient));
+    }
+
+    @Test
+    void claimTheSenderRejectsIsReleased() {
+        Long id = enqueue(recipient(), "Order confirmed");
+        outboxDispatcher.shutdownSender();
+        try {
+            outboxDispatcher.dispatch();
+        } finally {
+            outboxDispatcher.initSender();
+        }
+
+        OutboxMessage released = outboxMessageRepository.findById(id).orElseThrow();
+        assertThat(released.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(released.getAttempts()).isZero();
+        assertThat(released.getNextAttemptAt()).isBeforeOrEqualTo(LocalDateTime.now());
+
+        // Due again right away, and its one send counts as the first attempt
+        outboxDispatcher.dispatch();
+        await(() -> status(id) == OutboxStatus.SENT);
+        assertThat(outboxMessageRepository.findById(id).orElseThrow().getAttempts()).isEqualTo(1);
+    }
+
+    private Long enqueue(String recipient, String subject) {
+        OutboxMessage message = new OutboxMessage("ORDER_CONFIRMATION", 1L, recipient, subject,
+                "Your order is on its way");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> emailOutbox.enqueue(message));
+        return message.getId();
+    }
+
+    private OutboxStatus status(Long id) {
+        return outboxMessageRepository.findById(id).orElseThrow().getStatus();
+    }
+
+    private static String recipient() {
+        return "customer-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com";
+    }
+
+    private static SmtpStandIn startSmtp() {
+        try {
+            return new SmtpStandIn();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.controller.OrderController.CreateOrderRequest;
+import com.ecommerce.controller.PaymentController.PaymentResponse;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.enums.OrderStatus;
+import com.ecommerce.entity.enums.PaymentStatus;
+import com.ecommerce.entity.enums.Role;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.exception.PaymentGatewayException;
+import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.PaymentRepository;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CartService;
+import com.ecommerce.service.OrderService;
+import com.ecommerce.service.PaymentService;
+import com.ecommerce.service.ProductService;
+import com.ecommerce.support.StripeSignatures;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ecommerce.support.Polling.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Payment gateway client and the Stripe flows against a local stub server that can answer
+ * slowly or with errors: timeouts, retries of idempotent calls, the PENDING fallback, the
+ * circuit breaker, and the server-side order total on intents and webhooks.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentGatewayStubTest {
+
+    private static final String WEBHOOK_SECRET = "whsec_test";
+
+    private static final StubGateway STUB = new StubGateway();
+
+    @DynamicPropertySource
+    static void gatewayProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:mem:gateways;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        registry.add("stripe.secret.key", () -> "sk_test");
+        registry.add("stripe.webhook.secret", () -> WEBHOOK_SECRET);
+        registry.add("payment.webhooks.sweep-ms", () -> "3600000");
+        registry.add("payment.gateway.default.read-timeout-ms", () -> "300");
+        registry.add("payment.gateway.default.retry-backoff-ms", () -> "20");
+        // Stripe's circuit stays closed here; the breaker is exercised on its own provider
+        registry.add("payment.gateway.stripe.base-url", STUB::baseUrl);
+        registry.add("payment.gateway.stripe.minimum-calls", () -> "1000");
+        registry.add("payment.gateway.stubbed.base-url", STUB::baseUrl);
+        registry.add("payment.gateway.stubbed.max-retries", () -> "0");
+        registry.add("payment.gateway.stubbed.window-size", () -> "4");
+        registry.add("payment.gateway.stubbed.minimum-calls", () -> "4");
+        registry.add("payment.gateway.stubbed.open-seconds", () -> "1");
+    }
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentGateways paymentGateways;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    private User customer;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        STUB.reset();
+        customer = new User();
+        customer.setEmail("customer-" + UUID.randomUUID().toString().substring(0, 8) + "@example.com");
+        customer.setPassword("secret1");
+        customer.setFirstName("Test");
+        customer.setLastName("User");
+        customer.setRole(Role.ROLE_USER);
+        customer = userRepository.save(customer);
+
+        Product product = new Product("Product " + customer.getId(), "d", new BigDecimal("10.00"));
+        product.setStockQuantity(100);
+        product = productService.createProduct(product);
+        cartService.addToCart(customer.getId(), product.getId(), 2);
+        order = orderService.createOrder(customer.getId(), new CreateOrderRequest());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.stop();
+    }
+
+    @Test
+    void intentChargesTheOrderTotalWithAnIdempotencyKey() {
+        Map<String, String> intent = paymentService.createStripePaymentIntent(customer.getId(), order.getId(), null);
+
+        assertThat(STUB.requests()).singleElement().satisfies(request -> {
+            assertThat(request.method()).isEqualTo("POST");
+            assertThat(request.body()).contains("amount=" + cents(order.getTotalAmount()));
+            assertThat(request.idempotencyKey()).isNotBlank();
+        });
+        assertThat(paymentRepository.findFirstByOrderIdOrderByCreatedAtDescIdDesc(order.getId())).get()
+                .satisfies(payment -> {
+                    assertThat(payment.getTransactionId()).isEqualTo(intent.get("paymentIntentId"));
+                    assertThat(payment.getAmount()).isEqualByComparingTo(order.getTotalAmount());
+                    assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+                });
+    }
+
+    @Test
+    void clientAmountDifferentFromTheOrderTotalIsRejected() {
+        BigDecimal tampered = order.getTotalAmount().subtract(new BigDecimal("0.01"));
+
+        assertThatThrownBy(() -> paymentService.createStripePaymentIntent(customer.getId(), order.getId(), tampered))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Payment amount does not match the order total");
+        assertThat(STUB.requests()).isEmpty();
+    }
+
+    @Test
+    void failedIntentCreationIsRetriedWithTheSameIdempotencyKey() {
+        STUB.failNext(1);
+
+        paymentService.createStripePaymentIntent(customer.getId(), order.getId(), null);
+
+        assertThat(STUB.requests()).hasSize(2);
+        assertThat(STUB.requests().get(0).idempotencyKey()).isEqualTo(STUB.requests().get(1).idempotencyKey());
+    }
+
+    @Test
+    void transientConfirmationFailureIsRetried() {
+        String intentId = paymentService.createStripePaymentIntent(customer.getId(), order.getId(), null)
+                .get("paymentIntentId");
+        STUB.reset();
+        STUB.failNext(1);
+
+        PaymentResponse confirmed = paymentService.confirmStripePayment(intentId, order.getId());
+
+        assertThat(STUB.requests()).hasSize(2);
+        assertThat(confirmed.getStatus()).isEqualTo(PaymentStatus.COMPLETED);
+    }
+
+    @Test
+    void slowGatewayTimesOutAndConfirmationFallsBackToPending() {
+        String intentId = paymentService.createStripePaymentIntent(customer.getId(), order.getId(), null)
+                .get("paymentIntentId");
+        STUB.reset();
+        STUB.delayMs(1_000);
+
+        long start = System.currentTimeMillis();
+        PaymentResponse confirmed = paymentService.confirmStripePayment(intentId, order.getId());
+        long elapsed = System.currentTimeMillis() - start;
+
+        // Two attempts of 300 ms each plus the backoff, not the stub's full delay
+        assertThat(elapsed).isLessThan(1_000);
+        assertThat(STUB.requests()).hasSize(2);
+        assertThat(confirmed.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(confirmed.getMessage()).isEqualTo("Payment provider unavailable; payment is pending confirmation");
+    }
+
+    @Test
+    void circuitOpensOnFailuresAndClosesAfterASuccessfulTrial() throws InterruptedException {
+        PaymentGatewayClient client = paymentGateways.client("stubbed");
+        STUB.failNext(4);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.get("/v1/ping", Map.of())).isInstanceOf(PaymentGatewayException.class);
+        }
+
+        assertThatThrownBy(() -> client.get("/v1/ping", Map.of()))
+                .isInstanceOf(PaymentGatewayException.class)
+                .hasMessage("stubbed gateway is unavailable (circuit open)");
+        assertThat(STUB.requests()).hasSize(4);
+
+        Thread.sleep(1_100);
+        assertThat(client.get("/v1/ping", Map.of()).isSuccessful()).isTrue();
+        assertThat(client.get("/v1/ping", Map.of()).isSuccessful()).isTrue();
+        assertThat(STUB.requests()).hasSize(6);
+    }
+
+    @Test
+    void webhookAdvancesTheOrderOnlyWhenTheCapturedAmountMatches() {
+        long total = cents(order.getTotalAmount());
+
+        String partial = succeeded(total - 1);
+        paymentService.handleStripeWebhook(partial, StripeSignatures.sign(partial, WEBHOOK_SECRET));
+        String matching = succeeded(total);
+        paymentService.handleStripeWebhook(matching, StripeSignatures.sign(matching, WEBHOOK_SECRET));
+
+        await(() -> orderRepository.findById(order.getId()).orElseThrow().getStatus() == OrderStatus.PROCESSING);
+    }
+
+    @Test
+    void webhookWithAShortCaptureLeavesTheOrderPending() throws InterruptedException {
+        String payload = succeeded(cents(order.getTotalAmount()) - 1);
+        paymentService.handleStripeWebhook(payload, StripeSignatures.sign(payload, WEBHOOK_SECRET));
+
+        Thread.sleep(500);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+    }
+
+    private String succeeded(long amountReceived) {
+        return """
+                {"id":"evt_%s","type":"payment_intent.succeeded","data":{"object":{"id":"pi_%s",\
+                "object":"payment_intent","amount_received":%d,"metadata":{"orderId":"%d"}}}}"""
+                .formatted(UUID.randomUUID(), UUID.randomUUID(), amountReceived, order.getId());
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    private record StubRequest(String method, String path, String body, String idempotencyKey) {
+    }
+
+    /**
+     * Stripe-like stub: POST creates a payment intent, GET reports it succeeded. It can be
+     * told to fail the next calls with HTTP 500 or to answer every call after a delay.
+     */
+    private static class StubGateway {
+
+        private final HttpServer server;
+        private final List<StubRequest> requests = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile long delayMs;
+
+        StubGateway() {
+            try {
+                server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            server.createContext("/", this::handle);
+            // A timed-out call's retry must not queue behind the slow first attempt
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+        }
+
+        String baseUrl() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        List<StubRequest> requests() {
+            return requests;
+        }
+
+        void failNext(int count) {
+            failures.set(count);
+        }
+
+        void delayMs(long delay) {
+            delayMs = delay;
+        }
+
+        void reset() {
+            requests.clear();
+            failures.set(0);
+            delayMs = 0;
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requests.add(new StubRequest(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), body,
+                    exchange.getRequestHeaders().getFirst("Idempotency-Key")));
+            if (delayMs > 0) {
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            int status = failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0 ? 500 : 200;
+            String response = status != 200 ? "{\"error\":{\"message\":\"stubbed failure\"}}"
+                    : exchange.getRequestMethod().equals("POST")
+                    ? "{\"id\":\"pi_" + UUID.randomUUID() + "\",\"client_secret\":\"cs_test\",\"status\":\"requires_payment_method\"}"
+                    : "{\"status\":\"succeeded\"}";
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            try {
+                exchange.sendResponseHeaders(status, bytes.length);
+                exchange.getResponseBody().write(bytes);
+            } catch (IOException e) {
+                // The client timed out and went away
+            }
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.ecommerce.service.impl;
+
+import com.ecommerce.entity.CartItem;
+import com.ecommerce.entity.Coupon;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.enums.CouponType;
+import com.ecommerce.exception.BadRequestException;
+import com.ecommerce.repository.CouponRepository;
+import com.ecommerce.service.impl.PricingEngine.CartPrice;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cart pricing with the default rules (8% tax, free shipping from 50.00, else 5.99): tax and
+ * shipping, each coupon type and its limits, coupon changes picked up by a plan refresh, and
+ * the cost of pricing a 50-line cart.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PricingEngineTest {
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Test
+    void cartBelowTheThresholdPaysTaxAndFlatShipping() {
+        CartPrice price = pricingEngine.priceCart(List.of(line("10.00", 2)), null);
+
+        assertPrice(price, "20.00", "0.00", "1.60", "5.99", "27.59");
+        assertThat(price.couponId()).isNull();
+    }
+
+    @Test
+    void cartAtTheThresholdShipsFree() {
+        CartPrice price = pricingEngine.priceCart(List.of(line("30.00", 1), line("20.00", 1)), null);
+
+        assertPrice(price, "50.00", "0.00", "4.00", "0.00", "54.00");
+    }
+
+    @Test
+    void taxIsRoundedHalfUpToTheCent() {
+        assertThat(pricingEngine.priceCart(List.of(line("0.06", 1)), null).tax()).isEqualByComparingTo("0.00");
+        assertThat(pricingEngine.priceCart(List.of(line("0.07", 1)), null).tax()).isEqualByComparingTo("0.01");
+    }
+
+    @Test
+    void percentageCouponIsCappedAtItsMaximumDiscount() {
+        Coupon coupon = coupon(CouponType.PERCENTAGE, "10");
+        coupon.setMaxDiscount(new BigDecimal("3.00"));
+        saveAndRefresh(coupon);
+
+        CartPrice price = pricingEngine.priceCart(List.of(line("60.00", 1)), coupon.getCode());
+
+        assertPrice(price, "60.00", "3.00", "4.56", "0.00", "61.56");
+        assertThat(price.couponId()).isEqualTo(coupon.getId());
+        assertThat(price.couponCode()).isEqualTo(coupon.getCode());
+    }
+
+    @Test
+    void fixedCouponCanDropTheCartBelowFreeShipping() {
+        Coupon coupon = saveAndRefresh(coupon(CouponType.FIXED_AMOUNT, "15.00"));
+
+        CartPrice price = pricingEngine.priceCart(List.of(line("60.00", 1)), coupon.getCode());
+
+        assertPrice(price, "60.00", "15.00", "3.60", "5.99", "54.59");
+    }
+
+    @Test
+    void fixedCouponNeverDiscountsMoreThanTheSubtotal() {
+        Coupon coupon = saveAndRefresh(coupon(CouponType.FIXED_AMOUNT, "100.00"));
+
+        CartPrice price = pricingEngine.priceCart(List.of(line("20.00", 1)), coupon.getCode());
+
+        assertPrice(price, "20.00", "20.00", "0.00", "5.99", "5.99");
+    }
+
+    @Test
+    void freeShippingCouponWaivesShipping() {
+        Coupon coupon = saveAndRefresh(coupon(CouponType.FREE_SHIPPING, null));
+
+        CartPrice price = pricingEngine.priceCart(List.of(line("20.00", 1)), " " + coupon.getCode().toLowerCase() + " ");
+
+        assertPrice(price, "20.00", "0.00", "1.60", "0.00", "21.60");
+    }
+
+    @Test
+    void couponOutsideItsLimitsIsRejected() {
+        Coupon belowMinimum = coupon(CouponType.FIXED_AMOUNT, "5.00");
+        belowMinimum.setMinimumSubtotal(new BigDecimal("100.00"));
+        Coupon expired = coupon(CouponType.FIXED_AMOUNT, "5.00");
+        expired.setExpiresAt(LocalDateTime.now().minusDays(1));
+        Coupon notStarted = coupon(CouponType.FIXED_AMOUNT, "5.00");
+        notStarted.setStartsAt(LocalDateTime.now().plusDays(1));
+        Coupon exhausted = coupon(CouponType.FIXED_AMOUNT, "5.00");
+        exhausted.setUsageLimit(1);
+        exhausted.setUsedCount(1);
+        couponRepository.saveAll(List.of(belowMinimum, expired, notStarted, exhausted));
+        pricingEngine.refreshPlan();
+
+        for (String code : List.of(belowMinimum.getCode(), expired.getCode(), notStarted.getCode(),
+                exhausted.getCode(), "NO-SUCH-COUPON")) {
+            assertThatThrownBy(() -> pricingEngine.priceCart(List.of(line("60.00", 1)), code))
+                    .isInstanceOf(BadRequestException.class)
+                    .hasMessage("Coupon " + code + " is not valid for this cart");
+        }
+    }
+
+    @Test
+    void planRefreshPicksUpCouponChanges() {
+        Coupon coupon = coupon(CouponType.FIXED_AMOUNT, "5.00");
+        couponRepository.save(coupon);
+        List<CartItem> cart = List.of(line("60.00", 1));
+        assertThatThrownBy(() -> pricingEngine.priceCart(cart, coupon.getCode()))
+                .as("not compiled into the plan yet")
+                .isInstanceOf(BadRequestException.class);
+
+        pricingEngine.refreshPlan();
+        assertThat(pricingEngine.priceCart(cart, coupon.getCode()).discount()).isEqualByComparingTo("5.00");
+
+        coupon.setActive(false);
+        couponRepository.save(coupon);
+        pricingEngine.refreshPlan();
+        assertThatThrownBy(() -> pricingEngine.priceCart(cart, coupon.getCode()))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void fiftyLineCartBenchmark() {
+        Coupon coupon = coupon(CouponType.PERCENTAGE, "12.5");
+        saveAndRefresh(coupon);
+        List<CartItem> cart = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < 50; i++) {
+            BigDecimal unitPrice = new BigDecimal("3.17").add(BigDecimal.valueOf(i, 2));
+            cart.add(line(unitPrice.toPlainString(), 1 + i % 3));
+            subtotal = subtotal.add(unitPrice.multiply(BigDecimal.valueOf(1 + i % 3)));
+        }
+
+        // Same rules in BigDecimal arithmetic
+        BigDecimal discount = subtotal.multiply(new BigDecimal("0.125")).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal discounted = subtotal.subtract(discount);
+        BigDecimal tax = discounted.multiply(new BigDecimal("0.08")).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal shipping = discounted.compareTo(new BigDecimal("50.00")) >= 0 ? BigDecimal.ZERO : new BigDecimal("5.99");
+        CartPrice price = pricingEngine.priceCart(cart, coupon.getCode());
+        assertThat(price.total()).isEqualByComparingTo(discounted.add(tax).add(shipping));
+
+        int warmup = 20_000;
+        int iterations = 100_000;
+        for (int i = 0; i < warmup; i++) {
+            pricingEngine.priceCart(cart, coupon.getCode());
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            pricingEngine.priceCart(cart, coupon.getCode());
+        }
+        long nanosPerCart = (System.nanoTime() - start) / iterations;
+        long bytesPerCart = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / iterations;
+
+        System.out.printf("priceCart, 50 lines with a coupon: %d ns/op, %d B allocated/op%n", nanosPerCart, bytesPerCart);
+        // Per-line work is long arithmetic; what allocates is the coupon lookup and the result
+        assertThat(bytesPerCart).isLessThan(50 * 64);
+    }
+
+    private Coupon saveAndRefresh(Coupon coupon) {
+        couponRepository.save(coupon);
+        pricingEngine.refreshPlan();
+        return coupon;
+    }
+
+    private static Coupon coupon(CouponType type, String value) {
+        Coupon coupon = new Coupon();
+        coupon.setCode("TEST-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        coupon.setType(type);
+        coupon.setValue(value == null ? null : new BigDecimal(value));
+        coupon.setActive(true);
+        return coupon;
+    }
+
+    private static CartItem line(String unitPrice, int quantity) {
+        return new CartItem(new Product("Product", "d", new BigDecimal(unitPrice)), null, quantity);
+    }
+
+    private static void assertPrice(CartPrice price, String subtotal, String discount, String tax, String shipping,
+                                    String total) {
+        assertThat(price.subtotal()).isEqualByComparingTo(subtotal);
+        assertThat(price.discount()).isEqualByComparingTo(discount);
+        assertThat(price.tax()).isEqualByComparingTo(tax);
+        assertThat(price.shipping()).isEqualByComparingTo(shipping);
+        assertThat(price.total()).isEqualByComparingTo(total);
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.support;
+
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Waits for work handed to background threads (senders, queue partitions) to show up.
+ */
+public final class Polling {
+
+    private static final long TIMEOUT_MS = 10_000;
+    private static final long INTERVAL_MS = 50;
+
+    private Polling() {
+    }
+
+    // Fails the test if the condition does not hold within ten seconds
+    public static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            try {
+                Thread.sleep(INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
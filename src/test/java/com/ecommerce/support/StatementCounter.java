@@ -0,0 +1,38 @@
+package com.ecommerce.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Registered for the test
+ * profile through hibernate.session_factory.statement_inspector; counting per thread keeps
+ * scheduled jobs running in the background out of the numbers. A JDBC batch is prepared once,
+ * however many rows it carries.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    public static int count() {
+        return STATEMENTS.get().size();
+    }
+
+    // Statements starting with the prefix, ignoring case (e.g. "insert into order_items")
+    public static int count(String prefix) {
+        return (int) STATEMENTS.get().stream()
+                .filter(sql -> sql.regionMatches(true, 0, prefix, 0, prefix.length()))
+                .count();
+    }
+}